@@ -0,0 +1,117 @@
+package edu.kit.informatik.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.kit.informatik.Move;
+import edu.kit.informatik.UI.GameManager;
+import edu.kit.informatik.exceptions.IllegalArgumentException;
+import edu.kit.informatik.exceptions.IllegalCommandException;
+
+/**
+ * Measures how the game manager parses and dispatches command lines in every
+ * mode, with the board filled to different levels by the commands of the mode. The
+ * responses are printed into a silenced output.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandBenchmark {
+    /**
+     * The mode of the game.
+     */
+    @Param({"standard", "flip", "remove" })
+    public String mode;
+
+    /**
+     * The number of tokens on the board.
+     */
+    @Param({"8", "24", "40" })
+    public int fill;
+
+    private GameManager manager;
+    private String throwin;
+    private PrintStream standardOutput;
+
+    /**
+     * Fills the board by the commands of the mode and silences the printing.
+     *
+     * @throws IllegalArgumentException Never, the arguments are valid.
+     * @throws IllegalCommandException Never, the commands are valid.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IllegalArgumentException, IllegalCommandException {
+        standardOutput = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        manager = new GameManager(Positions.mode(mode).toString(), Integer.toString(Positions.TOKENS_NUMBER));
+        for (int move : Positions.moves(Positions.mode(mode), fill)) {
+            manager.command(Move.toString(move));
+        }
+        throwin = "throwin " + Positions.safeColumn(Positions.position(Positions.mode(mode), fill));
+    }
+
+    /**
+     * Restores the printing.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(standardOutput);
+    }
+
+    /**
+     * Throws a token in and takes it back by commands.
+     *
+     * @throws IllegalCommandException Never, the commands are valid.
+     */
+    @Benchmark
+    public void throwinAndUndo() throws IllegalCommandException {
+        manager.command(throwin);
+        manager.command("undo");
+    }
+
+    /**
+     * @throws IllegalCommandException Never, the command is valid.
+     */
+    @Benchmark
+    public void print() throws IllegalCommandException {
+        manager.command("print");
+    }
+
+    /**
+     * @throws IllegalCommandException Never, the command is valid.
+     */
+    @Benchmark
+    public void state() throws IllegalCommandException {
+        manager.command("state 3;7");
+    }
+
+    /**
+     * Dispatches a command that is rejected with an error.
+     *
+     * @throws IllegalCommandException Never, the error is printed.
+     */
+    @Benchmark
+    public void invalidColumn() throws IllegalCommandException {
+        manager.command("throwin 9");
+    }
+}
@@ -0,0 +1,135 @@
+package edu.kit.informatik.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.kit.informatik.ConnectFourGame;
+import edu.kit.informatik.GameState;
+import edu.kit.informatik.exceptions.IllegalCommandException;
+
+/**
+ * Measures the moves, the game state check and the printing of the game core on
+ * boards of every mode filled to different levels. A move changes the board, so every move
+ * benchmark first resets its game to the measured position; {@link #copy()}
+ * measures the reset alone.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+    /**
+     * The mode whose moves built the measured board.
+     */
+    @Param({"standard", "flip", "remove" })
+    public String mode;
+
+    /**
+     * The number of tokens on the measured board.
+     */
+    @Param({"8", "24", "40" })
+    public int fill;
+
+    private ConnectFourGame position;
+    private ConnectFourGame game;
+    private int throwinColumn;
+    private int removeColumn;
+    private PrintStream standardOutput;
+
+    /**
+     * Builds the measured position and silences the printing.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        position = Positions.position(Positions.mode(mode), fill);
+        game = new ConnectFourGame(position);
+        throwinColumn = Positions.safeColumn(position);
+        removeColumn = Positions.removableColumn(position);
+        standardOutput = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    /**
+     * Restores the printing.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(standardOutput);
+    }
+
+    /**
+     * @return The reset game.
+     */
+    @Benchmark
+    public ConnectFourGame copy() {
+        game.copyFrom(position);
+        return game;
+    }
+
+    /**
+     * @return If the token was thrown in.
+     * @throws IllegalCommandException Never, the column is not full.
+     */
+    @Benchmark
+    public boolean throwin() throws IllegalCommandException {
+        game.copyFrom(position);
+        return game.throwin(throwinColumn);
+    }
+
+    /**
+     * @return The flipped game.
+     */
+    @Benchmark
+    public ConnectFourGame flip() {
+        game.copyFrom(position);
+        game.flip();
+        return game;
+    }
+
+    /**
+     * @return If the token was removed.
+     * @throws IllegalCommandException Never, the active player owns the bottom
+     *             token.
+     */
+    @Benchmark
+    public boolean remove() throws IllegalCommandException {
+        game.copyFrom(position);
+        return game.remove(removeColumn);
+    }
+
+    /**
+     * @return The checked state, the position is running and stays so.
+     */
+    @Benchmark
+    public GameState checkGameState() {
+        position.checkGameState();
+        return position.getGameState();
+    }
+
+    /**
+     * Prints the board into the silenced output.
+     */
+    @Benchmark
+    public void print() {
+        position.print();
+    }
+}
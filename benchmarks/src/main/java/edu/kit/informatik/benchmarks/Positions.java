@@ -0,0 +1,190 @@
+package edu.kit.informatik.benchmarks;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import edu.kit.informatik.Cell;
+import edu.kit.informatik.ConnectFourGame;
+import edu.kit.informatik.GameState;
+import edu.kit.informatik.Mode;
+import edu.kit.informatik.Move;
+import edu.kit.informatik.Player;
+import edu.kit.informatik.exceptions.IllegalCommandException;
+
+/**
+ * Builds the running positions the benchmarks measure: boards holding a given
+ * number of tokens that neither player has won yet, where a token can be thrown
+ * in without finishing the game and the active player owns the bottom token of
+ * at least one column. They are reached by random moves of a mode, so about
+ * every eighth move is a remove or a flip if the mode allows it and the boards
+ * are shaped like the boards of the mode. The random generator has a fixed
+ * seed, so every run measures the same boards.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+final class Positions {
+    /**
+     * The number of tokens of every player, enough for the fullest boards.
+     */
+    static final int TOKENS_NUMBER = ConnectFourGame.MAXIMUM_TOKENS_NUMBER;
+
+    private static final long SEED = 0x436F6E6E65637434L;
+    /**
+     * One move in this many is a remove or a flip if the mode allows it.
+     */
+    private static final int SPECIAL_MOVE_RATE = 8;
+    /**
+     * The number of moves after which a position is given up and built again.
+     */
+    private static final int MAXIMUM_MOVES = 3 * TOKENS_NUMBER;
+
+    /**
+     * Private constructor to avoid object generation.
+     */
+    private Positions() {
+        throw new AssertionError("Utility class constructor.");
+    }
+
+    /**
+     * @param mode The name of a mode as the program expects it, e.g. "flip".
+     * @return The mode.
+     */
+    static Mode mode(String mode) {
+        return Mode.valueOf(mode.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Finds the moves of a mode leading to a running position with the given
+     * number of tokens on the board.
+     *
+     * @param mode The mode of the game.
+     * @param fill The number of tokens on the board, at most 48.
+     * @return The moves.
+     */
+    static int[] moves(Mode mode, int fill) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        int[] moves = new int[MAXIMUM_MOVES];
+        int[] candidates = new int[Move.MOVES_NUMBER];
+        while (true) {
+            ConnectFourGame game = newGame();
+            int played = 0;
+            while (played < MAXIMUM_MOVES && tokens(game) != fill) {
+                int move = playSafely(game, mode, random, candidates);
+                if (move < 0)
+                    break;
+                moves[played++] = move;
+            }
+            if (tokens(game) == fill && safeColumn(game) >= 0 && removableColumn(game) >= 0)
+                return Arrays.copyOf(moves, played);
+        }
+    }
+
+    /**
+     * @param mode The mode of the game.
+     * @param fill The number of tokens on the board, at most 48.
+     * @return A running position of the mode with the given number of tokens on
+     *         the board.
+     */
+    static ConnectFourGame position(Mode mode, int fill) {
+        ConnectFourGame game = newGame();
+        for (int move : moves(mode, fill)) {
+            play(game, move);
+        }
+        return game;
+    }
+
+    /**
+     * @param game A running game.
+     * @return A column a token can be thrown in without finishing the game, or
+     *         {@code -1} if there is none.
+     */
+    static int safeColumn(ConnectFourGame game) {
+        for (int column = 0; column < ConnectFourGame.BOARD_DIMENSION; column++) {
+            ConnectFourGame copy = new ConnectFourGame(game);
+            try {
+                copy.makeMove(Move.throwin(column));
+            } catch (IllegalCommandException e) {
+                continue;
+            }
+            if (copy.getGameState() == GameState.RUNNING)
+                return column;
+        }
+        return -1;
+    }
+
+    /**
+     * @param game A game.
+     * @return A column whose bottom token belongs to the active player, or
+     *         {@code -1} if there is none.
+     */
+    static int removableColumn(ConnectFourGame game) {
+        int[] moves = new int[Move.MOVES_NUMBER];
+        int number = game.generateMoves(Mode.REMOVE, moves);
+        for (int i = 0; i < number; i++) {
+            if (Move.isRemove(moves[i]))
+                return Move.column(moves[i]);
+        }
+        return -1;
+    }
+
+    /**
+     * Makes a random move of the mode that does not finish the game. It is a
+     * remove or a flip once in {@link #SPECIAL_MOVE_RATE} moves if one is
+     * possible, a throwin otherwise.
+     *
+     * @param game The running game.
+     * @param mode The mode of the game.
+     * @param random The random generator.
+     * @param candidates The room for the possible moves.
+     * @return The move, or {@code -1} if every move would finish the game.
+     */
+    private static int playSafely(ConnectFourGame game, Mode mode, SplittableRandom random, int[] candidates) {
+        int number = game.generateMoves(mode, candidates);
+        boolean special = random.nextInt(SPECIAL_MOVE_RATE) == 0;
+        int offset = random.nextInt(number);
+        // The first pass only tries the chosen kind of move, the second one every move.
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < number; i++) {
+                int move = candidates[(offset + i) % number];
+                if (pass == 0 && Move.isThrowin(move) == special)
+                    continue;
+                play(game, move);
+                if (game.getGameState() == GameState.RUNNING)
+                    return move;
+                game.unmakeMove();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param game A game.
+     * @return The number of tokens on the board.
+     */
+    private static int tokens(ConnectFourGame game) {
+        return Long.bitCount(game.getCurrentPlayerTokens() | game.getRivalTokens());
+    }
+
+    /**
+     * @return A game at its start.
+     */
+    private static ConnectFourGame newGame() {
+        return new ConnectFourGame(new Player(Cell.P1, TOKENS_NUMBER), new Player(Cell.P2, TOKENS_NUMBER));
+    }
+
+    /**
+     * Makes a move that is known to be possible.
+     *
+     * @param game The game.
+     * @param move The move.
+     */
+    private static void play(ConnectFourGame game, int move) {
+        try {
+            game.makeMove(move);
+        } catch (IllegalCommandException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
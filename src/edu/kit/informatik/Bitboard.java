@@ -0,0 +1,231 @@
+package edu.kit.informatik;
+
+/**
+ * The bit layout of the Connect Four game's board. The tokens of each player
+ * are stored in one {@code long}: the cell in the column {@code c} and the row
+ * {@code r} is the bit {@code c * 8 + r}. So every column occupies one byte
+ * whose lowest bit is the upper cell of the column and whose highest bit is the
+ * lower one.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public final class Bitboard {
+    /**
+     * The bits of one column, the column 0 being the lowest byte.
+     */
+    public static final long COLUMN_MASK = 0xFFL;
+    /**
+     * The upper cell of every column. The board is full if all these cells are
+     * occupied.
+     */
+    static final long TOP_ROW = 0x0101010101010101L;
+    /**
+     * The number of the lines (columns, rows and diagonals of at least four cells)
+     * that can contain a winning sequence.
+     */
+    static final int LINES_NUMBER = 34;
+    /**
+     * Every line, line {@code i} being the bit {@code i}.
+     */
+    static final long ALL_LINES = (1L << LINES_NUMBER) - 1;
+
+    private static final int WINNING_LENGTH = 4;
+
+    /**
+     * The distance in bits between two neighbour cells of each direction: down a
+     * column, right along a row, up-right along a '/' diagonal and down-right along
+     * a '\' diagonal.
+     */
+    private static final int[] SHIFTS = {1, 8, 7, 9 };
+    /**
+     * The cells from which a sequence of four cells fits into the board in each
+     * direction.
+     */
+    private static final long[] STARTS = {0x1F1F1F1F1F1F1F1FL, 0x000000FFFFFFFFFFL, 0x000000F8F8F8F8F8L,
+        0x0000001F1F1F1F1FL };
+    /**
+     * The cells of every line, first the columns, then the rows, then the '/' and
+     * finally the '\' diagonals.
+     */
+    private static final long[] LINES = new long[LINES_NUMBER];
+    /**
+     * The first line of each direction, the lines of a direction following each
+     * other.
+     */
+    private static final int[] FIRST_LINES = {0, 8, 16, 25, LINES_NUMBER };
+    private static final long[] DIRECTION_LINES = new long[SHIFTS.length];
+    /**
+     * The lines crossing each cell.
+     */
+    private static final long[] CELL_LINES =
+            new long[ConnectFourGame.BOARD_DIMENSION * ConnectFourGame.BOARD_DIMENSION];
+    /**
+     * The lines crossing each column, which are all the lines a token moving
+     * inside the column can change.
+     */
+    private static final long[] COLUMN_LINES = new long[ConnectFourGame.BOARD_DIMENSION];
+    /**
+     * The tokens of one player in a column after a flip, indexed by the height of
+     * the column (the number of its tokens) shifted by eight bits and the player's
+     * tokens of the column before the flip.
+     */
+    private static final byte[] FLIPPED = new byte[(ConnectFourGame.BOARD_DIMENSION + 1) << Byte.SIZE];
+
+    static {
+        int line = 0;
+        for (int column = 0; column < ConnectFourGame.BOARD_DIMENSION; column++) {
+            LINES[line++] = COLUMN_MASK << index(column, 0);
+        }
+        for (int row = 0; row < ConnectFourGame.BOARD_DIMENSION; row++) {
+            LINES[line++] = TOP_ROW << row;
+        }
+        // A '/' diagonal holds the cells with the same sum of column and row, a '\'
+        // diagonal the cells with the same difference.
+        int longest = 2 * (ConnectFourGame.BOARD_DIMENSION - 1);
+        for (int sum = WINNING_LENGTH - 1; sum <= longest - WINNING_LENGTH + 1; sum++) {
+            LINES[line++] = diagonal(sum, true);
+        }
+        for (int difference = WINNING_LENGTH - ConnectFourGame.BOARD_DIMENSION;
+                difference <= ConnectFourGame.BOARD_DIMENSION - WINNING_LENGTH; difference++) {
+            LINES[line++] = diagonal(difference, false);
+        }
+        for (int direction = 0; direction < SHIFTS.length; direction++) {
+            DIRECTION_LINES[direction] = (1L << FIRST_LINES[direction + 1]) - (1L << FIRST_LINES[direction]);
+        }
+        for (int cell = 0; cell < CELL_LINES.length; cell++) {
+            for (line = 0; line < LINES_NUMBER; line++) {
+                if ((LINES[line] & 1L << cell) != 0)
+                    CELL_LINES[cell] |= 1L << line;
+            }
+            COLUMN_LINES[cell / ConnectFourGame.BOARD_DIMENSION] |= CELL_LINES[cell];
+        }
+        // Reversing the column's byte turns the column upside down and leaves the tokens
+        // hanging at the top, shifting them by the number of empty cells lets them fall
+        // to the bottom again.
+        for (int height = 0; height <= ConnectFourGame.BOARD_DIMENSION; height++) {
+            for (int tokens = 0; tokens < 1 << Byte.SIZE; tokens++) {
+                int reversed = Integer.reverse(tokens) >>> Integer.SIZE - Byte.SIZE;
+                FLIPPED[height << Byte.SIZE | tokens] = (byte) (reversed << ConnectFourGame.BOARD_DIMENSION - height);
+            }
+        }
+    }
+
+    /**
+     * Private constructor to avoid object generation.
+     */
+    private Bitboard() {
+        throw new AssertionError("Utility class constructor.");
+    }
+
+    /**
+     * @param column The column of the cell.
+     * @param row The row of the cell.
+     * @return The position of the cell's bit.
+     */
+    public static int index(int column, int row) {
+        return column * ConnectFourGame.BOARD_DIMENSION + row;
+    }
+
+    /**
+     * @param tokens The tokens of a player.
+     * @param column The column number.
+     * @return The tokens of the given column as the lowest byte.
+     */
+    public static int column(long tokens, int column) {
+        return (int) (tokens >>> index(column, 0) & COLUMN_MASK);
+    }
+
+    /**
+     * @param column The column of the cell.
+     * @param row The row of the cell.
+     * @return The lines crossing the cell.
+     */
+    static long cellLines(int column, int row) {
+        return CELL_LINES[index(column, row)];
+    }
+
+    /**
+     * @param column The column number.
+     * @return The lines crossing the column.
+     */
+    static long columnLines(int column) {
+        return COLUMN_LINES[column];
+    }
+
+    /**
+     * Flips the tokens of one player by looking every column up in the flip table.
+     * The occupied cells do not change by a flip, so the tokens of the other player
+     * are the remaining occupied cells.
+     *
+     * @param tokens The tokens of one player.
+     * @param occupied The tokens of both players.
+     * @return The tokens of the player after the flip.
+     */
+    static long flip(long tokens, long occupied) {
+        long flipped = 0;
+        for (int column = 0; column < ConnectFourGame.BOARD_DIMENSION; column++) {
+            int height = Integer.bitCount(column(occupied, column));
+            flipped |= (FLIPPED[height << Byte.SIZE | column(tokens, column)] & COLUMN_MASK) << index(column, 0);
+        }
+        return flipped;
+    }
+
+    /**
+     * Removes the bottom cell of a column and lets the cells above fall by one
+     * row, which is a shift by one bit inside the column's byte.
+     *
+     * @param tokens The tokens of one player.
+     * @param column The column number.
+     * @return The tokens of the player after the removal.
+     */
+    static long removeBottom(long tokens, int column) {
+        long columnMask = COLUMN_MASK << index(column, 0);
+        return tokens & ~columnMask | (tokens & columnMask) << 1 & columnMask;
+    }
+
+    /**
+     * Checks the selected lines for sequences of at least four tokens of the same
+     * player followed by each other. A pair of neighbours is found by one shift and
+     * an AND, the sequence of four by doing it again with the pairs. Only the
+     * directions having a selected line are shifted.
+     *
+     * @param tokens The tokens of one player.
+     * @param lines The lines which contained a winning sequence before, line
+     *            {@code i} being the bit {@code i}.
+     * @param selection The lines to be checked again.
+     * @return The lines containing a winning sequence.
+     */
+    static long winningLines(long tokens, long lines, long selection) {
+        long found = 0;
+        for (int direction = 0; direction < SHIFTS.length; direction++) {
+            long selected = selection & DIRECTION_LINES[direction];
+            if (selected == 0)
+                continue;
+            long pairs = tokens & (tokens >>> SHIFTS[direction]);
+            long sequences = pairs & (pairs >>> 2 * SHIFTS[direction]) & STARTS[direction];
+            for (; sequences != 0 && selected != 0; selected &= selected - 1) {
+                int line = Long.numberOfTrailingZeros(selected);
+                if ((sequences & LINES[line]) != 0)
+                    found |= 1L << line;
+            }
+        }
+        return lines & ~selection | found;
+    }
+
+    /**
+     * @param level The sum of column and row of a '/' diagonal, or their
+     *            difference of a '\' diagonal.
+     * @param rising {@code true} for a '/' diagonal, {@code false} for a '\' one.
+     * @return The cells of the diagonal.
+     */
+    private static long diagonal(int level, boolean rising) {
+        long cells = 0;
+        for (int column = 0; column < ConnectFourGame.BOARD_DIMENSION; column++) {
+            int row = rising ? level - column : column - level;
+            if (row >= 0 && row < ConnectFourGame.BOARD_DIMENSION)
+                cells |= 1L << index(column, row);
+        }
+        return cells;
+    }
+}
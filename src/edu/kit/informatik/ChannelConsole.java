@@ -0,0 +1,202 @@
+package edu.kit.informatik;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * A console on byte channels, used for the fast input and output of the session
+ * on the terminal and for the connections of the game server. It reads the
+ * input channel in blocks and splits the lines itself, and it collects the
+ * printed lines in a reusable buffer that is only written to the output channel
+ * when it is full, before the input is read again and on request. So a stream of
+ * commands is answered by few large writes instead of one per line.
+ *
+ * <p>The lines are split at the same terminators as
+ * {@link java.io.BufferedReader#readLine()} and the printed lines end with the
+ * same separator as {@link System#out}, so the output is the same byte for byte.
+ * Every input byte becomes one character, which is the same as decoding it for
+ * the commands of the game since they consist of ASCII characters only. A
+ * failing channel is reported by an {@link UncheckedIOException}. Reading and
+ * printing lock separately, so other threads can print while a line is waited
+ * for.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public final class ChannelConsole implements Console {
+    private static final int LINE_SIZE = 128;
+    private static final int BYTE_MASK = 0xFF;
+    private static final char LAST_ASCII = 0x7F;
+
+    private final ReadableByteChannel in;
+    private final WritableByteChannel out;
+    private final ByteBuffer input;
+    private final ByteBuffer output;
+    private final byte[] lineSeparator = System.lineSeparator().getBytes(Charset.defaultCharset());
+    private char[] line = new char[LINE_SIZE];
+    private boolean skipLineFeed;
+
+    /**
+     * Creates a console on the given channels.
+     *
+     * @param in The input channel, blocking.
+     * @param out The output channel, blocking.
+     * @param bufferSize The size of the input and the output buffer in bytes.
+     * @param direct {@code true} If the buffers are allocated outside the heap,
+     *            which pays off for few long-living consoles with large buffers.
+     */
+    public ChannelConsole(ReadableByteChannel in, WritableByteChannel out, int bufferSize, boolean direct) {
+        this.in = in;
+        this.out = out;
+        input = direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+        output = direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+        input.limit(0);
+    }
+
+    /**
+     * Reads a line, writing the collected output first if the input must be
+     * waited for.
+     *
+     * @return The line without its terminator, or {@code null} at the end of the
+     *         stream.
+     */
+    @Override
+    public String readLine() {
+        try {
+            synchronized (input) {
+                return read();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Collects a line of output.
+     *
+     * @param object The object whose string representation is printed.
+     */
+    @Override
+    public void printLine(Object object) {
+        try {
+            synchronized (output) {
+                print(String.valueOf(object));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the collected output.
+     */
+    public void flush() {
+        try {
+            synchronized (output) {
+                write();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a line, writing the collected output first if the input must be
+     * waited for.
+     *
+     * @return The line without its terminator, or {@code null} at the end of the
+     *         stream.
+     * @throws IOException If the input cannot be read.
+     */
+    private String read() throws IOException {
+        int length = 0;
+        while (true) {
+            if (!input.hasRemaining()) {
+                flush();
+                input.clear();
+                int read = in.read(input);
+                input.flip();
+                if (read < 0)
+                    return length == 0 ? null : new String(line, 0, length);
+            }
+            char character = (char) (input.get() & BYTE_MASK);
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (character == '\n')
+                    continue;
+            }
+            if (character == '\n')
+                return new String(line, 0, length);
+            if (character == '\r') {
+                skipLineFeed = true;
+                return new String(line, 0, length);
+            }
+            if (length == line.length) {
+                char[] grown = new char[2 * length];
+                System.arraycopy(line, 0, grown, 0, length);
+                line = grown;
+            }
+            line[length++] = character;
+        }
+    }
+
+    /**
+     * Collects a line of output.
+     *
+     * @param text The line without its terminator.
+     * @throws IOException If the collected output had to be written and could not
+     *             be.
+     */
+    private void print(String text) throws IOException {
+        int length = text.length();
+        boolean ascii = true;
+        for (int i = 0; i < length && ascii; i++) {
+            ascii = text.charAt(i) <= LAST_ASCII;
+        }
+        if (!ascii) {
+            put(text.getBytes(Charset.defaultCharset()));
+        } else {
+            for (int i = 0; i < length; i++) {
+                if (!output.hasRemaining())
+                    write();
+                output.put((byte) text.charAt(i));
+            }
+        }
+        put(lineSeparator);
+    }
+
+    /**
+     * Writes the collected output.
+     *
+     * @throws IOException If the output cannot be written.
+     */
+    private void write() throws IOException {
+        output.flip();
+        while (output.hasRemaining()) {
+            out.write(output);
+        }
+        output.clear();
+    }
+
+    /**
+     * Collects some bytes of output.
+     *
+     * @param bytes The bytes.
+     * @throws IOException If the collected output had to be written and could not
+     *             be.
+     */
+    private void put(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!output.hasRemaining())
+                write();
+            int length = Math.min(output.remaining(), bytes.length - offset);
+            output.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+}
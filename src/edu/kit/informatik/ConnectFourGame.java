@@ -24,17 +24,45 @@ public class ConnectFourGame {
      */
     public static final int MINIMUM_TOKENS_NUMBER = 28;
     /**
-     * The dead corner is the corner in the game board that can never contain a
-     * winning sequence.
+     * The number of {@code long} values stored per made move: both players'
+     * tokens, both players' winning lines, both hashes and the packed rest of the
+     * state.
      */
-    private static final int DEAD_CORNER = 2;
+    private static final int HISTORY_STRIDE = 7;
+    private static final int INITIAL_HISTORY_CAPACITY = 128;
+    private static final int FIELD_BITS = 6;
+    private static final long FIELD_MASK = (1L << FIELD_BITS) - 1;
+    private static final int WINDOW_SCORE_SHIFT = 8 * FIELD_BITS;
+    private static final GameState[] GAME_STATES = GameState.values();
 
-    private Cell[][] board = new Cell[BOARD_DIMENSION][BOARD_DIMENSION];
+    // The cells occupied by each player, one bit per cell as laid out in
+    // Bitboard.
+    private long playerOneTokens;
+    private long playerTwoTokens;
+    // The lines containing a winning sequence of each player. Every change of the
+    // board updates only the lines it crosses.
+    private long playerOneLines;
+    private long playerTwoLines;
+    // The Zobrist hash of the position, updated by every change like the lines.
+    private long hash;
+    // The Zobrist hash of the position mirrored left to right. Every rule is the
+    // same on the mirrored board, so a position and its mirror image share the
+    // smaller of both hashes as canonical hash.
+    private long mirrorHash;
+    // The worth of all windows of four cells for the first player, see Windows.
+    // Every change of the board rescores only the windows it crosses.
+    private int windowScore;
     private GameState gameState;
     private Player playerOne;
     private Player playerTwo;
     private Player currentPlayer;
     private Player winner;
+    // The state before each made move, so that moves can be unmade without
+    // creating any objects. The moves from historySize to historyLimit were unmade
+    // and can be redone.
+    private long[] history = new long[INITIAL_HISTORY_CAPACITY * HISTORY_STRIDE];
+    private int historySize;
+    private int historyLimit;
 
     /**
      * Creates a Connect Four game with two players and empty cells. Sets the player
@@ -49,12 +77,66 @@ public class ConnectFourGame {
         this.playerTwo = playerTwo;
         currentPlayer = this.playerOne;
         winner = null;
-        board = new Cell[BOARD_DIMENSION][BOARD_DIMENSION];
-        setCellsToEmpty(board);
+        playerOneTokens = 0;
+        playerTwoTokens = 0;
+        playerOneLines = 0;
+        playerTwoLines = 0;
+        windowScore = 0;
+        hash = Zobrist.tokens(true, playerOne.getTokensNumber()) ^ Zobrist.tokens(false, playerTwo.getTokensNumber());
+        mirrorHash = hash;
     }
 
     /**
-     * Scans the entire board looking for a winner. A player is the winner if they
+     * Creates a copy of a game with copies of its players, e.g. for searching moves
+     * without changing the original game. The history of the made moves is not
+     * copied.
+     * 
+     * @param game The game to be copied.
+     */
+    public ConnectFourGame(ConnectFourGame game) {
+        playerOne = new Player(game.playerOne);
+        playerTwo = new Player(game.playerTwo);
+        currentPlayer = game.currentPlayer.equals(game.playerOne) ? playerOne : playerTwo;
+        winner = game.winner == null ? null : game.winner.equals(game.playerOne) ? playerOne : playerTwo;
+        gameState = game.gameState;
+        playerOneTokens = game.playerOneTokens;
+        playerTwoTokens = game.playerTwoTokens;
+        playerOneLines = game.playerOneLines;
+        playerTwoLines = game.playerTwoLines;
+        hash = game.hash;
+        mirrorHash = game.mirrorHash;
+        windowScore = game.windowScore;
+    }
+
+    /**
+     * Turns this game into a copy of another game without creating any objects,
+     * e.g. to play a game again and again from the same position. Both games must
+     * have players with the same labels. The history of the made moves is
+     * dropped.
+     * 
+     * @param game The game to be copied.
+     */
+    public void copyFrom(ConnectFourGame game) {
+        playerOne.setTokensNumber(game.playerOne.getTokensNumber());
+        playerTwo.setTokensNumber(game.playerTwo.getTokensNumber());
+        playerOne.setWinningLine(game.playerOne.getWinningLine());
+        playerTwo.setWinningLine(game.playerTwo.getWinningLine());
+        currentPlayer = game.currentPlayer.equals(game.playerOne) ? playerOne : playerTwo;
+        winner = game.winner == null ? null : game.winner.equals(game.playerOne) ? playerOne : playerTwo;
+        gameState = game.gameState;
+        playerOneTokens = game.playerOneTokens;
+        playerTwoTokens = game.playerTwoTokens;
+        playerOneLines = game.playerOneLines;
+        playerTwoLines = game.playerTwoLines;
+        hash = game.hash;
+        mirrorHash = game.mirrorHash;
+        windowScore = game.windowScore;
+        historySize = 0;
+        historyLimit = 0;
+    }
+
+    /**
+     * Checks the board for a winner. A player is the winner if they
      * have at least 4 tokens followed by each other as a sequence in the board, it
      * could be horizontal, vertical or diagonal in both directions. The game ends
      * with the result 'draw' if:
@@ -63,12 +145,12 @@ public class ConnectFourGame {
      * <li>when the rival has no more tokens
      * <li>when both players won at the same time (after flip or remove command).
      * </ul>
+     * The winning sequences are kept up to date by every change of the board, so
+     * this check does not scan the board again.
      */
     public void checkGameState() {
-        searchHorizontally();
-        searchVertically();
-        leftSearchDiagonaly();
-        rightSearchDiagonaly();
+        playerOne.setWinningLine(Long.bitCount(playerOneLines));
+        playerTwo.setWinningLine(Long.bitCount(playerTwoLines));
         if (playerOne.getWinningLine() > 0 || playerTwo.getWinningLine() > 0) {
             if (playerOne.getWinningLine() == playerTwo.getWinningLine())
                 gameState = GameState.DRAW;
@@ -83,115 +165,6 @@ public class ConnectFourGame {
             gameState = GameState.DRAW;
     }
 
-    /**
-     * Scans the board horizontally looking for four tokens with the same label.
-     */
-    private void searchHorizontally() {
-        for (int row = BOARD_DIMENSION - 1; row >= 0; row--) {
-            String rowSequence = "";
-            for (int column = 0; column < BOARD_DIMENSION; column++) {
-                rowSequence += board[column][row].toString();
-            }
-            checkWinningSequences(rowSequence);
-        }
-    }
-
-    /**
-     * Scans the board vertically looking for four tokens with the same label.
-     */
-    private void searchVertically() {
-        for (int column = 0; column < BOARD_DIMENSION; column++) {
-            String columnSequence = "";
-            for (int row = BOARD_DIMENSION - 1; row >= 0; row--) {
-                columnSequence += board[column][row].toString();
-            }
-            checkWinningSequences(columnSequence);
-        }
-    }
-
-    /**
-     * Scans the board diagonally looking for four tokens with the same label. This
-     * diagonal is from the down-left of the board to the up-right (like this '/').
-     */
-    private void leftSearchDiagonaly() {
-        String diagonalSequence;
-        int column;
-        int row = BOARD_DIMENSION - 1;
-        int verticalLevel = 1;
-        int rowLevel = 1;
-        for (int horizontalLevel = BOARD_DIMENSION - 1; horizontalLevel > DEAD_CORNER; horizontalLevel--) {
-            diagonalSequence = "";
-
-            column = 0;
-            for (row = horizontalLevel; row >= 0; row--) {
-                diagonalSequence += board[column][row].toString();
-                column++;
-            }
-            checkWinningSequences(diagonalSequence);
-
-            diagonalSequence = "";
-            column = verticalLevel;
-            for (row = BOARD_DIMENSION - 1; row >= rowLevel; row--) {
-                if (verticalLevel < BOARD_DIMENSION - 1 - DEAD_CORNER) {
-                    diagonalSequence += board[column][row].toString();
-                    column++;
-                }
-            }
-            checkWinningSequences(diagonalSequence);
-            rowLevel++;
-            verticalLevel++;
-        }
-    }
-
-    /**
-     * Scans the board diagonally looking for four tokens with the same label. This
-     * diagonal is from the down-right of the board to the up-left (like this '\').
-     */
-    private void rightSearchDiagonaly() {
-        String diagonalSequence;
-        int column;
-        int row = BOARD_DIMENSION - 1;
-        int verticalLevel = 6;
-        int rowLevel = 1;
-        for (int horizontalLevel = BOARD_DIMENSION - 1; horizontalLevel > DEAD_CORNER; horizontalLevel--) {
-
-            diagonalSequence = "";
-            column = 7;
-            for (row = horizontalLevel; row >= 0; row--) {
-                diagonalSequence += board[column][row].toString();
-                column--;
-            }
-            checkWinningSequences(diagonalSequence);
-
-            diagonalSequence = "";
-            column = verticalLevel;
-            for (row = BOARD_DIMENSION - 1; row >= rowLevel; row--) {
-                if (verticalLevel > DEAD_CORNER) {
-                    diagonalSequence += board[column][row].toString();
-                    column--;
-                }
-            }
-            checkWinningSequences(diagonalSequence);
-            rowLevel++;
-            verticalLevel--;
-        }
-    }
-
-    /**
-     * Checks the lines of the board if they contain winning sequences. If they do,
-     * it counts the amount of them for each player.
-     * 
-     * @param winningLines The passed lines to be checked.
-     */
-    private void checkWinningSequences(String winningLines) {
-        if (winningLines.contains(playerOne.getLabel().toString() + playerOne.getLabel().toString()
-                + playerOne.getLabel().toString() + playerOne.getLabel().toString()))
-            playerOne.increaseByOne();
-        if (winningLines.contains(playerTwo.getLabel().toString() + playerTwo.getLabel().toString()
-                + playerTwo.getLabel().toString() + playerTwo.getLabel().toString()))
-            playerTwo.increaseByOne();
-    }
-
     /**
      * Throws a token of the current player in a column that its number was input
      * after checking if it is not full of tokens. A throw reduces the number of
@@ -203,42 +176,52 @@ public class ConnectFourGame {
      * @return {@code true} If throwin a token was done successfully, {@code false} otherwise.
      */
     public boolean throwin(int columnNumber) throws IllegalCommandException {
-        if (board[columnNumber][0].equals(Cell.EMPTY_CELL)) {
-            for (int row = BOARD_DIMENSION - 1; row >= 0; row--) {
-                if (board[columnNumber][row].equals(Cell.EMPTY_CELL)) {
-                    if (currentPlayer.getLabel().equals(Cell.P1))
-                        board[columnNumber][row] = Cell.P1;
-                    if (currentPlayer.getLabel().equals(Cell.P2))
-                        board[columnNumber][row] = Cell.P2;
-                    currentPlayer.reduceByOne();
-                    nextPlayer();
-                    return true;
-                }
-            }
-        } else {
+        int column = Bitboard.column(playerOneTokens | playerTwoTokens, columnNumber);
+        if ((column & 1) != 0)
             throw new IllegalCommandException("the column in which you want to throw a token is full.");
+        // The tokens lie on the bottom of the column, so the first empty cell is above
+        // all of them.
+        int row = BOARD_DIMENSION - 1 - Integer.bitCount(column);
+        int index = Bitboard.index(columnNumber, row);
+        long cell = 1L << index;
+        boolean isPlayerOne = currentPlayer.equals(playerOne);
+        windowScore += isPlayerOne ? Windows.throwinScore(playerOneTokens, playerTwoTokens, index)
+                : -Windows.throwinScore(playerTwoTokens, playerOneTokens, index);
+        long tokensKey = Zobrist.tokens(isPlayerOne, currentPlayer.getTokensNumber());
+        hash ^= Zobrist.column(playerOneTokens, playerTwoTokens, columnNumber) ^ tokensKey;
+        mirrorHash ^= Zobrist.mirroredColumn(playerOneTokens, playerTwoTokens, columnNumber) ^ tokensKey;
+        if (isPlayerOne) {
+            playerOneTokens |= cell;
+            playerOneLines = Bitboard.winningLines(playerOneTokens, playerOneLines,
+                    Bitboard.cellLines(columnNumber, row));
+        } else {
+            playerTwoTokens |= cell;
+            playerTwoLines = Bitboard.winningLines(playerTwoTokens, playerTwoLines,
+                    Bitboard.cellLines(columnNumber, row));
         }
-        return false;
+        currentPlayer.reduceByOne();
+        tokensKey = Zobrist.tokens(isPlayerOne, currentPlayer.getTokensNumber());
+        hash ^= Zobrist.column(playerOneTokens, playerTwoTokens, columnNumber) ^ tokensKey;
+        mirrorHash ^= Zobrist.mirroredColumn(playerOneTokens, playerTwoTokens, columnNumber) ^ tokensKey;
+        nextPlayer();
+        return true;
     }
 
     /**
      * Flips the board upside down making the upper tokens down and vice versa.
+     * Since a flip can change every line, all of them are checked again.
      */
     public void flip() {
-        Cell[][] afterFlipping = new Cell[BOARD_DIMENSION][BOARD_DIMENSION];
-        setCellsToEmpty(afterFlipping);
-        int newPosition;
-        for (int column = 0; column < BOARD_DIMENSION; column++) {
-            newPosition = BOARD_DIMENSION - 1;
-            for (int row = 0; row < BOARD_DIMENSION; row++) {
-                if (!board[column][row].equals(Cell.EMPTY_CELL)) {
-                    afterFlipping[column][newPosition] = board[column][row];
-                    newPosition--;
-
-                }
-            }
-        }
-        board = afterFlipping;
+        long occupied = playerOneTokens | playerTwoTokens;
+        hash ^= Zobrist.board(playerOneTokens, playerTwoTokens);
+        mirrorHash ^= Zobrist.mirroredBoard(playerOneTokens, playerTwoTokens);
+        playerOneTokens = Bitboard.flip(playerOneTokens, occupied);
+        playerTwoTokens = occupied & ~playerOneTokens;
+        hash ^= Zobrist.board(playerOneTokens, playerTwoTokens);
+        mirrorHash ^= Zobrist.mirroredBoard(playerOneTokens, playerTwoTokens);
+        windowScore = Windows.boardScore(playerOneTokens, playerTwoTokens);
+        playerOneLines = Bitboard.winningLines(playerOneTokens, 0, Bitboard.ALL_LINES);
+        playerTwoLines = Bitboard.winningLines(playerTwoTokens, 0, Bitboard.ALL_LINES);
     }
 
     /**
@@ -257,45 +240,229 @@ public class ConnectFourGame {
      *             column belongs to the rival.
      */
     public boolean remove(int columnNumber) throws IllegalCommandException {
-        if (board[columnNumber][BOARD_DIMENSION - 1].equals(currentPlayer.getLabel())) {
-            for (int row = BOARD_DIMENSION - 1; row > 0; row--) {
-                board[columnNumber][row] = board[columnNumber][row - 1];
-            }
-            board[columnNumber][0] = Cell.EMPTY_CELL;
+        long bottom = 1L << Bitboard.index(columnNumber, BOARD_DIMENSION - 1);
+        long ownTokens = currentPlayer.equals(playerOne) ? playerOneTokens : playerTwoTokens;
+        if ((ownTokens & bottom) != 0) {
+            hash ^= Zobrist.column(playerOneTokens, playerTwoTokens, columnNumber);
+            mirrorHash ^= Zobrist.mirroredColumn(playerOneTokens, playerTwoTokens, columnNumber);
+            windowScore -= Windows.columnScore(playerOneTokens, playerTwoTokens, columnNumber);
+            playerOneTokens = Bitboard.removeBottom(playerOneTokens, columnNumber);
+            playerTwoTokens = Bitboard.removeBottom(playerTwoTokens, columnNumber);
+            hash ^= Zobrist.column(playerOneTokens, playerTwoTokens, columnNumber);
+            mirrorHash ^= Zobrist.mirroredColumn(playerOneTokens, playerTwoTokens, columnNumber);
+            windowScore += Windows.columnScore(playerOneTokens, playerTwoTokens, columnNumber);
+            playerOneLines = Bitboard.winningLines(playerOneTokens, playerOneLines, Bitboard.columnLines(columnNumber));
+            playerTwoLines = Bitboard.winningLines(playerTwoTokens, playerTwoLines, Bitboard.columnLines(columnNumber));
             nextPlayer();
             return true;
-        } else if (board[columnNumber][BOARD_DIMENSION - 1].equals(Cell.EMPTY_CELL))
+        } else if (((playerOneTokens | playerTwoTokens) & bottom) == 0)
             throw new IllegalCommandException("the column with the number you entered is empty.");
-        else if (!board[columnNumber][BOARD_DIMENSION - 1].equals(currentPlayer.getLabel()))
+        else
             throw new IllegalCommandException("you cannot remove your rival's token.");
-        return false;
     }
 
     /**
-     * Checks if the board is full regardless of containing a winner.
+     * Writes all the moves the active player can make into the given array: a
+     * throwin in every column that is not full, a remove in every column whose
+     * bottom token belongs to the active player if the mode allows removing and a
+     * flip if the mode allows flipping. There are no moves once the game is
+     * finished.
      * 
-     * @return {@code true} If the board is full, {@code false} otherwise.
+     * @param mode The mode of the game.
+     * @param moves The array to be filled, at least {@link Move#MOVES_NUMBER}
+     *            long.
+     * @return The number of the written moves.
      */
-    private boolean boardIsFull() {
+    public int generateMoves(Mode mode, int[] moves) {
+        if (gameState != GameState.RUNNING)
+            return 0;
+        int number = 0;
+        long occupied = playerOneTokens | playerTwoTokens;
         for (int column = 0; column < BOARD_DIMENSION; column++) {
-            if (board[column][0].equals(Cell.EMPTY_CELL))
-                return false;
+            if ((Bitboard.column(occupied, column) & 1) == 0)
+                moves[number++] = Move.throwin(column);
         }
+        if (mode.allowsRemove()) {
+            long ownTokens = currentPlayer.equals(playerOne) ? playerOneTokens : playerTwoTokens;
+            for (int column = 0; column < BOARD_DIMENSION; column++) {
+                if ((ownTokens & 1L << Bitboard.index(column, BOARD_DIMENSION - 1)) != 0)
+                    moves[number++] = Move.remove(column);
+            }
+        }
+        if (mode.allowsFlip())
+            moves[number++] = Move.FLIP;
+        return number;
+    }
+
+    /**
+     * Makes a complete move: performs it, switches the player and checks the game
+     * state. The state before the move is kept, so the move can be unmade later.
+     * Making a move drops all the moves that were unmade and not redone.
+     * 
+     * @param move The move as encoded by {@link Move}.
+     * @throws IllegalCommandException If the move is not possible on the current
+     *             board, in this case nothing changes.
+     */
+    public void makeMove(int move) throws IllegalCommandException {
+        play(move);
+        historyLimit = historySize;
+    }
+
+    /**
+     * Unmakes the last made move restoring the board, the tokens of both players,
+     * the active player, the game state and the winner as they were before it.
+     * 
+     * @return {@code true} If a move was unmade, {@code false} if there was none.
+     */
+    public boolean unmakeMove() {
+        if (historySize == 0)
+            return false;
+        historySize--;
+        int entry = historySize * HISTORY_STRIDE;
+        playerOneTokens = history[entry];
+        playerTwoTokens = history[entry + 1];
+        playerOneLines = history[entry + 2];
+        playerTwoLines = history[entry + 3];
+        hash = history[entry + 4];
+        mirrorHash = history[entry + 5];
+        long state = history[entry + 6];
+        windowScore = (short) (state >>> WINDOW_SCORE_SHIFT);
+        playerOne.setTokensNumber(field(state, 1));
+        playerTwo.setTokensNumber(field(state, 2));
+        playerOne.setWinningLine(field(state, 3));
+        playerTwo.setWinningLine(field(state, 4));
+        currentPlayer = field(state, 5) == 0 ? playerOne : playerTwo;
+        gameState = GAME_STATES[field(state, 6)];
+        int winnerField = field(state, 7);
+        winner = winnerField == 0 ? null : winnerField == 1 ? playerOne : playerTwo;
         return true;
     }
 
     /**
-     * Sets all the board's cells to empty. It's used once the once we create a new
-     * game board.
+     * Makes the last unmade move again.
      * 
-     * @param board The created board.
+     * @return {@code true} If a move was redone, {@code false} if there was none.
      */
-    private void setCellsToEmpty(Cell[][] board) {
-        for (int i = 0; i < BOARD_DIMENSION; i++) {
-            for (int j = 0; j < BOARD_DIMENSION; j++) {
-                board[i][j] = Cell.EMPTY_CELL;
-            }
+    public boolean redoMove() {
+        if (historySize == historyLimit)
+            return false;
+        try {
+            play(field(history[historySize * HISTORY_STRIDE + 6], 0));
+        } catch (IllegalCommandException e) {
+            // The move was already made once from the very same state.
+            throw new IllegalStateException(e);
         }
+        return true;
+    }
+
+    /**
+     * @return The number of moves that can be unmade.
+     */
+    public int getMovesNumber() {
+        return historySize;
+    }
+
+    /**
+     * @return The last made move as encoded by {@link Move}, or {@code -1} if there
+     *         is none.
+     */
+    public int getLastMove() {
+        if (historySize == 0)
+            return -1;
+        return getMove(historySize - 1);
+    }
+
+    /**
+     * @param number The number of a made move, from {@code 0} to
+     *            {@link #getMovesNumber()} exclusive.
+     * @return The move as encoded by {@link Move}.
+     */
+    public int getMove(int number) {
+        if (number < 0 || number >= historySize)
+            throw new IndexOutOfBoundsException("there is no made move " + number + ".");
+        return field(history[number * HISTORY_STRIDE + 6], 0);
+    }
+
+    /**
+     * Performs the move and keeps the state before it in the history. The entry is
+     * only written once the move has been performed, so a move that is not
+     * possible leaves the history, including the moves to be redone, unchanged.
+     * 
+     * @param move The move as encoded by {@link Move}.
+     * @throws IllegalCommandException If the move is not possible on the current
+     *             board.
+     */
+    private void play(int move) throws IllegalCommandException {
+        long previousPlayerOneTokens = playerOneTokens;
+        long previousPlayerTwoTokens = playerTwoTokens;
+        long previousPlayerOneLines = playerOneLines;
+        long previousPlayerTwoLines = playerTwoLines;
+        long previousHash = hash;
+        long previousMirrorHash = mirrorHash;
+        int winnerField = winner == null ? 0 : winner == playerOne ? 1 : 2;
+        long state = move | (long) playerOne.getTokensNumber() << FIELD_BITS
+                | (long) playerTwo.getTokensNumber() << 2 * FIELD_BITS
+                | (long) playerOne.getWinningLine() << 3 * FIELD_BITS
+                | (long) playerTwo.getWinningLine() << 4 * FIELD_BITS
+                | (long) (currentPlayer.equals(playerOne) ? 0 : 1) << 5 * FIELD_BITS
+                | (long) gameState.ordinal() << 6 * FIELD_BITS | (long) winnerField << 7 * FIELD_BITS
+                | (long) (windowScore & 0xFFFF) << WINDOW_SCORE_SHIFT;
+        if (Move.isThrowin(move))
+            throwin(Move.column(move));
+        else if (Move.isRemove(move))
+            remove(Move.column(move));
+        else {
+            flip();
+            nextPlayer();
+        }
+        int entry = historySize * HISTORY_STRIDE;
+        if (entry == history.length) {
+            long[] grown = new long[2 * history.length];
+            System.arraycopy(history, 0, grown, 0, history.length);
+            history = grown;
+        }
+        history[entry] = previousPlayerOneTokens;
+        history[entry + 1] = previousPlayerTwoTokens;
+        history[entry + 2] = previousPlayerOneLines;
+        history[entry + 3] = previousPlayerTwoLines;
+        history[entry + 4] = previousHash;
+        history[entry + 5] = previousMirrorHash;
+        history[entry + 6] = state;
+        historySize++;
+        checkGameState();
+    }
+
+    /**
+     * @param state The packed state of a history entry.
+     * @param field The number of the field.
+     * @return The value of the field.
+     */
+    private static int field(long state, int field) {
+        return (int) (state >>> field * FIELD_BITS & FIELD_MASK);
+    }
+
+    /**
+     * Checks if the board is full regardless of containing a winner.
+     * 
+     * @return {@code true} If the board is full, {@code false} otherwise.
+     */
+    private boolean boardIsFull() {
+        return ((playerOneTokens | playerTwoTokens) & Bitboard.TOP_ROW) == Bitboard.TOP_ROW;
+    }
+
+    /**
+     * @param column The column of the cell.
+     * @param row The row of the cell.
+     * @return The label of the token in the cell or {@code EMPTY_CELL} if there is
+     *         none.
+     */
+    private Cell getCell(int column, int row) {
+        long cell = 1L << Bitboard.index(column, row);
+        if ((playerOneTokens & cell) != 0)
+            return playerOne.getLabel();
+        if ((playerTwoTokens & cell) != 0)
+            return playerTwo.getLabel();
+        return Cell.EMPTY_CELL;
     }
 
     /**
@@ -303,6 +470,8 @@ public class ConnectFourGame {
      * player one is now active it becomes the second and vice versa.
      */
     public void nextPlayer() {
+        hash ^= Zobrist.PLAYER_TWO_TURN;
+        mirrorHash ^= Zobrist.PLAYER_TWO_TURN;
         if (currentPlayer.equals(playerOne))
             currentPlayer = playerTwo;
         else if (currentPlayer.equals(playerTwo))
@@ -310,14 +479,12 @@ public class ConnectFourGame {
     }
 
     /**
-     * @param columnNumber The input column number as a string.
-     * @param rowNumber The input row number as a string.
+     * @param columnNumber The input column number.
+     * @param rowNumber The input row number.
      * @return The label of the token in the cell that is specified by the given coordinates.
      */
-    public String getCellState(String columnNumber, String rowNumber) {
-        int column = Integer.parseInt(columnNumber);
-        int row = Integer.parseInt(rowNumber);
-        return board[column][row].toString();
+    public String getCellState(int columnNumber, int rowNumber) {
+        return getCell(columnNumber, rowNumber).toString();
     }
 
     /**
@@ -327,15 +494,25 @@ public class ConnectFourGame {
      * in this form {@code P2}.
      */
     public void print() {
+        print(Console.TERMINAL);
+    }
+
+    /**
+     * Prints the actual appearance of the game board like {@link #print()} to the
+     * given output.
+     * 
+     * @param output The output.
+     */
+    public void print(Output output) {
+        StringBuilder boardState = new StringBuilder(3 * BOARD_DIMENSION);
         for (int row = 0; row < BOARD_DIMENSION; row++) {
-            String boardState = "";
+            boardState.setLength(0);
             for (int column = 0; column < BOARD_DIMENSION; column++) {
-                if (column == BOARD_DIMENSION - 1)
-                    boardState += board[column][row].toString();
-                else
-                    boardState += board[column][row].toString() + " ";
+                if (column > 0)
+                    boardState.append(' ');
+                boardState.append(getCell(column, row).toString());
             }
-            Terminal.printLine(boardState);
+            output.printLine(boardState.toString());
         }
     }
 
@@ -346,6 +523,66 @@ public class ConnectFourGame {
         return winner;
     }
 
+    /**
+     * @return The Zobrist hash of the position: the board, the tokens number of
+     *         both players and the active player. It is the same in every run of
+     *         the program.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * @return The worth of the windows of four cells for the active player: every
+     *         window holding tokens of only one player counts for that player, the
+     *         more so the fewer tokens it lacks. It is kept up to date by every
+     *         move, so it is known without looking at the board.
+     */
+    public int getWindowScore() {
+        return currentPlayer.equals(playerOne) ? windowScore : -windowScore;
+    }
+
+    /**
+     * @return The hash shared by the position and its mirror image, the smaller
+     *         one of their Zobrist hashes. Caches keyed by it hold a position and
+     *         its mirror image once, and their moves have to be mirrored if
+     *         {@link #isMirrored()}.
+     */
+    public long getCanonicalHash() {
+        return Math.min(hash, mirrorHash);
+    }
+
+    /**
+     * @return {@code true} If the canonical hash is the one of the mirrored board,
+     *         so moves cached under it are mirrored, see {@link Move#mirror(int)}.
+     */
+    public boolean isMirrored() {
+        return mirrorHash < hash;
+    }
+
+    /**
+     * @return The player whose turn it is.
+     */
+    public Player getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    /**
+     * @return The tokens of the active player, one bit per cell as laid out in
+     *         {@link Bitboard}.
+     */
+    public long getCurrentPlayerTokens() {
+        return currentPlayer.equals(playerOne) ? playerOneTokens : playerTwoTokens;
+    }
+
+    /**
+     * @return The tokens of the rival of the active player, one bit per cell as
+     *         laid out in {@link Bitboard}.
+     */
+    public long getRivalTokens() {
+        return currentPlayer.equals(playerOne) ? playerTwoTokens : playerOneTokens;
+    }
+
     /**
      * @return The current state of the game.
      */
@@ -359,4 +596,4 @@ public class ConnectFourGame {
     public int getTokensNumberOfCurrentPlayer() {
         return currentPlayer.getTokensNumber();
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package edu.kit.informatik;
+
+/**
+ * The input and output of one game session. The program plays a single session
+ * on the {@link Terminal}, the batch mode plays many sessions at the same time,
+ * each on its own console.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public interface Console extends Output {
+
+    /**
+     * The console of the terminal.
+     */
+    Console TERMINAL = new Console() {
+        @Override
+        public String readLine() {
+            return Terminal.readLine();
+        }
+
+        @Override
+        public void printLine(Object object) {
+            Terminal.printLine(object);
+        }
+    };
+
+    /**
+     * Reads a line of input.
+     *
+     * @return The line without its terminator, or {@code null} at the end of the
+     *         input.
+     */
+    String readLine();
+}
@@ -35,4 +35,20 @@ public enum Mode {
             return "remove";
         }
     };
-}
\ No newline at end of file
+
+    /**
+     * @return {@code true} If the board can be flipped in this mode, {@code false}
+     *         otherwise.
+     */
+    public boolean allowsFlip() {
+        return this != REMOVE;
+    }
+
+    /**
+     * @return {@code true} If tokens can be removed in this mode, {@code false}
+     *         otherwise.
+     */
+    public boolean allowsRemove() {
+        return this != FLIP;
+    }
+}
\ No newline at end of file
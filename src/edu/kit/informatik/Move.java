@@ -0,0 +1,112 @@
+package edu.kit.informatik;
+
+/**
+ * The moves of the Connect Four game encoded as small integers, so that they can
+ * be stored and passed around without creating objects. The moves 0 to 7 throw a
+ * token in the column with the same number, the moves 8 to 15 remove the bottom
+ * token of the column {@code move - 8} and the move 16 flips the board.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public final class Move {
+    /**
+     * The move flipping the board.
+     */
+    public static final int FLIP = 2 * ConnectFourGame.BOARD_DIMENSION;
+    /**
+     * The number of different moves.
+     */
+    public static final int MOVES_NUMBER = FLIP + 1;
+
+    /**
+     * Private constructor to avoid object generation.
+     */
+    private Move() {
+        throw new AssertionError("Utility class constructor.");
+    }
+
+    /**
+     * @param column The column number.
+     * @return The move throwing a token in the column.
+     */
+    public static int throwin(int column) {
+        return column;
+    }
+
+    /**
+     * @param column The column number.
+     * @return The move removing the bottom token of the column.
+     */
+    public static int remove(int column) {
+        return ConnectFourGame.BOARD_DIMENSION + column;
+    }
+
+    /**
+     * @param move The move.
+     * @return {@code true} If the move throws a token, {@code false} otherwise.
+     */
+    public static boolean isThrowin(int move) {
+        return move < ConnectFourGame.BOARD_DIMENSION;
+    }
+
+    /**
+     * @param move The move.
+     * @return {@code true} If the move removes a token, {@code false} otherwise.
+     */
+    public static boolean isRemove(int move) {
+        return move >= ConnectFourGame.BOARD_DIMENSION && move < FLIP;
+    }
+
+    /**
+     * @param move A throwin or a remove move.
+     * @return The column number of the move.
+     */
+    public static int column(int move) {
+        return move % ConnectFourGame.BOARD_DIMENSION;
+    }
+
+    /**
+     * Mirrors a move left to right, e.g. to make it on the mirrored board. A
+     * throwin or a remove moves to the opposite column, the flip stays the same.
+     *
+     * @param move The move.
+     * @return The same move on the mirrored board.
+     */
+    public static int mirror(int move) {
+        if (move == FLIP)
+            return FLIP;
+        return move - column(move) + ConnectFourGame.BOARD_DIMENSION - 1 - column(move);
+    }
+
+    /**
+     * @param move The move.
+     * @return The command performing the move, e.g. {@code throwin 3}.
+     */
+    public static String toString(int move) {
+        if (isThrowin(move))
+            return "throwin " + column(move);
+        if (isRemove(move))
+            return "remove " + column(move);
+        return "flip";
+    }
+
+    /**
+     * @param command A move command, e.g. {@code throwin 3}.
+     * @return The move, or {@code -1} if the command is no move or its column is
+     *         not among {0,7}.
+     */
+    public static int parse(String command) {
+        if (command.equals("flip"))
+            return FLIP;
+        String[] parts = command.split(" +");
+        if (parts.length != 2 || !parts[1].matches("[0-7]"))
+            return -1;
+        int column = Integer.parseInt(parts[1]);
+        if (parts[0].equals("throwin"))
+            return throwin(column);
+        if (parts[0].equals("remove"))
+            return remove(column);
+        return -1;
+    }
+}
@@ -0,0 +1,28 @@
+package edu.kit.informatik;
+
+/**
+ * The output of one game session. A session that reads its commands itself
+ * prints to a {@link Console}, a session that is given its commands one by one,
+ * e.g. a game hosted by the server, only needs somewhere to print its responses.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public interface Output {
+
+    /**
+     * Prints the string representation of an object and terminates the line.
+     *
+     * @param object The object to be printed.
+     */
+    void printLine(Object object);
+
+    /**
+     * Prints an error message with the prefix "{@code Error, }".
+     *
+     * @param message The error message.
+     */
+    default void printError(String message) {
+        printLine("Error, " + message);
+    }
+}
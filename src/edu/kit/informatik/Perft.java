@@ -0,0 +1,266 @@
+package edu.kit.informatik;
+
+import java.util.Locale;
+
+import edu.kit.informatik.archive.GameRecord;
+import edu.kit.informatik.exceptions.IllegalCommandException;
+
+/**
+ * Counts the positions reached by all sequences of possible moves of a given
+ * length, to validate the move generation of {@link ConnectFourGame} and to
+ * measure how fast it is. The count is broken down by the first move, and the
+ * positions are counted with {@link ConnectFourGame#generateMoves(Mode, int[])},
+ * {@link ConnectFourGame#makeMove(int)} and {@link ConnectFourGame#unmakeMove()}
+ * like the engines search them. A finished game has no possible moves, so it is
+ * only counted if it is reached by the last move.
+ *
+ * <p>With {@code check} the same positions are counted by {@link ReferenceGame},
+ * the original {@code Cell[][]} implementation of the game, which is played the
+ * way the commands played it: every move is tried on a new game after replaying
+ * the moves leading to the position. Every count of the breakdown is compared.
+ * A different count means that the game core accepts a move the commands reject
+ * or the other way round, or decides the end of a game differently.
+ *
+ * <p>Usage: {@code Perft <mode> <tokens> <depth> [moves] [check]}, the optional
+ * moves leading to the counted position being commands separated by commas,
+ * e.g. {@code "throwin 3,throwin 4,flip"}. A move whose column is not among
+ * {0,7}, which the mode does not allow or which the game or the reference
+ * rejects ends the program with an error.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public final class Perft {
+    private static final String CHECK = "check";
+    private static final long NANOSECONDS_PER_MILLISECOND = 1_000_000L;
+    private static final double NANOSECONDS_PER_SECOND = 1e9;
+
+    private final Mode mode;
+    private final int tokensNumber;
+    private final ConnectFourGame game;
+    private final int[][] moves;
+
+    /**
+     * @param mode The mode of the game.
+     * @param tokensNumber The number of tokens every player started with.
+     * @param game The game whose current position is counted from.
+     * @param depth The number of moves.
+     */
+    private Perft(Mode mode, int tokensNumber, ConnectFourGame game, int depth) {
+        this.mode = mode;
+        this.tokensNumber = tokensNumber;
+        this.game = game;
+        moves = new int[depth + 1][Move.MOVES_NUMBER];
+    }
+
+    /**
+     * Counts the positions and prints the breakdown.
+     *
+     * @param args The mode, the tokens number, the depth and optionally the moves
+     *            leading to the counted position and {@code check}.
+     */
+    public static void main(String[] args) {
+        boolean check = args.length > 3 && args[args.length - 1].equals(CHECK);
+        int arguments = check ? args.length - 1 : args.length;
+        if (arguments != 3 && arguments != 4) {
+            Terminal.printError("the arguments must be '<mode> <tokens> <depth> [moves] [check]'.");
+            return;
+        }
+        Mode mode = Mode.valueOf(args[0].toUpperCase(Locale.ROOT));
+        int tokensNumber = Integer.parseInt(args[1]);
+        int depth = Integer.parseInt(args[2]);
+        if (depth < 1) {
+            Terminal.printError("the depth must be at least 1.");
+            return;
+        }
+        ConnectFourGame game = new ConnectFourGame(new Player(Cell.P1, tokensNumber),
+                new Player(Cell.P2, tokensNumber));
+        String[] commands = arguments == 4 && !args[3].isEmpty() ? args[3].split(",") : new String[0];
+        // The moves from the start, followed by the counted ones for the reference.
+        int[] line = new int[commands.length + depth];
+        int length = 0;
+        for (String command : commands) {
+            String trimmed = command.trim();
+            int move = Move.parse(trimmed);
+            if (move < 0) {
+                Terminal.printError("'" + trimmed + "' is no move, a column must be among {0,7}.");
+                return;
+            }
+            if (game.getGameState() != GameState.RUNNING) {
+                Terminal.printError("the game is already finished before '" + trimmed + "'.");
+                return;
+            }
+            if (!GameRecord.allows(mode, game, move)) {
+                Terminal.printError("'" + trimmed + "' is not allowed in the mode '" + mode + "'.");
+                return;
+            }
+            try {
+                game.makeMove(move);
+            } catch (IllegalCommandException e) {
+                Terminal.printError("'" + trimmed + "' is not possible: " + e.getMessage());
+                return;
+            }
+            line[length++] = move;
+            if (check && replay(mode, tokensNumber, line, length) == null) {
+                Terminal.printError("the reference rejects '" + trimmed + "'.");
+                return;
+            }
+        }
+        new Perft(mode, tokensNumber, game, depth).run(depth, check ? line : null, length);
+    }
+
+    /**
+     * Counts and prints the positions after every first move and their sum, and
+     * compares them with the reference.
+     *
+     * @param depth The number of moves, at least one.
+     * @param line The moves leading to the position followed by room for the
+     *            counted ones, or {@code null} if the reference is not counted.
+     * @param length The number of the moves leading to the position.
+     */
+    private void run(int depth, int[] line, int length) {
+        long[] counts = new long[Move.MOVES_NUMBER];
+        long start = System.nanoTime();
+        int number = game.generateMoves(mode, moves[depth]);
+        long total = 0;
+        for (int i = 0; i < number; i++) {
+            int move = moves[depth][i];
+            play(move);
+            counts[move] = count(depth - 1);
+            game.unmakeMove();
+            total += counts[move];
+        }
+        long time = Math.max(1, System.nanoTime() - start);
+        for (int i = 0; i < number; i++) {
+            int move = moves[depth][i];
+            Terminal.printLine(String.format(Locale.ROOT, "%-9s %d", Move.toString(move), counts[move]));
+        }
+        Terminal.printLine(String.format(Locale.ROOT, "%d positions at depth %d in %d ms, %.0f positions/s", total,
+                depth, time / NANOSECONDS_PER_MILLISECOND, total * NANOSECONDS_PER_SECOND / time));
+        if (line != null)
+            check(depth, line, length, counts);
+    }
+
+    /**
+     * Counts the positions of the reference after every first move and prints
+     * every count that differs.
+     *
+     * @param depth The number of moves, at least one.
+     * @param line The moves leading to the position followed by room for the
+     *            counted ones.
+     * @param length The number of the moves leading to the position.
+     * @param counts The counts of the game core by first move.
+     */
+    private void check(int depth, int[] line, int length, long[] counts) {
+        long start = System.nanoTime();
+        long total = 0;
+        int differences = 0;
+        for (int move = 0; move < Move.MOVES_NUMBER; move++) {
+            line[length] = move;
+            long count = replay(mode, tokensNumber, line, length + 1) != null
+                    ? referenceCount(line, length + 1, depth - 1) : 0;
+            total += count;
+            if (count != counts[move]) {
+                differences++;
+                Terminal.printLine(String.format(Locale.ROOT, "%-9s %d in the reference, %d in the game core",
+                        Move.toString(move), count, counts[move]));
+            }
+        }
+        long time = Math.max(1, System.nanoTime() - start);
+        Terminal.printLine(String.format(Locale.ROOT, "reference: %d positions in %d ms, %.0f positions/s, %s",
+                total, time / NANOSECONDS_PER_MILLISECOND, total * NANOSECONDS_PER_SECOND / time,
+                differences == 0 ? "all counts agree" : differences + " counts differ"));
+    }
+
+    /**
+     * @param depth The remaining number of moves.
+     * @return The number of positions reached from the current one.
+     */
+    private long count(int depth) {
+        if (depth == 0)
+            return 1;
+        int[] candidates = moves[depth];
+        int number = game.generateMoves(mode, candidates);
+        // The positions after the last move are not made, only counted.
+        if (depth == 1)
+            return number;
+        long positions = 0;
+        for (int i = 0; i < number; i++) {
+            play(candidates[i]);
+            positions += count(depth - 1);
+            game.unmakeMove();
+        }
+        return positions;
+    }
+
+    /**
+     * @param line The moves leading to the position followed by room for the
+     *            counted ones.
+     * @param length The number of the moves leading to the position.
+     * @param depth The remaining number of moves.
+     * @return The number of positions of the reference reached from the position.
+     */
+    private long referenceCount(int[] line, int length, int depth) {
+        if (depth == 0)
+            return 1;
+        long positions = 0;
+        for (int move = 0; move < Move.MOVES_NUMBER; move++) {
+            line[length] = move;
+            if (replay(mode, tokensNumber, line, length + 1) != null)
+                positions += referenceCount(line, length + 1, depth - 1);
+        }
+        return positions;
+    }
+
+    /**
+     * Plays moves on a new reference game the way the commands played them: a
+     * finished game takes no more moves, the mode decides whether a flip or a
+     * remove may be used, a rejected throwin or remove changes nothing, and the
+     * players are switched after a flip.
+     *
+     * @param mode The mode of the game.
+     * @param tokensNumber The number of tokens every player starts with.
+     * @param line The moves from the start.
+     * @param length The number of the moves.
+     * @return The game after the moves, or {@code null} if a move is rejected.
+     */
+    private static ReferenceGame replay(Mode mode, int tokensNumber, int[] line, int length) {
+        ReferenceGame reference = new ReferenceGame(new Player(Cell.P1, tokensNumber),
+                new Player(Cell.P2, tokensNumber));
+        for (int i = 0; i < length; i++) {
+            int move = line[i];
+            if (reference.getGameState() != GameState.RUNNING)
+                return null;
+            if (move == Move.FLIP) {
+                if (!mode.allowsFlip())
+                    return null;
+                reference.flip();
+                reference.nextPlayer();
+            } else {
+                try {
+                    boolean played = Move.isRemove(move)
+                            ? mode.allowsRemove() && reference.remove(Move.column(move))
+                            : reference.throwin(Move.column(move));
+                    if (!played)
+                        return null;
+                } catch (IllegalCommandException e) {
+                    return null;
+                }
+            }
+            reference.checkGameState();
+        }
+        return reference;
+    }
+
+    /**
+     * @param move A generated move.
+     */
+    private void play(int move) {
+        try {
+            game.makeMove(move);
+        } catch (IllegalCommandException e) {
+            // Only generated moves are played, they are always possible.
+            throw new IllegalStateException(e);
+        }
+    }
+}
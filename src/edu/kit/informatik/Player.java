@@ -28,6 +28,18 @@ public class Player {
         winningSequence = 0;
     }
 
+    /**
+     * Creates a copy of a player with the same label, tokens number and
+     * winning-sequences.
+     * 
+     * @param player The player to be copied.
+     */
+    public Player(Player player) {
+        label = player.label;
+        tokensNumber = player.tokensNumber;
+        winningSequence = player.winningSequence;
+    }
+
     /**
      * Reduces the tokens number of a player by one.
      */
@@ -35,6 +47,25 @@ public class Player {
         tokensNumber--;
     }
 
+    /**
+     * Sets the tokens number of a player, e.g. when a move is unmade.
+     * 
+     * @param tokensNumber The new tokens number.
+     */
+    void setTokensNumber(int tokensNumber) {
+        this.tokensNumber = tokensNumber;
+    }
+
+    /**
+     * Sets the number of the lines containing a sequence of at least four tokens
+     * of the player.
+     * 
+     * @param winningSequence The new number of winning-sequences.
+     */
+    void setWinningLine(int winningSequence) {
+        this.winningSequence = winningSequence;
+    }
+
     /**
      * Increases the number of the sequences of at least four tokens of the same
      * player by one.
@@ -95,4 +126,4 @@ public class Player {
         Player player = (Player) object;
         return Objects.equals(label, player.label);
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
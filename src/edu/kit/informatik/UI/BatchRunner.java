@@ -0,0 +1,279 @@
+package edu.kit.informatik.UI;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import edu.kit.informatik.GameState;
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.exceptions.IllegalCommandException;
+
+/**
+ * Replays many command scripts in one program, each as an independent game
+ * session on a pool of worker threads. The first line of a script holds the two
+ * program arguments, the mode and the tokens number separated by a space; the
+ * other lines are the commands. The output of every session is written into its
+ * own file in the output directory, named after the path of the script as given
+ * with its directories joined by {@code _}, e.g. {@code games_a_1.txt.out} for
+ * {@code games/a/1.txt}. A script whose name is already taken by an earlier one
+ * is not replayed, so no output overwrites another. A summary of the outcomes
+ * and times of all sessions is printed and written into {@code summary.txt}
+ * there.
+ *
+ * <p>The number of worker threads is the value of the system property
+ * {@value #THREADS_PROPERTY} or one per processor, the output directory the
+ * value of {@value #OUTPUT_PROPERTY} or {@value #DEFAULT_OUTPUT}.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+final class BatchRunner {
+    /**
+     * The system property giving the number of worker threads.
+     */
+    static final String THREADS_PROPERTY = "connectfour.batch.threads";
+    /**
+     * The system property naming the output directory.
+     */
+    static final String OUTPUT_PROPERTY = "connectfour.batch.output";
+    /**
+     * The output directory unless the system property names another one.
+     */
+    static final String DEFAULT_OUTPUT = "batch-output";
+
+    private static final String OUTPUT_SUFFIX = ".out";
+    private static final String NAME_SEPARATOR = "_";
+    private static final String SUMMARY_FILE = "summary.txt";
+    private static final long NANOSECONDS_PER_MILLISECOND = 1_000_000L;
+
+    private final int threads;
+    private final Path outputDirectory;
+
+    /**
+     * Creates a batch runner configured by the system properties.
+     */
+    BatchRunner() {
+        threads = Math.max(Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()), 1);
+        outputDirectory = Paths.get(System.getProperty(OUTPUT_PROPERTY, DEFAULT_OUTPUT));
+    }
+
+    /**
+     * Replays the scripts and reports the summary.
+     *
+     * @param arguments The scripts and directories of scripts. Every regular file
+     *            of a directory is a script.
+     * @throws IOException If a directory cannot be listed or the output cannot be
+     *             written.
+     */
+    void run(String[] arguments) throws IOException {
+        List<Path> scripts = new ArrayList<>();
+        for (String argument : arguments) {
+            Path path = Paths.get(argument);
+            if (Files.isDirectory(path)) {
+                List<Path> files = new ArrayList<>();
+                try (DirectoryStream<Path> directory = Files.newDirectoryStream(path, Files::isRegularFile)) {
+                    directory.forEach(files::add);
+                }
+                Collections.sort(files);
+                scripts.addAll(files);
+            } else {
+                scripts.add(path);
+            }
+        }
+        Files.createDirectories(outputDirectory);
+        long start = System.nanoTime();
+        List<Session> sessions = replay(scripts);
+        long wallTime = System.nanoTime() - start;
+        List<String> summary = summarize(sessions, wallTime);
+        for (String line : summary) {
+            Terminal.printLine(line);
+        }
+        Files.write(outputDirectory.resolve(SUMMARY_FILE), summary, Charset.defaultCharset());
+    }
+
+    /**
+     * Replays all scripts on the worker pool.
+     *
+     * @param scripts The scripts.
+     * @return The finished sessions in the order of the scripts.
+     */
+    private List<Session> replay(List<Path> scripts) {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        List<Future<Session>> futures = new ArrayList<>(scripts.size());
+        Set<String> names = new HashSet<>();
+        for (Path script : scripts) {
+            String name = outputName(script);
+            if (names.add(name)) {
+                futures.add(workers.submit(() -> replay(script, name)));
+            } else {
+                futures.add(CompletableFuture.completedFuture(new Session(name, "", "duplicate", 0, 0)));
+            }
+        }
+        List<Session> sessions = new ArrayList<>(scripts.size());
+        try {
+            for (Future<Session> future : futures) {
+                sessions.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            workers.shutdown();
+        }
+        return sessions;
+    }
+
+    /**
+     * @param script A script.
+     * @return The name of the script's output, its path with the directories
+     *         joined by {@value #NAME_SEPARATOR}.
+     */
+    private static String outputName(Path script) {
+        StringJoiner name = new StringJoiner(NAME_SEPARATOR);
+        for (Path element : script.normalize()) {
+            name.add(element.toString());
+        }
+        return name.toString();
+    }
+
+    /**
+     * Replays one script and writes its output.
+     *
+     * @param script The script.
+     * @param name The name of the script's output.
+     * @return The finished session.
+     */
+    private Session replay(Path script, String name) {
+        long start = System.nanoTime();
+        String[] lines;
+        try {
+            lines = Terminal.readFile(script.toString());
+        } catch (RuntimeException e) {
+            return new Session(name, "", "unreadable", 0, System.nanoTime() - start);
+        }
+        String[] arguments = lines.length == 0 ? new String[0] : lines[0].split(" ");
+        ScriptConsole console = new ScriptConsole(lines, Math.min(lines.length, 1));
+        String outcome;
+        if (arguments.length != 2) {
+            console.printError("the first line must consist of the mode and the tokens number.");
+            outcome = "invalid";
+        } else {
+            outcome = play(arguments, console);
+        }
+        try {
+            Files.write(outputDirectory.resolve(name + OUTPUT_SUFFIX),
+                    console.getOutput().getBytes(Charset.defaultCharset()));
+        } catch (IOException e) {
+            outcome = "unwritable";
+        }
+        return new Session(name, lines.length == 0 ? "" : lines[0], outcome, console.getReadLines(),
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Plays a session like the program with the given arguments.
+     *
+     * @param arguments The mode and the tokens number.
+     * @param console The console of the session.
+     * @return The outcome of the session.
+     */
+    private static String play(String[] arguments, ScriptConsole console) {
+        GameManager manager;
+        try {
+            manager = new GameManager(arguments[0], arguments[1], console);
+        } catch (IllegalArgumentException e) {
+            console.printError(e.getMessage());
+            return "invalid";
+        }
+        try {
+            manager.simulateGame(console);
+        } catch (IllegalCommandException | RuntimeException e) {
+            console.printLine(e);
+            return "failed";
+        } finally {
+            manager.shutdown();
+        }
+        if (manager.getGameState() == GameState.WON)
+            return manager.getWinner().getLabel() + " wins";
+        return manager.getGameState() == GameState.DRAW ? "draw" : "running";
+    }
+
+    /**
+     * @param sessions The finished sessions.
+     * @param wallTime The time all sessions took together in nanoseconds.
+     * @return The lines of the summary: one per session, the number of sessions of
+     *         every outcome and the totals.
+     */
+    private List<String> summarize(List<Session> sessions, long wallTime) {
+        List<String> summary = new ArrayList<>();
+        List<String> outcomes = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        long sessionTime = 0;
+        long commands = 0;
+        for (Session session : sessions) {
+            summary.add(String.format(Locale.ROOT, "%-32s %-12s %-12s %8d commands %10.3f ms", session.name,
+                    session.arguments, session.outcome, session.commands,
+                    session.time / (double) NANOSECONDS_PER_MILLISECOND));
+            int index = outcomes.indexOf(session.outcome);
+            if (index < 0) {
+                outcomes.add(session.outcome);
+                counts.add(1);
+            } else {
+                counts.set(index, counts.get(index) + 1);
+            }
+            sessionTime += session.time;
+            commands += session.commands;
+        }
+        for (int i = 0; i < outcomes.size(); i++) {
+            summary.add(outcomes.get(i) + ": " + counts.get(i));
+        }
+        summary.add(String.format(Locale.ROOT,
+                "%d scripts, %d commands on %d threads in %.3f s (%.3f s of sessions), %.1f scripts/s",
+                sessions.size(), commands, threads, wallTime / 1e9, sessionTime / 1e9,
+                wallTime == 0 ? 0 : sessions.size() * 1e9 / wallTime));
+        return summary;
+    }
+
+    /**
+     * The result of one replayed script.
+     */
+    private static final class Session {
+        private final String name;
+        private final String arguments;
+        private final String outcome;
+        private final int commands;
+        private final long time;
+
+        /**
+         * @param name The name of the script's output.
+         * @param arguments The first line of the script.
+         * @param outcome The outcome of the game, or why there was none.
+         * @param commands The number of read commands.
+         * @param time The time the session took in nanoseconds.
+         */
+        Session(String name, String arguments, String outcome, int commands, long time) {
+            this.name = name;
+            this.arguments = arguments;
+            this.outcome = outcome;
+            this.commands = commands;
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package edu.kit.informatik.UI;
+
+/**
+ * The commands of the game as the first argument of an input line names them.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+enum Command {
+
+    /**
+     * Throws a token in a column.
+     */
+    THROWIN("throwin", 2),
+
+    /**
+     * Flips the board.
+     */
+    FLIP("flip", 1),
+
+    /**
+     * Removes the bottom token of a column.
+     */
+    REMOVE("remove", 2),
+
+    /**
+     * Prints the tokens left to the active player.
+     */
+    TOKEN("token", 1),
+
+    /**
+     * Prints the state of a cell.
+     */
+    STATE("state", 2),
+
+    /**
+     * Prints the board.
+     */
+    PRINT("print", 1),
+
+    /**
+     * Lets the alpha-beta engine move.
+     */
+    AI("ai", 1),
+
+    /**
+     * Lets the Monte Carlo tree search move.
+     */
+    MCTS("mcts", 1),
+
+    /**
+     * Prints the score of every possible move.
+     */
+    ANALYZE("analyze", 1),
+
+    /**
+     * Prints how often the position occurs in the recorded games.
+     */
+    STATS("stats", 1),
+
+    /**
+     * Unmakes the last move.
+     */
+    UNDO("undo", 1),
+
+    /**
+     * Makes the last unmade move again.
+     */
+    REDO("redo", 1),
+
+    /**
+     * Exits the program.
+     */
+    QUIT("quit", 1);
+
+    private static final Command[] COMMANDS = values();
+
+    private final String name;
+    private final int argumentsNumber;
+
+    /**
+     * @param name The name of the command.
+     * @param argumentsNumber The number of arguments including the name.
+     */
+    Command(String name, int argumentsNumber) {
+        this.name = name;
+        this.argumentsNumber = argumentsNumber;
+    }
+
+    /**
+     * @param tokenizer The tokenizer holding an input line.
+     * @return The command named by the first argument of the line, or
+     *         {@code null} if there is none.
+     */
+    static Command of(CommandTokenizer tokenizer) {
+        for (Command command : COMMANDS) {
+            if (tokenizer.argumentEquals(0, command.name))
+                return command;
+        }
+        return null;
+    }
+
+    /**
+     * @return {@code true} If the command makes a move of the active player.
+     */
+    boolean isMove() {
+        return this == THROWIN || this == FLIP || this == REMOVE || this == AI || this == MCTS;
+    }
+
+    /**
+     * @return The number of arguments of the command including its name.
+     */
+    int getArgumentsNumber() {
+        return argumentsNumber;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
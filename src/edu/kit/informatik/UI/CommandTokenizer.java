@@ -0,0 +1,146 @@
+package edu.kit.informatik.UI;
+
+/**
+ * Splits an input line into its arguments without creating any objects. The
+ * arguments are separated by single spaces and the empty arguments at the end of
+ * the line are dropped, just like {@code line.split(" ")} does, but only the
+ * bounds of the first arguments are kept, as indices into the line. The
+ * tokenizer is reused for every line.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+final class CommandTokenizer {
+    /**
+     * The number of arguments whose bounds are kept.
+     */
+    private static final int KEPT_ARGUMENTS = 2;
+    private static final char SEPARATOR = ' ';
+    private static final char COORDINATES_SEPARATOR = ';';
+    private static final char FIRST_DIGIT = '0';
+    private static final char LAST_DIGIT = '7';
+
+    private final int[] starts = new int[KEPT_ARGUMENTS];
+    private final int[] ends = new int[KEPT_ARGUMENTS];
+    private String line;
+    private int argumentsNumber;
+
+    /**
+     * Splits a line into its arguments.
+     *
+     * @param inputLine The input line.
+     * @return {@code false} If the line is empty or consists of white spaces only,
+     *         {@code true} otherwise.
+     */
+    boolean tokenize(String inputLine) {
+        line = inputLine;
+        argumentsNumber = 0;
+        if (isBlank(inputLine))
+            return false;
+        int start = 0;
+        int argument = 0;
+        int length = inputLine.length();
+        for (int i = 0; i <= length; i++) {
+            if (i == length || inputLine.charAt(i) == SEPARATOR) {
+                if (argument < KEPT_ARGUMENTS) {
+                    starts[argument] = start;
+                    ends[argument] = i;
+                }
+                argument++;
+                // Empty arguments only count if a non-empty one follows them.
+                if (i > start)
+                    argumentsNumber = argument;
+                start = i + 1;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The number of arguments of the line.
+     */
+    int getArgumentsNumber() {
+        return argumentsNumber;
+    }
+
+    /**
+     * @param argument The number of a kept argument.
+     * @param word A word.
+     * @return {@code true} If the argument is the word, {@code false} otherwise.
+     */
+    boolean argumentEquals(int argument, String word) {
+        int start = starts[argument];
+        return argument < argumentsNumber && ends[argument] - start == word.length()
+                && line.regionMatches(start, word, 0, word.length());
+    }
+
+    /**
+     * @param argument The number of a kept argument.
+     * @return The column or row number the argument consists of, or {@code -1} if
+     *         it is not a single digit among {0,7}.
+     */
+    int digit(int argument) {
+        if (argument >= argumentsNumber || ends[argument] - starts[argument] != 1)
+            return -1;
+        return digitAt(starts[argument]);
+    }
+
+    /**
+     * @param argument The number of a kept argument.
+     * @return {@code true} If the argument has the form 'x;y' where x and y are
+     *         digits among {0,7}, {@code false} otherwise.
+     */
+    boolean isCoordinates(int argument) {
+        int start = starts[argument];
+        return argument < argumentsNumber && ends[argument] - start == 3 && digitAt(start) >= 0
+                && line.charAt(start + 1) == COORDINATES_SEPARATOR && digitAt(start + 2) >= 0;
+    }
+
+    /**
+     * @param argument The number of a kept argument in the form 'x;y'.
+     * @return x, the column number.
+     */
+    int column(int argument) {
+        return digitAt(starts[argument]);
+    }
+
+    /**
+     * @param argument The number of a kept argument in the form 'x;y'.
+     * @return y, the row number.
+     */
+    int row(int argument) {
+        return digitAt(starts[argument] + 2);
+    }
+
+    /**
+     * @param index The index of a character of the line.
+     * @return The digit among {0,7} at the index, or {@code -1} if there is none.
+     */
+    private int digitAt(int index) {
+        char character = line.charAt(index);
+        return character >= FIRST_DIGIT && character <= LAST_DIGIT ? character - FIRST_DIGIT : -1;
+    }
+
+    /**
+     * Checks a line like the regular expression {@code \s*}.
+     *
+     * @param inputLine The input line.
+     * @return {@code true} If the line consists of white spaces only.
+     */
+    private static boolean isBlank(String inputLine) {
+        for (int i = 0; i < inputLine.length(); i++) {
+            switch (inputLine.charAt(i)) {
+                case ' ':
+                case '\t':
+                case '\n':
+                case '\u000B':
+                case '\f':
+                case '\r':
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,11 +1,28 @@
 package edu.kit.informatik.UI;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
 import edu.kit.informatik.Cell;
 import edu.kit.informatik.ConnectFourGame;
+import edu.kit.informatik.Console;
 import edu.kit.informatik.GameState;
 import edu.kit.informatik.Mode;
+import edu.kit.informatik.Move;
+import edu.kit.informatik.Output;
 import edu.kit.informatik.Player;
-import edu.kit.informatik.Terminal;
+import edu.kit.informatik.archive.PositionCount;
+import edu.kit.informatik.archive.PositionIndex;
+import edu.kit.informatik.engine.MonteCarloSearch;
+import edu.kit.informatik.engine.MoveAnalysis;
+import edu.kit.informatik.engine.OpeningBook;
+import edu.kit.informatik.engine.ParallelSearch;
+import edu.kit.informatik.engine.PonderSearch;
+import edu.kit.informatik.engine.PlayoutResult;
+import edu.kit.informatik.engine.Search;
+import edu.kit.informatik.engine.SearchResult;
+import edu.kit.informatik.engine.TranspositionTable;
 import edu.kit.informatik.exceptions.IllegalCommandException;
 
 /**
@@ -15,11 +32,33 @@ import edu.kit.informatik.exceptions.IllegalCommandException;
  * @version 1.0
  */
 public class GameManager {
+    private static final long NANOSECONDS_PER_MILLISECOND = 1_000_000L;
+    /**
+     * The caches of searched positions shared by all sessions that are not on the
+     * terminal, one per mode.
+     */
+    private static final TranspositionTable[] SHARED_TABLES = new TranspositionTable[Mode.values().length];
+    /**
+     * The number of Monte Carlo tree nodes of a session that is not on the
+     * terminal, about 1.5 MB.
+     */
+    private static final int SESSION_TREE_CAPACITY = 1 << 16;
 
     private ConnectFourGame myGame;
     private Mode mode;
+    private int tokensNumber;
     private String input;
     private boolean isRunning;
+    private TranspositionTable table;
+    private ParallelSearch engine;
+    private MoveAnalysis analysis;
+    private PonderSearch ponder;
+    private MonteCarloSearch treeSearch;
+    private PositionIndex positionIndex;
+    private boolean positionIndexOpened;
+    private final CommandTokenizer tokenizer = new CommandTokenizer();
+    private final Output output;
+    private final boolean onTerminal;
 
     /**
      * Creates a game manager with a game board with to players. A game must have
@@ -34,10 +73,47 @@ public class GameManager {
      * If at least one of the passed command line arguments was invalid.
      */
     public GameManager(String mode, String tokens) throws IllegalArgumentException {
+        this(mode, tokens, Console.TERMINAL, true);
+    }
+
+    /**
+     * Creates a game manager like {@link #GameManager(String, String)} whose
+     * session prints the responses to the given output instead of the terminal.
+     * The session is one of many, e.g. of the batch mode or the server, so its
+     * engines search on the session's thread only and share their cache with the
+     * other sessions of the mode.
+     * 
+     * @param mode The mode of the game.
+     * @param tokens The tokens number of each player.
+     * @param output The output of the session.
+     * @throws IllegalArgumentException
+     * If at least one of the arguments was invalid.
+     */
+    public GameManager(String mode, String tokens, Output output) throws IllegalArgumentException {
+        this(mode, tokens, output, false);
+    }
+
+    /**
+     * Creates a game manager whose session prints the responses to the given
+     * output.
+     * 
+     * @param mode The mode of the game.
+     * @param tokens The tokens number of each player.
+     * @param output The output of the session.
+     * @param onTerminal {@code true} If the session is the only one of the
+     *            program, played on the terminal, e.g. through a faster console
+     *            than {@link Console#TERMINAL}.
+     * @throws IllegalArgumentException
+     * If at least one of the arguments was invalid.
+     */
+    public GameManager(String mode, String tokens, Output output, boolean onTerminal)
+            throws IllegalArgumentException {
+        this.output = output;
+        this.onTerminal = onTerminal;
         if (!setGameMode(mode))
             throw new IllegalArgumentException("the first argument must be either 'standard', 'flip' or 'remove'.");
         else if (tokens.matches("(\\d\\d)")) {
-            int tokensNumber = Integer.parseInt(tokens);
+            tokensNumber = Integer.parseInt(tokens);
             Player playerOne = new Player(Cell.P1, tokensNumber);
             Player playerTwo = new Player(Cell.P2, tokensNumber);
             myGame = new ConnectFourGame(playerOne, playerTwo);
@@ -45,19 +121,100 @@ public class GameManager {
         } else {
             throw new IllegalArgumentException("the second argument must consist of a two-digit number.");
         }
+        isRunning = true;
     }
 
     /**
      * Runs the program to receive commands and output responses as long as the
-     * program is running appropriately.
+     * program is running appropriately. The end of the input quits the program
+     * like the 'quit' command.
      * 
+     * @param console The input of the session, usually also its output.
      * @throws IllegalCommandException If a 'throwin' or a 'remove' command was invalid.
      */
-    public void simulateGame() throws IllegalCommandException {
+    public void simulateGame(Console console) throws IllegalCommandException {
         isRunning = true;
         while (isRunning) {
-            input = Terminal.readLine();
-            command(input);
+            input = console.readLine();
+            if (input == null)
+                quit();
+            else
+                command(input);
+        }
+    }
+
+    /**
+     * @return {@code true} Until the session is quit.
+     */
+    public boolean isRunning() {
+        return isRunning;
+    }
+
+    /**
+     * @return The game of the session. It must only be changed by the session.
+     */
+    public ConnectFourGame getGame() {
+        return myGame;
+    }
+
+    /**
+     * @return The mode of the session's game.
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return The number of tokens of every player at the start of the game.
+     */
+    public int getTokensNumber() {
+        return tokensNumber;
+    }
+
+    /**
+     * Makes a recorded move without printing a response, e.g. to restore a game
+     * after the program was stopped.
+     *
+     * @param move The move as encoded by {@link Move}.
+     * @throws IllegalCommandException If the move is not possible in the game.
+     */
+    public void replay(int move) throws IllegalCommandException {
+        myGame.makeMove(move);
+    }
+
+    /**
+     * @return The state of the session's game.
+     */
+    public GameState getGameState() {
+        return myGame.getGameState();
+    }
+
+    /**
+     * @return The winner of the session's game, or {@code null} if there is none.
+     */
+    public Player getWinner() {
+        return myGame.getWinner();
+    }
+
+    /**
+     * Stops the threads of the engines the session has used and closes the
+     * position index.
+     */
+    public void shutdown() {
+        if (engine != null)
+            engine.shutdown();
+        if (analysis != null)
+            analysis.shutdown();
+        if (ponder != null)
+            ponder.shutdown();
+        if (treeSearch != null)
+            treeSearch.shutdown();
+        if (positionIndex != null) {
+            try {
+                positionIndex.close();
+            } catch (IOException e) {
+                // The index was only read.
+            }
         }
     }
 
@@ -101,43 +258,29 @@ public class GameManager {
         }
     }
 
-    /**
-     * Extracts the input column number within the remove or throw in commands and
-     * returns it.
-     * 
-     * @param string Throw in or Remove command.
-     * @return The extracted column number.
-     */
-    private int extractColumnNumber(String string) {
-        String[] array = string.split("( )");
-        int columnNumber = Integer.parseInt(array[1]);
-        return columnNumber;
-    }
-
     /**
      * Checks the validation of the input column number within a command. A column
      * number must only be from 0 to 7.
      * 
-     * @param command The input command.
+     * @param columnNumber The column number of the command, or {@code -1} if the
+     *            argument was no single digit among {0,7}.
      * @return {@code true} if the column number is valid, {@code false} otherwise.
      */
-    private boolean validColumnNumber(String command) {
-        if (command.matches("([0-7])"))
+    private boolean validColumnNumber(int columnNumber) {
+        if (columnNumber >= 0)
             return true;
-        Terminal.printError("invalid column number, please enter a number among {0,7}.");
+        output.printError("invalid column number, please enter a number among {0,7}.");
         return false;
     }
 
     /**
      * Checks the validation of the input coordinates for the command state.
      * 
-     * @param inputCoordinates
-     *            The input coordinates as a string.
      * @return {@code true} if the coordinates match the form 'x;y', {@code false} otherwise.
      */
-    private boolean checkCoordinates(String inputCoordinates) {
-        if (!inputCoordinates.matches("([0-7];[0-7])")) {
-            Terminal.printError("the coordinates must be in this form 'x;y'"
+    private boolean checkCoordinates() {
+        if (!tokenizer.isCoordinates(1)) {
+            output.printError("the coordinates must be in this form 'x;y'"
                     + " where x is the column number and y is the row number and they are both among {0,7}.");
             return false;
         }
@@ -149,22 +292,23 @@ public class GameManager {
      * 'remove' and 'state' commands have two arguments. All other commands must
      * consist of maximum one argument.
      * 
+     * @param command The input command.
      * @return {@code true} if the passed command consists of valid number of
      *         arguments, {@code false} otherwise.
      */
-    private boolean validArgumentsNumber(String[] commands) {
-        if (commands[0].equals("throwin") || commands[0].equals("remove") || commands[0].equals("state")) {
-            if (commands.length == 2)
+    private boolean validArgumentsNumber(Command command) {
+        if (command.getArgumentsNumber() == 2) {
+            if (tokenizer.getArgumentsNumber() == 2)
                 return true;
             else {
-                Terminal.printError("this command must only consist of two arguments.");
+                output.printError("this command must only consist of two arguments.");
                 return false;
             }
         } else {
-            if (commands.length == 1)
+            if (tokenizer.getArgumentsNumber() == 1)
                 return true;
             else {
-                Terminal.printError("this command must only consist of one argument.");
+                output.printError("this command must only consist of one argument.");
                 return false;
             }
         }
@@ -187,12 +331,12 @@ public class GameManager {
      * @param command The input command.
      * @return {@code true} if the command is valid, {@code false} otherwise.
      */
-    private boolean validCommand(String command) {
+    private boolean validCommand(Command command) {
         if (myGame.getGameState() == GameState.WON) {
-            Terminal.printError("the game is already won! You cannot use the '" + command + "' command anymore.");
+            output.printError("the game is already won! You cannot use the '" + command + "' command anymore.");
             return false;
         } else if (myGame.getGameState() == GameState.DRAW) {
-            Terminal.printError(
+            output.printError(
                     "the game is already finished with draw! You cannot use the '" + command + "' command anymore.");
             return false;
         }
@@ -206,11 +350,11 @@ public class GameManager {
      */
     private void printResponse() {
         if (myGame.getGameState() == GameState.RUNNING)
-            Terminal.printLine("OK");
+            output.printLine("OK");
         else if (myGame.getGameState() == GameState.WON)
-            Terminal.printLine(myGame.getWinner().getLabel().toString() + " wins");
+            output.printLine(myGame.getWinner().getLabel().toString() + " wins");
         else
-            Terminal.printLine("draw");
+            output.printLine("draw");
     }
 
     /**
@@ -222,12 +366,10 @@ public class GameManager {
      */
     private void executeThrowin(int columnNumber) {
         try {
-            if (myGame.throwin(columnNumber)) {
-                myGame.checkGameState();
-                printResponse();
-            }
+            myGame.makeMove(Move.throwin(columnNumber));
+            printResponse();
         } catch (IllegalCommandException e) {
-            Terminal.printLine(e.getMessage());
+            output.printLine(e.getMessage());
         }
     }
 
@@ -236,9 +378,12 @@ public class GameManager {
      * players then checks the game state to print the proper output.
      */
     private void executeFlip() {
-        myGame.flip();
-        myGame.nextPlayer();
-        myGame.checkGameState();
+        try {
+            myGame.makeMove(Move.FLIP);
+        } catch (IllegalCommandException e) {
+            // A flip is always possible.
+            throw new IllegalStateException(e);
+        }
         printResponse();
     }
 
@@ -252,15 +397,180 @@ public class GameManager {
      */
     private void executeRemove(int columnNumber) {
         try {
-            if (myGame.remove(columnNumber)) {
-                myGame.checkGameState();
-                printResponse();
-            }
+            myGame.makeMove(Move.remove(columnNumber));
+            printResponse();
         } catch (IllegalCommandException e) {
-            Terminal.printLine(e.getMessage());
+            output.printLine(e.getMessage());
         }
     }
     
+    /**
+     * Lets the engine search the best move for the active player within its time
+     * budget, unless the opening book of the mode and the number of tokens knows
+     * the position. Prints the move with the search's depth, score, nodes and nodes per
+     * second and then makes the move like the corresponding command.
+     * 
+     * <p>In a session on the terminal the engine ponders while the rival types
+     * their move, see {@link PonderSearch}, unless the system property
+     * {@code connectfour.ponder} is {@code false}. If the rival has made the
+     * predicted move and pondering took at least the time budget, its result is
+     * played at once.
+     */
+    private void executeAi() {
+        if (engine == null)
+            engine = new ParallelSearch(mode, Search.DEFAULT_TIME_BUDGET, engineThreads(), table(),
+                    OpeningBook.of(mode, tokensNumber));
+        SearchResult result = ponder == null ? null : ponder.take(myGame);
+        if (result == null || result.getTime() < Search.DEFAULT_TIME_BUDGET * NANOSECONDS_PER_MILLISECOND)
+            result = engine.search(myGame);
+        output.printLine(result);
+        executeEngineMove(result.getMove());
+        if (myGame.getGameState() == GameState.RUNNING && onTerminal
+                && !"false".equals(System.getProperty("connectfour.ponder"))) {
+            if (ponder == null)
+                ponder = new PonderSearch(mode, table());
+            ponder.start(myGame);
+        }
+    }
+
+    /**
+     * Scores every possible move of the active player within the engine's time
+     * budget, every move searched on its own thread. Prints the result of every
+     * move as soon as its search is done and then all moves ranked by their
+     * score, the best first. No move is made.
+     */
+    private void executeAnalyze() {
+        if (analysis == null)
+            analysis = new MoveAnalysis(mode, Search.DEFAULT_TIME_BUDGET, engineThreads(), table());
+        List<SearchResult> ranked = analysis.analyze(myGame, output::printLine);
+        for (int i = 0; i < ranked.size(); i++) {
+            SearchResult result = ranked.get(i);
+            output.printLine(String.format(Locale.ROOT, "%2d. %-9s %8d (depth %d)", i + 1,
+                    Move.toString(result.getMove()), result.getScore(), result.getDepth()));
+        }
+    }
+
+    /**
+     * @return The cache of searched positions shared by the engine and the
+     *         analysis, created the first time it is needed. The session on the
+     *         terminal has a cache of its own, all other sessions of the mode share
+     *         one.
+     */
+    private TranspositionTable table() {
+        if (table == null)
+            table = onTerminal ? new TranspositionTable(TranspositionTable.DEFAULT_SIZE) : sharedTable(mode);
+        return table;
+    }
+
+    /**
+     * @param mode A mode.
+     * @return The cache of searched positions shared by the sessions of the mode
+     *         that are not on the terminal, created the first time it is needed.
+     */
+    private static TranspositionTable sharedTable(Mode mode) {
+        synchronized (SHARED_TABLES) {
+            if (SHARED_TABLES[mode.ordinal()] == null)
+                SHARED_TABLES[mode.ordinal()] = new TranspositionTable(TranspositionTable.DEFAULT_SIZE);
+            return SHARED_TABLES[mode.ordinal()];
+        }
+    }
+
+    /**
+     * Lets the Monte Carlo tree search find the best move for the active player
+     * within the engine's time budget. Prints the move with the playouts per
+     * second, the playouts and the move's win rate and then makes the move like
+     * the corresponding command.
+     * 
+     * <p>The session on the terminal keeps its tree of the default capacity for
+     * the next search. The other sessions search with a small tree and release it
+     * after the search, so idle sessions hold no tree.
+     */
+    private void executeMcts() {
+        MonteCarloSearch search = treeSearch;
+        if (search == null)
+            search = new MonteCarloSearch(mode, Search.DEFAULT_TIME_BUDGET, engineThreads(),
+                    MonteCarloSearch.DEFAULT_EXPLORATION,
+                    onTerminal ? MonteCarloSearch.DEFAULT_CAPACITY : SESSION_TREE_CAPACITY);
+        if (onTerminal)
+            treeSearch = search;
+        PlayoutResult result = search.search(myGame);
+        output.printLine(result);
+        executeEngineMove(result.getMove());
+    }
+
+    /**
+     * Makes a move chosen by an engine and prints the response.
+     * 
+     * @param move The chosen move.
+     */
+    private void executeEngineMove(int move) {
+        try {
+            myGame.makeMove(move);
+        } catch (IllegalCommandException e) {
+            // The engines only choose possible moves.
+            throw new IllegalStateException(e);
+        }
+        printResponse();
+    }
+
+    /**
+     * Prints how often the current position occurs in the recorded games of the
+     * mode and how they went on for the active player, as the position index
+     * counts them. The index file is opened read-only the first time, see
+     * {@link PositionIndex#defaultFile()}.
+     */
+    private void executeStats() {
+        if (!positionIndexOpened) {
+            positionIndexOpened = true;
+            try {
+                positionIndex = PositionIndex.openReadOnly(PositionIndex.defaultFile());
+            } catch (IOException e) {
+                output.printError("the position index cannot be read.");
+                return;
+            }
+        }
+        PositionCount count = positionIndex == null ? null
+                : positionIndex.get(PositionIndex.key(mode, myGame));
+        if (count == null)
+            output.printLine("seen 0 times");
+        else
+            output.printLine(count);
+    }
+
+    /**
+     * @return The number of threads of the engines: on the terminal the value of
+     *         the system property {@code connectfour.threads} or one per
+     *         processor, otherwise one, so that many sessions do not start
+     *         threads of their own.
+     */
+    private int engineThreads() {
+        if (!onTerminal)
+            return 1;
+        return Integer.getInteger("connectfour.threads", ParallelSearch.DEFAULT_THREADS);
+    }
+
+    /**
+     * Unmakes the last 'throwin', 'flip' or 'remove' command, even if it finished
+     * the game, and prints the response for the restored state.
+     */
+    private void executeUndo() {
+        if (myGame.unmakeMove())
+            printResponse();
+        else
+            output.printError("there is no move to undo.");
+    }
+
+    /**
+     * Makes the last undone command again and prints the response for the reached
+     * state.
+     */
+    private void executeRedo() {
+        if (myGame.redoMove())
+            printResponse();
+        else
+            output.printError("there is no move to redo.");
+    }
+
     /**
      * This method receives the input and processes it. If the command consists of
      * nothing or at least one white space it prints an error message. If the
@@ -279,78 +589,140 @@ public class GameManager {
      * <li>token
      * <li>state x;y (x is the column number, y is the row number)
      * <li>print
+     * <li>ai
+     * <li>mcts
+     * <li>analyze
+     * <li>stats
+     * <li>undo
+     * <li>redo
      * <li>quit
      * </ul>
      * 
      * @param inputCommand The input command as a string.
      * @throws IllegalCommandException If a 'throwin' or a 'remove' command was invalid.
      */
-    private void command(String inputCommand) throws IllegalCommandException {
-        if (inputCommand.matches("(\\s*)"))
-            Terminal.printError("your input is invalid, please input one of the valid commands.");
+    public void command(String inputCommand) throws IllegalCommandException {
+        if (ponder != null)
+            ponder.stop();
+        if (!tokenizer.tokenize(inputCommand))
+            output.printError("your input is invalid, please input one of the valid commands.");
         else {
-            String[] commands = inputCommand.split("( )");
-
-            switch (commands[0]) {
-                case "throwin": {
-                    if (validArgumentsNumber(commands) && validCommand(commands[0]) && validColumnNumber(commands[1])) {
-                        int columnNumber = extractColumnNumber(inputCommand);
-                        executeThrowin(columnNumber);
-                    }          
-                }
+            Command command = Command.of(tokenizer);
+            if (command == null) {
+                output.printError(
+                        "the first entered argument of your input is invalid,"
+                        + " please input one of the valid commands.");
+                return;
+            }
+
+            switch (command) {
+                case THROWIN:
+                    if (validArgumentsNumber(command) && validCommand(command)
+                            && validColumnNumber(tokenizer.digit(1)))
+                        executeThrowin(tokenizer.digit(1));
+                    break;
+
+                case FLIP:
+                    if (!mode.allowsFlip())
+                        output.printError("you cannot use the flip command while the game's mode is 'remove'.");
+                    else if (validArgumentsNumber(command) && validCommand(command))
+                        executeFlip();
+                    break;
+
+                case REMOVE:
+                    if (!mode.allowsRemove())
+                        output.printError("you cannot use the remove command while the game's mode is 'flip'.");
+                    else if (validArgumentsNumber(command) && validCommand(command)
+                            && validColumnNumber(tokenizer.digit(1)))
+                        executeRemove(tokenizer.digit(1));
+                    break;
+
+                case TOKEN:
+                    if (validArgumentsNumber(command))
+                        output.printLine(myGame.getTokensNumberOfCurrentPlayer());
+                    break;
+
+                case STATE:
+                    if (validArgumentsNumber(command) && checkCoordinates())
+                        output.printLine(myGame.getCellState(tokenizer.column(1), tokenizer.row(1)));
                     break;
 
-                case "flip": {
-                    if (mode == Mode.REMOVE) {
-                        Terminal.printError("you cannot use the flip command while the game's mode is 'remove'.");
-                        break;
-                    } else if (validArgumentsNumber(commands)) {
-                        if (validCommand(commands[0]))
-                            executeFlip();
-                    }
+                case PRINT:
+                    if (validArgumentsNumber(command))
+                        myGame.print(output);
                     break;
-                }
-
-                case "remove": {
-                    if (mode == Mode.FLIP) {
-                        Terminal.printError("you cannot use the remove command while the game's mode is 'flip'.");
-                        break;
-                    }
-                    if (validArgumentsNumber(commands) && validCommand(commands[0]) && validColumnNumber(commands[1])) {
-                        int columnNumber = extractColumnNumber(inputCommand);
-                        executeRemove(columnNumber);
-                    }
-                }
+
+                case AI:
+                    if (validArgumentsNumber(command) && validCommand(command))
+                        executeAi();
+                    break;
+
+                case MCTS:
+                    if (validArgumentsNumber(command) && validCommand(command))
+                        executeMcts();
+                    break;
+
+                case ANALYZE:
+                    if (validArgumentsNumber(command) && validCommand(command))
+                        executeAnalyze();
                     break;
 
-                case "token":
-                    if (validArgumentsNumber(commands))
-                        Terminal.printLine(myGame.getTokensNumberOfCurrentPlayer());
+                case STATS:
+                    if (validArgumentsNumber(command))
+                        executeStats();
                     break;
 
-                case "state": {
-                    if (validArgumentsNumber(commands) && checkCoordinates(commands[1])) {
-                        String[] coordinates = commands[1].split("(;)");
-                        Terminal.printLine(myGame.getCellState(coordinates[0], coordinates[1]));
-                    }  
-                }
+                case UNDO:
+                    if (validArgumentsNumber(command))
+                        executeUndo();
                     break;
 
-                case "print":
-                    if (validArgumentsNumber(commands))
-                        myGame.print();
+                case REDO:
+                    if (validArgumentsNumber(command))
+                        executeRedo();
                     break;
 
-                case "quit":
-                    if (validArgumentsNumber(commands))
+                case QUIT:
+                    if (validArgumentsNumber(command))
                         quit();
                     break;
 
                 default:
-                    Terminal.printError(
-                            "the first entered argument of your input is invalid,"
-                            + " please input one of the valid commands.");
+                    throw new IllegalStateException("unknown command " + command);
+            }
+        }
+    }
+
+    /**
+     * Processes a command of one of the two players of a hosted game, who play the
+     * game from different clients. The commands are the same as for
+     * {@link #command(String)}, but a player can only make a move when it is their
+     * turn, and moves cannot be undone or redone.
+     * 
+     * @param inputCommand The input command as a string.
+     * @param player The label of the player sending the command.
+     * @return {@code true} If the command made a move.
+     */
+    public boolean command(String inputCommand, Cell player) {
+        if (tokenizer.tokenize(inputCommand)) {
+            Command command = Command.of(tokenizer);
+            if (command == Command.UNDO || command == Command.REDO) {
+                output.printError("the '" + command + "' command is not available in hosted games.");
+                return false;
+            } else if (command != null && command.isMove() && myGame.getGameState() == GameState.RUNNING
+                    && myGame.getCurrentPlayer().getLabel() != player) {
+                output.printError("it is not your turn, please wait for the move of "
+                        + myGame.getCurrentPlayer().getLabel() + ".");
+                return false;
             }
         }
+        int movesNumber = myGame.getMovesNumber();
+        try {
+            command(inputCommand);
+        } catch (IllegalCommandException e) {
+            // Invalid moves are reported to the console instead.
+            throw new IllegalStateException(e);
+        }
+        return myGame.getMovesNumber() != movesNumber;
     }
-}
\ No newline at end of file
+}
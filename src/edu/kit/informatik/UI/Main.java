@@ -1,16 +1,45 @@
 package edu.kit.informatik.UI;
 
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import edu.kit.informatik.ChannelConsole;
+import edu.kit.informatik.Console;
 import edu.kit.informatik.Terminal;
 import edu.kit.informatik.exceptions.IllegalCommandException;
+import edu.kit.informatik.server.GameServer;
 
 /**
- * The entrance to the program containing the main method.
+ * The entrance to the program containing the main method. With the first
+ * argument 'batch' the program replays the command scripts given by the other
+ * arguments instead of reading commands from the terminal. With the first
+ * argument 'server' followed by the mode, the tokens number and optionally the
+ * port it serves games to clients over TCP, with the first argument 'host' it
+ * hosts games whose two players are different clients.
+ * 
+ * <p>The session on the terminal reads and prints through {@link Terminal}
+ * unless the system property {@value #FAST_IO_PROPERTY} is {@code true}; then
+ * it reads the standard input and writes the standard output in large blocks
+ * through a {@link ChannelConsole}.
  * 
  * @author Moayad Yaghi
  * @version 1.0
  */
 public class Main {
     private static final int NUMBER_OF_ARGUMENTS = 2;
+    private static final String BATCH = "batch";
+    private static final String SERVER = "server";
+    private static final String HOST = "host";
+    /**
+     * The system property that switches the session on the terminal to the fast
+     * input and output if it is {@code true}, see {@link ChannelConsole}; the text
+     * is the same.
+     */
+    private static final String FAST_IO_PROPERTY = "connectfour.fastio";
+    private static final int FAST_IO_BUFFER_SIZE = 1 << 16;
 
     /**
      * The main method of the program.
@@ -20,6 +49,17 @@ public class Main {
      */
     public static void main(String[] args) throws IllegalCommandException {
 
+        if (args.length > 0 && args[0].equals(BATCH)) {
+            batch(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        } else if (args.length > 0 && args[0].equals(SERVER)) {
+            server(Arrays.copyOfRange(args, 1, args.length), false);
+            return;
+        } else if (args.length > 0 && args[0].equals(HOST)) {
+            server(Arrays.copyOfRange(args, 1, args.length), true);
+            return;
+        }
+
         if (args.length < NUMBER_OF_ARGUMENTS) {
             Terminal.printError("not enough arguments, there needs to be two arguments.");
             return;
@@ -28,11 +68,68 @@ public class Main {
             return;
         }
 
+        ChannelConsole fastConsole = Boolean.getBoolean(FAST_IO_PROPERTY)
+                ? new ChannelConsole(new FileInputStream(FileDescriptor.in).getChannel(),
+                        new FileOutputStream(FileDescriptor.out).getChannel(), FAST_IO_BUFFER_SIZE, true)
+                : null;
+        Console console = fastConsole == null ? Console.TERMINAL : fastConsole;
+        try {
+            GameManager connectFour = new GameManager(args[0], args[1], console, true);
+            connectFour.simulateGame(console);
+        } catch (IllegalArgumentException e) {
+            console.printError(e.getMessage());
+        } finally {
+            if (fastConsole != null)
+                fastConsole.flush();
+        }
+    }
+
+    /**
+     * Runs the batch mode replaying the given command scripts in parallel, see
+     * {@link BatchRunner}.
+     * 
+     * @param scripts The scripts and directories of scripts.
+     */
+    private static void batch(String[] scripts) {
+        if (scripts.length == 0) {
+            Terminal.printError("the batch mode needs at least one script or directory of scripts.");
+            return;
+        }
         try {
-            GameManager connectFour = new GameManager(args[0], args[1]);
-            connectFour.simulateGame();
+            new BatchRunner().run(scripts);
+        } catch (IOException e) {
+            Terminal.printError("the batch could not be run: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs the game server until the program is stopped, see {@link GameServer}.
+     * 
+     * @param args The mode, the tokens number and optionally the port.
+     * @param hosted {@code true} If every connection plays one player of a hosted
+     *            game.
+     */
+    private static void server(String[] args, boolean hosted) {
+        if (args.length < NUMBER_OF_ARGUMENTS || args.length > NUMBER_OF_ARGUMENTS + 1) {
+            Terminal.printError("the server needs the mode, the tokens number and optionally the port.");
+            return;
+        }
+        int port = GameServer.DEFAULT_PORT;
+        if (args.length > NUMBER_OF_ARGUMENTS) {
+            if (!args[NUMBER_OF_ARGUMENTS].matches("(\\d{1,5})")) {
+                Terminal.printError("the port must be a number among {0,65535}.");
+                return;
+            }
+            port = Integer.parseInt(args[NUMBER_OF_ARGUMENTS]);
+        }
+        try (GameServer server = new GameServer(args[0], args[1], port, hosted)) {
+            Terminal.printLine("listening on port " + server.getPort() + " with "
+                    + (server.usesVirtualThreads() ? "virtual" : "platform") + " threads");
+            server.serve();
         } catch (IllegalArgumentException e) {
             Terminal.printError(e.getMessage());
+        } catch (IOException e) {
+            Terminal.printError("the server could not be run: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,57 @@
+package edu.kit.informatik.UI;
+
+import edu.kit.informatik.Console;
+
+/**
+ * The console of a session of the batch mode. It reads the commands from the
+ * lines of a script and collects the printed lines.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+final class ScriptConsole implements Console {
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final String[] lines;
+    private int nextLine;
+    private int readLines;
+    private final StringBuilder output = new StringBuilder();
+
+    /**
+     * Creates a console reading the given lines.
+     *
+     * @param lines The lines of the script.
+     * @param firstLine The index of the first line to be read.
+     */
+    ScriptConsole(String[] lines, int firstLine) {
+        this.lines = lines;
+        nextLine = firstLine;
+    }
+
+    @Override
+    public String readLine() {
+        if (nextLine == lines.length)
+            return null;
+        readLines++;
+        return lines[nextLine++];
+    }
+
+    @Override
+    public void printLine(Object object) {
+        output.append(object).append(LINE_SEPARATOR);
+    }
+
+    /**
+     * @return The number of lines read so far.
+     */
+    int getReadLines() {
+        return readLines;
+    }
+
+    /**
+     * @return All lines printed so far.
+     */
+    String getOutput() {
+        return output.toString();
+    }
+}
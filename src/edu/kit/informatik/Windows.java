@@ -0,0 +1,164 @@
+package edu.kit.informatik;
+
+/**
+ * The windows of the board: every four cells in a row, a column or a diagonal.
+ * A window that contains tokens of only one player can still become a winning
+ * sequence of that player, the more tokens it already contains the more it is
+ * worth, and a window lacking only one token is a threat to win. The windows
+ * are numbered once, and the windows crossing every cell and every column are
+ * precomputed, so a change of the board only rescores the windows it touches.
+ *
+ * <p>The number of a player's tokens in a window is the bit count of their
+ * tokens masked with the window, so the occupancy of a window is known at once
+ * without being stored.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+final class Windows {
+    private static final int WINDOW_LENGTH = 4;
+    /**
+     * The worth of a window holding zero to four tokens of only one player. A full
+     * window is a won game and is scored by the game state instead.
+     */
+    private static final int[] WEIGHTS = {0, 1, 4, 32, 0 };
+    /**
+     * The cells of every window.
+     */
+    private static final long[] WINDOWS;
+    /**
+     * The numbers of the windows crossing each cell.
+     */
+    private static final int[][] CELL_WINDOWS = new int[ConnectFourGame.BOARD_DIMENSION
+            * ConnectFourGame.BOARD_DIMENSION][];
+    /**
+     * The numbers of the windows crossing each column, which are all the windows a
+     * token moving inside the column can change.
+     */
+    private static final int[][] COLUMN_WINDOWS = new int[ConnectFourGame.BOARD_DIMENSION][];
+    /**
+     * The numbers of all windows.
+     */
+    private static final int[] ALL_WINDOWS;
+
+    static {
+        int dimension = ConnectFourGame.BOARD_DIMENSION;
+        int[][] directions = {{0, 1 }, {1, 0 }, {1, -1 }, {1, 1 } };
+        long[] windows = new long[WINDOW_LENGTH * dimension * dimension];
+        int number = 0;
+        for (int[] direction : directions) {
+            for (int column = 0; column < dimension; column++) {
+                for (int row = 0; row < dimension; row++) {
+                    int lastColumn = column + (WINDOW_LENGTH - 1) * direction[0];
+                    int lastRow = row + (WINDOW_LENGTH - 1) * direction[1];
+                    if (lastColumn >= dimension || lastRow < 0 || lastRow >= dimension)
+                        continue;
+                    long window = 0;
+                    for (int cell = 0; cell < WINDOW_LENGTH; cell++) {
+                        window |= 1L << Bitboard.index(column + cell * direction[0], row + cell * direction[1]);
+                    }
+                    windows[number++] = window;
+                }
+            }
+        }
+        WINDOWS = new long[number];
+        System.arraycopy(windows, 0, WINDOWS, 0, number);
+        ALL_WINDOWS = crossing(-1L);
+        for (int cell = 0; cell < CELL_WINDOWS.length; cell++) {
+            CELL_WINDOWS[cell] = crossing(1L << cell);
+        }
+        for (int column = 0; column < dimension; column++) {
+            COLUMN_WINDOWS[column] = crossing(Bitboard.COLUMN_MASK << Bitboard.index(column, 0));
+        }
+    }
+
+    /**
+     * Private constructor to avoid object generation.
+     */
+    private Windows() {
+        throw new AssertionError("Utility class constructor.");
+    }
+
+    /**
+     * Computes how the worth of the windows changes if a player throws a token in
+     * an empty cell. Only the windows crossing the cell change: a window of only
+     * the player's tokens gains the worth of one more token, a window of only
+     * the rival's tokens loses its worth for the rival.
+     *
+     * @param tokens The tokens of the player before the throwin.
+     * @param rivalTokens The tokens of the rival.
+     * @param cell The index of the cell as laid out in {@link Bitboard}.
+     * @return The change of the worth for the player.
+     */
+    static int throwinScore(long tokens, long rivalTokens, int cell) {
+        int score = 0;
+        for (int number : CELL_WINDOWS[cell]) {
+            long window = WINDOWS[number];
+            long ownCells = tokens & window;
+            long rivalCells = rivalTokens & window;
+            if (rivalCells == 0) {
+                int count = Long.bitCount(ownCells);
+                score += WEIGHTS[count + 1] - WEIGHTS[count];
+            } else if (ownCells == 0) {
+                score += WEIGHTS[Long.bitCount(rivalCells)];
+            }
+        }
+        return score;
+    }
+
+    /**
+     * @param playerOneTokens The tokens of the first player.
+     * @param playerTwoTokens The tokens of the second player.
+     * @param column The column number.
+     * @return The worth of the windows crossing the column for the first player.
+     */
+    static int columnScore(long playerOneTokens, long playerTwoTokens, int column) {
+        return score(playerOneTokens, playerTwoTokens, COLUMN_WINDOWS[column]);
+    }
+
+    /**
+     * @param playerOneTokens The tokens of the first player.
+     * @param playerTwoTokens The tokens of the second player.
+     * @return The worth of all windows for the first player.
+     */
+    static int boardScore(long playerOneTokens, long playerTwoTokens) {
+        return score(playerOneTokens, playerTwoTokens, ALL_WINDOWS);
+    }
+
+    /**
+     * @param playerOneTokens The tokens of the first player.
+     * @param playerTwoTokens The tokens of the second player.
+     * @param windows The numbers of windows.
+     * @return The worth of the windows for the first player, positive if they
+     *         stand better than the second one.
+     */
+    private static int score(long playerOneTokens, long playerTwoTokens, int[] windows) {
+        int score = 0;
+        for (int number : windows) {
+            long window = WINDOWS[number];
+            long playerOneCells = playerOneTokens & window;
+            long playerTwoCells = playerTwoTokens & window;
+            if (playerTwoCells == 0)
+                score += WEIGHTS[Long.bitCount(playerOneCells)];
+            else if (playerOneCells == 0)
+                score -= WEIGHTS[Long.bitCount(playerTwoCells)];
+        }
+        return score;
+    }
+
+    /**
+     * @param cells Some cells.
+     * @return The numbers of the windows containing at least one of the cells.
+     */
+    private static int[] crossing(long cells) {
+        int[] numbers = new int[WINDOWS.length];
+        int found = 0;
+        for (int number = 0; number < WINDOWS.length; number++) {
+            if ((WINDOWS[number] & cells) != 0)
+                numbers[found++] = number;
+        }
+        int[] crossing = new int[found];
+        System.arraycopy(numbers, 0, crossing, 0, found);
+        return crossing;
+    }
+}
@@ -0,0 +1,141 @@
+package edu.kit.informatik;
+
+import java.util.SplittableRandom;
+
+/**
+ * The random keys of the Zobrist hash of a game. Every cell has one key per
+ * player, the hash of a position is the exclusive or of the keys of all the
+ * occupied cells, of the key of the tokens number of each player and of the
+ * second player's key if it is their turn. The keys are generated from a fixed
+ * seed, so a position has the same hash in every run of the program.
+ *
+ * <p>The keys of the cells are stored combined per column byte, so the hash of a
+ * whole column is looked up at once.
+ *
+ * <p>Since every rule is the same on the board mirrored left to right, the hash
+ * of the mirrored board is kept as well: it uses the keys of the mirrored
+ * column, see {@link #mirroredColumn(long, long, int)}.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+final class Zobrist {
+    private static final long SEED = 0x436F6E6E65637434L;
+    private static final int COLUMN_VALUES = 1 << Byte.SIZE;
+    private static final int TOKENS_VALUES = 64;
+
+    /**
+     * The combined keys of every column byte of the first and of the second
+     * player.
+     */
+    private static final long[] PLAYER_ONE_COLUMNS = new long[ConnectFourGame.BOARD_DIMENSION * COLUMN_VALUES];
+    private static final long[] PLAYER_TWO_COLUMNS = new long[ConnectFourGame.BOARD_DIMENSION * COLUMN_VALUES];
+    private static final long[] PLAYER_ONE_TOKENS = new long[TOKENS_VALUES];
+    private static final long[] PLAYER_TWO_TOKENS = new long[TOKENS_VALUES];
+    /**
+     * The key of the second player's turn.
+     */
+    static final long PLAYER_TWO_TURN;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        fillColumns(PLAYER_ONE_COLUMNS, random);
+        fillColumns(PLAYER_TWO_COLUMNS, random);
+        for (int tokens = 0; tokens < TOKENS_VALUES; tokens++) {
+            PLAYER_ONE_TOKENS[tokens] = random.nextLong();
+            PLAYER_TWO_TOKENS[tokens] = random.nextLong();
+        }
+        PLAYER_TWO_TURN = random.nextLong();
+    }
+
+    /**
+     * Private constructor to avoid object generation.
+     */
+    private Zobrist() {
+        throw new AssertionError("Utility class constructor.");
+    }
+
+    /**
+     * @param playerOneTokens The tokens of the first player.
+     * @param playerTwoTokens The tokens of the second player.
+     * @param column The column number.
+     * @return The exclusive or of the keys of the occupied cells of the column.
+     */
+    static long column(long playerOneTokens, long playerTwoTokens, int column) {
+        int offset = column * COLUMN_VALUES;
+        return PLAYER_ONE_COLUMNS[offset + Bitboard.column(playerOneTokens, column)]
+                ^ PLAYER_TWO_COLUMNS[offset + Bitboard.column(playerTwoTokens, column)];
+    }
+
+    /**
+     * @param playerOneTokens The tokens of the first player.
+     * @param playerTwoTokens The tokens of the second player.
+     * @param column The column number.
+     * @return The exclusive or of the keys the occupied cells of the column have
+     *         on the mirrored board.
+     */
+    static long mirroredColumn(long playerOneTokens, long playerTwoTokens, int column) {
+        int offset = (ConnectFourGame.BOARD_DIMENSION - 1 - column) * COLUMN_VALUES;
+        return PLAYER_ONE_COLUMNS[offset + Bitboard.column(playerOneTokens, column)]
+                ^ PLAYER_TWO_COLUMNS[offset + Bitboard.column(playerTwoTokens, column)];
+    }
+
+    /**
+     * @param playerOneTokens The tokens of the first player.
+     * @param playerTwoTokens The tokens of the second player.
+     * @return The exclusive or of the keys of all the occupied cells.
+     */
+    static long board(long playerOneTokens, long playerTwoTokens) {
+        long hash = 0;
+        for (int column = 0; column < ConnectFourGame.BOARD_DIMENSION; column++) {
+            hash ^= column(playerOneTokens, playerTwoTokens, column);
+        }
+        return hash;
+    }
+
+    /**
+     * @param playerOneTokens The tokens of the first player.
+     * @param playerTwoTokens The tokens of the second player.
+     * @return The exclusive or of the keys all the occupied cells have on the
+     *         mirrored board.
+     */
+    static long mirroredBoard(long playerOneTokens, long playerTwoTokens) {
+        long hash = 0;
+        for (int column = 0; column < ConnectFourGame.BOARD_DIMENSION; column++) {
+            hash ^= mirroredColumn(playerOneTokens, playerTwoTokens, column);
+        }
+        return hash;
+    }
+
+    /**
+     * @param playerOne {@code true} for the first player, {@code false} for the
+     *            second one.
+     * @param tokensNumber The tokens number of the player.
+     * @return The key of the player's tokens number.
+     */
+    static long tokens(boolean playerOne, int tokensNumber) {
+        int index = tokensNumber & TOKENS_VALUES - 1;
+        return playerOne ? PLAYER_ONE_TOKENS[index] : PLAYER_TWO_TOKENS[index];
+    }
+
+    /**
+     * Fills the combined keys of every column byte from one random key per cell.
+     *
+     * @param columns The combined keys to be filled.
+     * @param random The generator of the keys.
+     */
+    private static void fillColumns(long[] columns, SplittableRandom random) {
+        for (int column = 0; column < ConnectFourGame.BOARD_DIMENSION; column++) {
+            int offset = column * COLUMN_VALUES;
+            for (int row = 0; row < ConnectFourGame.BOARD_DIMENSION; row++) {
+                long key = random.nextLong();
+                int cell = 1 << row;
+                // Every byte containing the cell gets its key, the byte without it being
+                // the same index without the cell's bit.
+                for (int value = cell; value < COLUMN_VALUES; value = (value + 1) | cell) {
+                    columns[offset + value] = columns[offset + (value & ~cell)] ^ key;
+                }
+            }
+        }
+    }
+}
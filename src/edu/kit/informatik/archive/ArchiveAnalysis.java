@@ -0,0 +1,154 @@
+package edu.kit.informatik.archive;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import edu.kit.informatik.Cell;
+import edu.kit.informatik.ConnectFourGame;
+import edu.kit.informatik.GameState;
+import edu.kit.informatik.Mode;
+import edu.kit.informatik.Move;
+import edu.kit.informatik.Player;
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.engine.ParallelSearch;
+import edu.kit.informatik.exceptions.IllegalCommandException;
+
+/**
+ * Creates and analyzes game archives:
+ * <ul>
+ * <li>{@code analyze <archives>} prints the {@link GameStatistics} of the
+ * archives, read by one thread per processor,
+ * <li>{@code export <journal> <archive>} writes the ended games of a
+ * {@link GameJournal} into an archive,
+ * <li>{@code index <index> <archives>} adds the positions of the archives'
+ * games to a {@link PositionIndex}, creating it if it does not exist,
+ * <li>{@code random <archive> <mode> <tokens> <games>} writes games of random
+ * moves into an archive, e.g. to measure the analysis. A game is cut off after
+ * {@value #MAXIMUM_RANDOM_MOVES} moves.
+ * </ul>
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public final class ArchiveAnalysis {
+    private static final int MAXIMUM_RANDOM_MOVES = 200;
+    private static final long SEED = 4;
+
+    /**
+     * Private constructor to avoid object generation.
+     */
+    private ArchiveAnalysis() {
+        throw new AssertionError("Utility class constructor.");
+    }
+
+    /**
+     * Runs a command.
+     *
+     * @param args The command and its arguments.
+     * @throws IOException If a file cannot be read or written.
+     * @throws InterruptedException If the analysis is interrupted.
+     * @throws IllegalCommandException If a random move is not possible.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException, IllegalCommandException {
+        if (args.length >= 2 && args[0].equals("analyze")) {
+            List<Path> archives = new ArrayList<>();
+            for (int i = 1; i < args.length; i++) {
+                archives.add(Paths.get(args[i]));
+            }
+            analyze(archives);
+        } else if (args.length == 3 && args[0].equals("export")) {
+            try (ArchiveWriter archive = new ArchiveWriter(Paths.get(args[2]))) {
+                Terminal.printLine(GameJournal.export(Paths.get(args[1]), archive) + " games exported");
+            }
+        } else if (args.length >= 3 && args[0].equals("index")) {
+            List<Path> archives = new ArrayList<>();
+            for (int i = 2; i < args.length; i++) {
+                archives.add(Paths.get(args[i]));
+            }
+            index(Paths.get(args[1]), archives);
+        } else if (args.length == 5 && args[0].equals("random")) {
+            long start = System.nanoTime();
+            long games = Long.parseLong(args[4]);
+            try (ArchiveWriter archive = new ArchiveWriter(Paths.get(args[1]))) {
+                writeRandom(archive, Mode.valueOf(args[2].toUpperCase(Locale.ROOT)), Integer.parseInt(args[3]),
+                        games);
+            }
+            Terminal.printLine(games + " games written in " + (System.nanoTime() - start) / 1_000_000L + " ms");
+        } else {
+            Terminal.printError("the arguments must be 'analyze <archives>', 'export <journal> <archive>', "
+                    + "'index <index> <archives>' or 'random <archive> <mode> <tokens> <games>'.");
+        }
+    }
+
+    /**
+     * Prints the statistics of archives and how fast they were read.
+     *
+     * @param archives The archive files.
+     * @throws IOException If an archive cannot be read.
+     * @throws InterruptedException If the analysis is interrupted.
+     */
+    private static void analyze(List<Path> archives) throws IOException, InterruptedException {
+        ArchiveReader reader = new ArchiveReader(ParallelSearch.DEFAULT_THREADS);
+        long start = System.nanoTime();
+        GameStatistics statistics = reader.analyze(archives, GameStatistics::new);
+        long time = Math.max(1, System.nanoTime() - start);
+        Terminal.printLine(statistics);
+        Terminal.printLine(String.format(Locale.ROOT, "%d games in %d ms, %.0f games/s, %d invalid",
+                reader.getGames(), time / 1_000_000L, reader.getGames() * 1e9 / time, reader.getInvalidGames()));
+    }
+
+    /**
+     * Adds the positions of the games of archives to an index and prints how fast
+     * they were added.
+     *
+     * @param file The index file.
+     * @param archives The archive files.
+     * @throws IOException If an archive cannot be read or the index cannot be
+     *             written.
+     * @throws InterruptedException If the indexing is interrupted.
+     */
+    private static void index(Path file, List<Path> archives) throws IOException, InterruptedException {
+        ArchiveReader reader = new ArchiveReader(ParallelSearch.DEFAULT_THREADS);
+        long start = System.nanoTime();
+        try (PositionIndex index = PositionIndex.open(file)) {
+            PositionIndexer indexer = reader.analyze(archives, () -> new PositionIndexer(index));
+            long time = Math.max(1, System.nanoTime() - start);
+            Terminal.printLine(String.format(Locale.ROOT,
+                    "%d positions of %d games in %d ms, %.0f positions/s, %d different positions in the index",
+                    indexer.getPositions(), reader.getGames(), time / 1_000_000L,
+                    indexer.getPositions() * 1e9 / time, index.size()));
+        }
+    }
+
+    /**
+     * Writes games of random moves.
+     *
+     * @param archive The archive.
+     * @param mode The mode of the games.
+     * @param tokensNumber The number of tokens of every player at the start.
+     * @param games The number of games.
+     * @throws IOException If the archive cannot be written.
+     * @throws IllegalCommandException If a generated move is not possible.
+     */
+    private static void writeRandom(ArchiveWriter archive, Mode mode, int tokensNumber, long games)
+            throws IOException, IllegalCommandException {
+        SplittableRandom random = new SplittableRandom(SEED);
+        ConnectFourGame start = new ConnectFourGame(new Player(Cell.P1, tokensNumber),
+                new Player(Cell.P2, tokensNumber));
+        ConnectFourGame game = new ConnectFourGame(start);
+        int[] moves = new int[Move.MOVES_NUMBER];
+        for (long i = 0; i < games; i++) {
+            game.copyFrom(start);
+            while (game.getGameState() == GameState.RUNNING && game.getMovesNumber() < MAXIMUM_RANDOM_MOVES) {
+                int number = game.generateMoves(mode, moves);
+                game.makeMove(moves[random.nextInt(number)]);
+            }
+            archive.append(GameRecord.of(mode, tokensNumber, game));
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package edu.kit.informatik.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import edu.kit.informatik.exceptions.IllegalCommandException;
+
+/**
+ * Streams the games of archives written by {@link ArchiveWriter} through
+ * aggregators, see {@link GameAggregator}. The archives are split into segments
+ * of {@value #SEGMENT_BLOCKS} blocks, and several threads take the segments one
+ * after the other. A thread maps its segment into memory read-only, replays the
+ * records right from the mapping and drops it before the next one, so the memory
+ * used does not grow with the size of the archives, and no record is copied into
+ * the heap. A record that is torn or has a move that is not possible is counted
+ * and the rest of its block is skipped.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public final class ArchiveReader {
+    /**
+     * The number of blocks of a segment.
+     */
+    static final int SEGMENT_BLOCKS = 16;
+
+    private final int threads;
+    private final LongAdder games = new LongAdder();
+    private final LongAdder invalidGames = new LongAdder();
+
+    /**
+     * Creates a reader.
+     *
+     * @param threads The number of reading threads.
+     */
+    public ArchiveReader(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Feeds all games of the archives into aggregators and merges them.
+     *
+     * @param <A> The class of the aggregators.
+     * @param archives The archive files.
+     * @param aggregators Creates an empty aggregator for every thread.
+     * @return The merged aggregator.
+     * @throws IOException If an archive cannot be read or is no archive, or an
+     *             aggregator cannot write its results.
+     * @throws InterruptedException If the reading is interrupted.
+     */
+    public <A extends GameAggregator> A analyze(List<Path> archives, Supplier<A> aggregators)
+            throws IOException, InterruptedException {
+        List<FileChannel> channels = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Segment> segments = new ArrayList<>();
+            for (Path archive : archives) {
+                FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ);
+                channels.add(channel);
+                split(archive, channel, segments);
+            }
+            AtomicInteger next = new AtomicInteger();
+            List<Future<A>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> read(segments, next, aggregators.get())));
+            }
+            A merged = aggregators.get();
+            for (Future<A> result : results) {
+                merged.merge(result.get());
+            }
+            return merged;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            if (e.getCause() instanceof UncheckedIOException)
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+            for (FileChannel channel : channels) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * @return The number of games read by all analyses.
+     */
+    public long getGames() {
+        return games.sum();
+    }
+
+    /**
+     * @return The number of records that were torn or had a move that is not
+     *         possible. The records behind them in their blocks were skipped.
+     */
+    public long getInvalidGames() {
+        return invalidGames.sum();
+    }
+
+    /**
+     * Checks the header of an archive and adds its segments.
+     *
+     * @param archive The archive file.
+     * @param channel The open archive file.
+     * @param segments The segments to be read.
+     * @throws IOException If the archive cannot be read or is no archive.
+     */
+    private static void split(Path archive, FileChannel channel, List<Segment> segments) throws IOException {
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(ArchiveWriter.HEADER_BYTES);
+        // A file read of a few bytes only returns fewer at the end of the file.
+        channel.read(header, 0);
+        if (header.hasRemaining() || header.getInt(0) != ArchiveWriter.MAGIC)
+            throw new IOException(archive + " is no game archive.");
+        long segmentBytes = (long) SEGMENT_BLOCKS * ArchiveWriter.BLOCK_BYTES;
+        for (long start = ArchiveWriter.HEADER_BYTES; start < size; start += segmentBytes) {
+            segments.add(new Segment(channel, start, (int) Math.min(segmentBytes, size - start)));
+        }
+    }
+
+    /**
+     * Reads segments until there are no more.
+     *
+     * @param <A> The class of the aggregator.
+     * @param segments The segments.
+     * @param next The number of the next segment to be read by any thread.
+     * @param aggregator The aggregator of the thread.
+     * @return The aggregator.
+     * @throws IOException If a segment cannot be mapped.
+     */
+    private <A extends GameAggregator> A read(List<Segment> segments, AtomicInteger next, A aggregator)
+            throws IOException {
+        ArchivedGame game = new ArchivedGame();
+        long read = 0;
+        long invalid = 0;
+        for (int number = next.getAndIncrement(); number < segments.size(); number = next.getAndIncrement()) {
+            Segment segment = segments.get(number);
+            ByteBuffer mapped = segment.channel.map(FileChannel.MapMode.READ_ONLY, segment.start, segment.length);
+            for (int block = 0; block < segment.length; block += ArchiveWriter.BLOCK_BYTES) {
+                int end = Math.min(segment.length, block + ArchiveWriter.BLOCK_BYTES);
+                int records = end - block < Integer.BYTES ? 0 : mapped.getInt(block);
+                int offset = block + Integer.BYTES;
+                for (int record = 0; record < records; record++) {
+                    try {
+                        offset = game.read(mapped, offset, end);
+                    } catch (IllegalCommandException e) {
+                        offset = -1;
+                    }
+                    if (offset < 0) {
+                        invalid++;
+                        break;
+                    }
+                    aggregator.accept(game);
+                    read++;
+                }
+            }
+        }
+        games.add(read);
+        invalidGames.add(invalid);
+        return aggregator;
+    }
+
+    /**
+     * A part of an archive that is mapped at once.
+     */
+    private static final class Segment {
+        private final FileChannel channel;
+        private final long start;
+        private final int length;
+
+        /**
+         * @param channel The open archive file.
+         * @param start The offset of the segment's first block in the file.
+         * @param length The number of bytes of the segment.
+         */
+        Segment(FileChannel channel, long start, int length) {
+            this.channel = channel;
+            this.start = start;
+            this.length = length;
+        }
+    }
+}
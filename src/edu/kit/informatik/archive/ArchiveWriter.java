@@ -0,0 +1,119 @@
+package edu.kit.informatik.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes an archive of finished games, which {@link ArchiveReader} analyzes. The
+ * file holds a header and blocks of {@value #BLOCK_BYTES} bytes. Every block
+ * starts with the number of its records, followed by the encoded records, see
+ * {@link GameRecord}, and no record spans two blocks. So the blocks can be read
+ * independently of each other, e.g. by several threads at once. Only the last
+ * block may be shorter.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public final class ArchiveWriter implements Closeable {
+    /**
+     * The first bytes of every archive file: "C4AR".
+     */
+    static final int MAGIC = 0x43344152;
+    static final int HEADER_BYTES = Integer.BYTES;
+    /**
+     * The number of bytes of a block.
+     */
+    static final int BLOCK_BYTES = 1 << 18;
+
+    private final FileChannel channel;
+    private final ByteBuffer block = ByteBuffer.allocate(BLOCK_BYTES);
+    private int records;
+    private long games;
+
+    /**
+     * Creates an archive, replacing an existing file.
+     *
+     * @param file The archive file.
+     * @throws IOException If the file cannot be written.
+     */
+    public ArchiveWriter(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC);
+        header.flip();
+        write(header);
+        block.position(Integer.BYTES);
+    }
+
+    /**
+     * Appends a game to the archive.
+     *
+     * @param record The record of the game.
+     * @throws IllegalArgumentException If the record is longer than a block.
+     * @throws IOException If the file cannot be written.
+     */
+    public void append(GameRecord record) throws IOException {
+        if (record.encodedLength() > BLOCK_BYTES - Integer.BYTES)
+            throw new IllegalArgumentException("a game of " + record.getMovesNumber()
+                    + " moves is too long to be archived.");
+        if (record.encodedLength() > block.remaining())
+            writeBlock(false);
+        record.encode(block);
+        records++;
+        games++;
+    }
+
+    /**
+     * @return The number of appended games.
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Writes the last block and closes the file.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (records > 0)
+                writeBlock(true);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes the collected records as a block and starts the next one. A block
+     * that is not the last one is padded with zeros to {@link #BLOCK_BYTES} bytes.
+     *
+     * @param last {@code true} If no block follows.
+     * @throws IOException If the file cannot be written.
+     */
+    private void writeBlock(boolean last) throws IOException {
+        block.putInt(0, records);
+        if (!last)
+            Arrays.fill(block.array(), block.position(), BLOCK_BYTES, (byte) 0);
+        block.limit(last ? block.position() : BLOCK_BYTES).position(0);
+        write(block);
+        block.clear().position(Integer.BYTES);
+        records = 0;
+    }
+
+    /**
+     * @param buffer The bytes to be appended to the file.
+     * @throws IOException If the file cannot be written.
+     */
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
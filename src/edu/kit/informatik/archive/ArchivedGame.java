@@ -0,0 +1,122 @@
+package edu.kit.informatik.archive;
+
+import java.nio.ByteBuffer;
+
+import edu.kit.informatik.Cell;
+import edu.kit.informatik.ConnectFourGame;
+import edu.kit.informatik.Mode;
+import edu.kit.informatik.Move;
+import edu.kit.informatik.Player;
+import edu.kit.informatik.exceptions.IllegalCommandException;
+
+/**
+ * A game of an archive while it is analyzed, see {@link GameAggregator}. It reads
+ * the record right from the mapped archive and replays it on a game that is
+ * reused for every record, so reading a game creates no objects.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public final class ArchivedGame {
+    private static final Mode[] MODES = Mode.values();
+
+    private final ConnectFourGame position = new ConnectFourGame(new Player(Cell.P1, 0), new Player(Cell.P2, 0));
+    private final ConnectFourGame[] starts = new ConnectFourGame[ConnectFourGame.MAXIMUM_TOKENS_NUMBER + 1];
+    private ByteBuffer buffer;
+    private int moves;
+    private Mode mode;
+    private int tokensNumber;
+    private int movesNumber;
+
+    /**
+     * Only the reader creates archived games.
+     */
+    ArchivedGame() {
+    }
+
+    /**
+     * Reads the record at an offset of a buffer and replays it.
+     *
+     * @param buffer The buffer.
+     * @param offset The offset of the record.
+     * @param end The end of the records in the buffer.
+     * @return The offset behind the record, or {@code -1} if there is no complete
+     *         record or its header is malformed, e.g. a number of tokens no game
+     *         starts with.
+     * @throws IllegalCommandException If a recorded move is not possible.
+     */
+    int read(ByteBuffer buffer, int offset, int end) throws IllegalCommandException {
+        if (end - offset < GameRecord.HEADER_BYTES)
+            return -1;
+        int modeNumber = buffer.get(offset);
+        int tokens = buffer.get(offset + 1);
+        int length = buffer.getInt(offset + 2);
+        int next = offset + GameRecord.HEADER_BYTES + length;
+        if (modeNumber < 0 || modeNumber >= MODES.length || !GameRecord.isTokensNumber(tokens) || length < 0
+                || next > end || next < 0)
+            return -1;
+        this.buffer = buffer;
+        moves = offset + GameRecord.HEADER_BYTES;
+        mode = MODES[modeNumber];
+        tokensNumber = tokens;
+        movesNumber = length;
+        if (starts[tokens] == null)
+            starts[tokens] = new ConnectFourGame(new Player(Cell.P1, tokens), new Player(Cell.P2, tokens));
+        position.copyFrom(starts[tokens]);
+        for (int i = moves; i < next; i++) {
+            int move = buffer.get(i);
+            if (!GameRecord.allows(mode, position, move))
+                throw new IllegalCommandException("the recorded move " + move + " is not possible.");
+            position.makeMove(move);
+        }
+        return next;
+    }
+
+    /**
+     * @return The mode of the game.
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return The number of tokens of every player at the start.
+     */
+    public int getTokensNumber() {
+        return tokensNumber;
+    }
+
+    /**
+     * @return The number of made moves.
+     */
+    public int getMovesNumber() {
+        return movesNumber;
+    }
+
+    /**
+     * @param number The number of a move.
+     * @return The move as encoded by {@link Move}.
+     */
+    public int getMove(int number) {
+        return buffer.get(moves + number);
+    }
+
+    /**
+     * @return The game after all recorded moves. It must not be changed.
+     */
+    public ConnectFourGame getPosition() {
+        return position;
+    }
+
+    /**
+     * @return A record of the game that stays valid after the call of the
+     *         aggregator.
+     */
+    public GameRecord toRecord() {
+        byte[] copy = new byte[movesNumber];
+        for (int i = 0; i < movesNumber; i++) {
+            copy[i] = buffer.get(moves + i);
+        }
+        return new GameRecord(mode, tokensNumber, copy);
+    }
+}
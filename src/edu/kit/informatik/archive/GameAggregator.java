@@ -0,0 +1,27 @@
+package edu.kit.informatik.archive;
+
+/**
+ * A stage of the analysis of an archive, see {@link ArchiveReader}. Every thread
+ * of the reader feeds the games of its part of the archive into an aggregator of
+ * its own, so an aggregator needs no locks. At the end the aggregators of all
+ * threads are merged into one.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public interface GameAggregator {
+    /**
+     * Adds a game to the aggregated values. The game is only valid during the call,
+     * it is reused for the next one.
+     *
+     * @param game The replayed game.
+     */
+    void accept(ArchivedGame game);
+
+    /**
+     * Adds the aggregated values of another aggregator of the same class.
+     *
+     * @param other The other aggregator.
+     */
+    void merge(GameAggregator other);
+}
@@ -0,0 +1,457 @@
+package edu.kit.informatik.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import edu.kit.informatik.Mode;
+import edu.kit.informatik.Move;
+
+/**
+ * An append-only file of the games being played, from which the games still in
+ * progress are restored after the program was stopped or has crashed. Every
+ * change of a game is one entry of {@value #ENTRY_BYTES} bytes: the number of the
+ * game, the kind of the entry, its values and a check byte. A game starts with
+ * its mode and number of tokens, gets one entry per move and is ended once it is
+ * over.
+ *
+ * <p>The methods appending an entry only return once the entry is on the disk.
+ * The entries are not written by the appending threads: they are collected in a
+ * buffer, and a thread of the journal writes all collected entries and syncs the
+ * file once for them (group commit). While one batch is synced, the next one
+ * gathers, so the more games are played at the same time, the more entries share
+ * the cost of one sync.
+ *
+ * <p>When a journal is opened, its entries are read to restore the games that
+ * were not ended, see {@link #getInProgress()}. The journal ends at the first
+ * entry that is torn or does not fit the games before, e.g. after a crash in the
+ * middle of a write, and the file is cut off there.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public final class GameJournal implements Closeable {
+    /**
+     * The number of bytes of one entry.
+     */
+    public static final int ENTRY_BYTES = Long.BYTES + 4;
+
+    /**
+     * The first bytes of every journal file: "C4JN".
+     */
+    static final int MAGIC = 0x43344A4E;
+    static final int HEADER_BYTES = Integer.BYTES;
+
+    private static final int START = 0;
+    private static final int MOVE = 1;
+    private static final int END = 2;
+    private static final int KIND_OFFSET = Long.BYTES;
+    private static final int CHECK_OFFSET = ENTRY_BYTES - 1;
+    private static final int INITIAL_BATCH_ENTRIES = 256;
+    private static final int READ_ENTRIES = 4096;
+    private static final Mode[] MODES = Mode.values();
+
+    private final FileChannel channel;
+    private final Map<Long, GameRecord> inProgress;
+    private final long lastGame;
+    private final Thread committer;
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BATCH_ENTRIES * ENTRY_BYTES);
+    private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BATCH_ENTRIES * ENTRY_BYTES);
+    private long appended;
+    private long durable;
+    private long batches;
+    private IOException failure;
+    private boolean closed;
+
+    /**
+     * @param channel The open journal file, positioned behind its last entry.
+     * @param inProgress The games that were not ended.
+     * @param lastGame The highest number of a game in the journal.
+     */
+    private GameJournal(FileChannel channel, Map<Long, GameRecord> inProgress, long lastGame) {
+        this.channel = channel;
+        this.inProgress = Collections.unmodifiableMap(inProgress);
+        this.lastGame = lastGame;
+        committer = new Thread(this::commit, "journal-committer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    /**
+     * Opens a journal to append to it, creating the file if it does not exist, and
+     * restores the games in progress.
+     *
+     * @param file The journal file.
+     * @return The journal.
+     * @throws IOException If the file cannot be read or written or is no journal.
+     */
+    public static GameJournal open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_BYTES) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC);
+                header.flip();
+                channel.truncate(0).write(header, 0);
+                channel.force(true);
+                channel.position(HEADER_BYTES);
+                return new GameJournal(channel, new TreeMap<>(), 0);
+            }
+            return recover(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends that a game has started and waits until it is on the disk.
+     *
+     * @param game The number of the game.
+     * @param mode The mode of the game.
+     * @param tokensNumber The number of tokens of every player at the start.
+     * @throws IOException If the entry cannot be written.
+     */
+    public void start(long game, Mode mode, int tokensNumber) throws IOException {
+        append(game, START, mode.ordinal(), tokensNumber);
+    }
+
+    /**
+     * Appends a move of a game and waits until it is on the disk.
+     *
+     * @param game The number of the game.
+     * @param move The move as encoded by {@link Move}.
+     * @throws IOException If the entry cannot be written.
+     */
+    public void move(long game, int move) throws IOException {
+        append(game, MOVE, move, 0);
+    }
+
+    /**
+     * Appends that a game has ended and waits until it is on the disk. The game is
+     * not restored anymore.
+     *
+     * @param game The number of the game.
+     * @throws IOException If the entry cannot be written.
+     */
+    public void end(long game) throws IOException {
+        append(game, END, 0, 0);
+    }
+
+    /**
+     * @return The games that were not ended when the journal was opened, by their
+     *         numbers.
+     */
+    public Map<Long, GameRecord> getInProgress() {
+        return inProgress;
+    }
+
+    /**
+     * @return The highest number of a game in the journal when it was opened, or
+     *         {@code 0} if there was none.
+     */
+    public long getLastGame() {
+        return lastGame;
+    }
+
+    /**
+     * @return The number of entries appended since the journal was opened.
+     */
+    public synchronized long getEntries() {
+        return appended;
+    }
+
+    /**
+     * @return The number of syncs of the file since the journal was opened, each
+     *         for a batch of entries.
+     */
+    public synchronized long getBatches() {
+        return batches;
+    }
+
+    /**
+     * Writes the collected entries and closes the file. Appending afterwards
+     * fails.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Collects an entry for the next batch and waits until the batch is synced.
+     *
+     * @param game The number of the game.
+     * @param kind The kind of the entry.
+     * @param value The first value of the entry.
+     * @param extra The second value of the entry.
+     * @throws IOException If the entry cannot be written.
+     */
+    private synchronized void append(long game, int kind, int value, int extra) throws IOException {
+        if (failure != null)
+            throw new IOException("the journal could not be written.", failure);
+        if (closed)
+            throw new IOException("the journal is closed.");
+        if (pending.remaining() < ENTRY_BYTES)
+            pending = ByteBuffer.allocate(2 * pending.capacity()).put(pending.flip());
+        int offset = pending.position();
+        pending.putLong(game).put((byte) kind).put((byte) value).put((byte) extra);
+        pending.put(check(pending, offset));
+        long ticket = ++appended;
+        notifyAll();
+        while (durable < ticket && failure == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("the entry may not be on the disk yet.");
+            }
+        }
+        if (durable < ticket)
+            throw new IOException("the journal could not be written.", failure);
+    }
+
+    /**
+     * Writes and syncs the collected entries batch by batch until the journal is
+     * closed. Only this thread writes to the file, so an interrupted appending
+     * thread cannot close it.
+     */
+    private void commit() {
+        while (true) {
+            ByteBuffer batch;
+            long last;
+            synchronized (this) {
+                while (appended == durable && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (appended == durable)
+                    return;
+                batch = pending;
+                pending = spare;
+                last = appended;
+            }
+            try {
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e;
+                    notifyAll();
+                }
+                return;
+            }
+            batch.clear();
+            synchronized (this) {
+                spare = batch;
+                durable = last;
+                batches++;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Appends the games a journal file has ended to an archive. The games in
+     * progress are left out.
+     *
+     * @param file The journal file.
+     * @param archive The archive.
+     * @return The number of appended games.
+     * @throws IOException If the journal cannot be read or is no journal, or the
+     *             archive cannot be written.
+     */
+    public static long export(Path file, ArchiveWriter archive) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return scan(channel, archive).ended;
+        }
+    }
+
+    /**
+     * Reads the entries of a journal file, cuts off a torn end and positions the
+     * file behind the last entry.
+     *
+     * @param channel The journal file.
+     * @return The journal with the games in progress.
+     * @throws IOException If the file cannot be read or is no journal.
+     */
+    private static GameJournal recover(FileChannel channel) throws IOException {
+        Scan scan = scan(channel, null);
+        channel.truncate(scan.end);
+        channel.position(scan.end);
+        Map<Long, GameRecord> inProgress = new TreeMap<>();
+        for (Map.Entry<Long, Recording> game : scan.games.entrySet()) {
+            inProgress.put(game.getKey(), game.getValue().toRecord());
+        }
+        return new GameJournal(channel, inProgress, scan.lastGame);
+    }
+
+    /**
+     * Reads the entries of a journal file up to the first one that is torn or does
+     * not fit the games before.
+     *
+     * @param channel The journal file.
+     * @param archive The archive the ended games are appended to, or {@code null}.
+     * @return The games read.
+     * @throws IOException If the file cannot be read or is no journal, or the
+     *             archive cannot be written.
+     */
+    private static Scan scan(FileChannel channel, ArchiveWriter archive) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_ENTRIES * ENTRY_BYTES);
+        buffer.limit(HEADER_BYTES);
+        if (readFully(channel, buffer, 0) < HEADER_BYTES || buffer.getInt(0) != MAGIC)
+            throw new IOException("the file is no game journal.");
+        Scan scan = new Scan();
+        while (true) {
+            buffer.clear();
+            int length = readFully(channel, buffer, scan.end);
+            for (int offset = 0; offset + ENTRY_BYTES <= length; offset += ENTRY_BYTES) {
+                if (!scan.apply(buffer, offset, archive))
+                    return scan;
+            }
+            if (length < buffer.capacity())
+                return scan;
+        }
+    }
+
+    /**
+     * @param buffer The buffer of an entry.
+     * @param offset The offset of the entry.
+     * @return The check byte of the entry's other bytes. It is never {@code 0} for
+     *         an entry of zeros, e.g. a part of the file that was never written.
+     */
+    private static byte check(ByteBuffer buffer, int offset) {
+        int check = 0x5A;
+        for (int i = offset; i < offset + CHECK_OFFSET; i++) {
+            check = check * 31 + buffer.get(i);
+        }
+        return (byte) (check ^ check >>> Byte.SIZE);
+    }
+
+    /**
+     * Reads from a file until a buffer is full or the file ends.
+     *
+     * @param channel The file.
+     * @param buffer The buffer, read from the start.
+     * @param position The position in the file to be read from.
+     * @return The number of read bytes.
+     * @throws IOException If the file cannot be read.
+     */
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int length = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + length);
+            if (read < 0)
+                break;
+            length += read;
+        }
+        return length;
+    }
+
+    /**
+     * The games of a journal file while it is read.
+     */
+    private static final class Scan {
+        private final Map<Long, Recording> games = new TreeMap<>();
+        private long end = HEADER_BYTES;
+        private long lastGame;
+        private long ended;
+
+        /**
+         * Applies an entry to the games read so far.
+         *
+         * @param buffer The read entries.
+         * @param offset The offset of the entry.
+         * @param archive The archive the ended games are appended to, or
+         *            {@code null}.
+         * @return {@code false} If the entry is torn or does not fit the games.
+         * @throws IOException If the archive cannot be written.
+         */
+        boolean apply(ByteBuffer buffer, int offset, ArchiveWriter archive) throws IOException {
+            if (buffer.get(offset + CHECK_OFFSET) != check(buffer, offset))
+                return false;
+            long game = buffer.getLong(offset);
+            int kind = buffer.get(offset + KIND_OFFSET);
+            int value = buffer.get(offset + KIND_OFFSET + 1);
+            Recording recording = games.get(game);
+            int extra = buffer.get(offset + KIND_OFFSET + 2);
+            if (kind == START && recording == null && value >= 0 && value < MODES.length
+                    && GameRecord.isTokensNumber(extra)) {
+                games.put(game, new Recording(MODES[value], extra));
+            } else if (kind == MOVE && recording != null && value >= 0 && value < Move.MOVES_NUMBER) {
+                recording.add(value);
+            } else if (kind == END && recording != null) {
+                games.remove(game);
+                if (archive != null)
+                    archive.append(recording.toRecord());
+                ended++;
+            } else {
+                return false;
+            }
+            lastGame = Math.max(lastGame, game);
+            end += ENTRY_BYTES;
+            return true;
+        }
+    }
+
+    /**
+     * The moves of a game in progress while the journal is read.
+     */
+    private static final class Recording {
+        private final Mode mode;
+        private final int tokensNumber;
+        private byte[] moves = new byte[Long.SIZE];
+        private int size;
+
+        /**
+         * @param mode The mode of the game.
+         * @param tokensNumber The number of tokens of every player at the start.
+         */
+        Recording(Mode mode, int tokensNumber) {
+            this.mode = mode;
+            this.tokensNumber = tokensNumber;
+        }
+
+        /**
+         * @param move The next move as encoded by {@link Move}.
+         */
+        void add(int move) {
+            if (size == moves.length)
+                moves = Arrays.copyOf(moves, 2 * size);
+            moves[size++] = (byte) move;
+        }
+
+        /**
+         * @return The record of the game so far.
+         */
+        GameRecord toRecord() {
+            return new GameRecord(mode, tokensNumber, Arrays.copyOf(moves, size));
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package edu.kit.informatik.archive;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import edu.kit.informatik.Cell;
+import edu.kit.informatik.ConnectFourGame;
+import edu.kit.informatik.GameState;
+import edu.kit.informatik.Mode;
+import edu.kit.informatik.Move;
+import edu.kit.informatik.Player;
+import edu.kit.informatik.exceptions.IllegalCommandException;
+
+/**
+ * The record of a played game: its mode, the number of tokens of every player at
+ * the start and the made moves. Encoded, a record is a header of
+ * {@value #HEADER_BYTES} bytes with the mode, the number of tokens and the number
+ * of moves, followed by one byte per move as encoded by {@link Move}. A game of
+ * 40 moves takes 46 bytes instead of the about 500 bytes of its commands as
+ * text, and it is read without parsing a single line.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public final class GameRecord {
+    /**
+     * The number of bytes before the moves of an encoded record.
+     */
+    public static final int HEADER_BYTES = 2 + Integer.BYTES;
+
+    private static final Mode[] MODES = Mode.values();
+
+    private final Mode mode;
+    private final int tokensNumber;
+    private final byte[] moves;
+
+    /**
+     * Creates a record of a game.
+     *
+     * @param mode The mode of the game.
+     * @param tokensNumber The number of tokens of every player at the start.
+     * @param moves The made moves as encoded by {@link Move}, one per byte.
+     */
+    public GameRecord(Mode mode, int tokensNumber, byte[] moves) {
+        this.mode = mode;
+        this.tokensNumber = tokensNumber;
+        this.moves = moves;
+    }
+
+    /**
+     * Records the made moves of a game.
+     *
+     * @param mode The mode of the game.
+     * @param tokensNumber The number of tokens of every player at the start.
+     * @param game The game.
+     * @return The record of the game.
+     */
+    public static GameRecord of(Mode mode, int tokensNumber, ConnectFourGame game) {
+        byte[] moves = new byte[game.getMovesNumber()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = (byte) game.getMove(i);
+        }
+        return new GameRecord(mode, tokensNumber, moves);
+    }
+
+    /**
+     * Reads an encoded record at the position of a buffer and moves the position
+     * behind it.
+     *
+     * @param buffer The buffer.
+     * @return The record.
+     * @throws IllegalArgumentException If the buffer holds no complete record.
+     */
+    public static GameRecord decode(ByteBuffer buffer) {
+        try {
+            int mode = buffer.get();
+            int tokensNumber = buffer.get();
+            int movesNumber = buffer.getInt();
+            if (mode < 0 || mode >= MODES.length || !isTokensNumber(tokensNumber) || movesNumber < 0
+                    || movesNumber > buffer.remaining())
+                throw new IllegalArgumentException("the buffer holds no game record.");
+            byte[] moves = new byte[movesNumber];
+            buffer.get(moves);
+            return new GameRecord(MODES[mode], tokensNumber, moves);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("the buffer holds no complete game record.");
+        }
+    }
+
+    /**
+     * Writes the encoded record at the position of a buffer and moves the
+     * position behind it.
+     *
+     * @param buffer The buffer with at least {@link #encodedLength()} remaining
+     *            bytes.
+     */
+    public void encode(ByteBuffer buffer) {
+        buffer.put((byte) mode.ordinal()).put((byte) tokensNumber).putInt(moves.length).put(moves);
+    }
+
+    /**
+     * @return The number of bytes of the encoded record.
+     */
+    public int encodedLength() {
+        return HEADER_BYTES + moves.length;
+    }
+
+    /**
+     * @return The mode of the game.
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return The number of tokens of every player at the start.
+     */
+    public int getTokensNumber() {
+        return tokensNumber;
+    }
+
+    /**
+     * @return The number of made moves.
+     */
+    public int getMovesNumber() {
+        return moves.length;
+    }
+
+    /**
+     * @param number The number of a move.
+     * @return The move as encoded by {@link Move}.
+     */
+    public int getMove(int number) {
+        return moves[number];
+    }
+
+    /**
+     * Plays the game again from the start.
+     *
+     * @return The game after the recorded moves.
+     * @throws IllegalCommandException If a recorded move is not possible in the
+     *             mode or on the board.
+     */
+    public ConnectFourGame replay() throws IllegalCommandException {
+        ConnectFourGame game = new ConnectFourGame(new Player(Cell.P1, tokensNumber),
+                new Player(Cell.P2, tokensNumber));
+        for (byte move : moves) {
+            if (!allows(mode, game, move))
+                throw new IllegalCommandException("the recorded move " + move + " is not possible.");
+            game.makeMove(move);
+        }
+        return game;
+    }
+
+    /**
+     * Checks a recorded move before it is made. Whether the board allows it is
+     * only known when it is made.
+     *
+     * @param mode The mode of the game.
+     * @param game The game before the move.
+     * @param move The recorded move.
+     * @return {@code true} If the game is running and the mode allows the move.
+     */
+    public static boolean allows(Mode mode, ConnectFourGame game, int move) {
+        return game.getGameState() == GameState.RUNNING && move >= 0 && move < Move.MOVES_NUMBER
+                && (!Move.isRemove(move) || mode.allowsRemove()) && (move != Move.FLIP || mode.allowsFlip());
+    }
+
+    /**
+     * Checks a recorded number of tokens. A game starts with a number the commands
+     * accept, and the history of a game only holds numbers of up to six bits.
+     *
+     * @param tokensNumber The recorded number of tokens of every player.
+     * @return {@code true} If a game can start with the number of tokens.
+     */
+    static boolean isTokensNumber(int tokensNumber) {
+        return tokensNumber >= ConnectFourGame.MINIMUM_TOKENS_NUMBER
+                && tokensNumber <= ConnectFourGame.MAXIMUM_TOKENS_NUMBER;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof GameRecord))
+            return false;
+        GameRecord record = (GameRecord) object;
+        return mode == record.mode && tokensNumber == record.tokensNumber && Arrays.equals(moves, record.moves);
+    }
+
+    @Override
+    public int hashCode() {
+        return (mode.hashCode() * 31 + tokensNumber) * 31 + Arrays.hashCode(moves);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder line = new StringBuilder().append(mode).append(' ').append(tokensNumber);
+        for (byte move : moves) {
+            line.append(", ").append(Move.toString(move));
+        }
+        return line.toString();
+    }
+}
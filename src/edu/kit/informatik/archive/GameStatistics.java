@@ -0,0 +1,159 @@
+package edu.kit.informatik.archive;
+
+import java.util.Locale;
+
+import edu.kit.informatik.Cell;
+import edu.kit.informatik.ConnectFourGame;
+import edu.kit.informatik.GameState;
+import edu.kit.informatik.Mode;
+import edu.kit.informatik.Move;
+
+/**
+ * Aggregates the outcomes of games per mode: the wins of each player, the draws
+ * by their reason, the games that were left unfinished, the average number of
+ * moves and how often every move was made.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public final class GameStatistics implements GameAggregator {
+    private static final Mode[] MODES = Mode.values();
+    private static final int GAMES = 0;
+    private static final int MOVES = 1;
+    private static final int P1_WINS = 2;
+    private static final int P2_WINS = 3;
+    /**
+     * Draws because the board is full.
+     */
+    private static final int FULL_BOARD = 4;
+    /**
+     * Draws because the player to move has no tokens left.
+     */
+    private static final int NO_TOKENS = 5;
+    /**
+     * Draws because both players have a line of four after a flip or a remove.
+     */
+    private static final int BOTH_WON = 6;
+    private static final int UNFINISHED = 7;
+    private static final int COUNTERS = 8;
+    private static final int CELLS = ConnectFourGame.BOARD_DIMENSION * ConnectFourGame.BOARD_DIMENSION;
+
+    private final long[][] counters = new long[MODES.length][COUNTERS];
+    private final long[][] moves = new long[MODES.length][Move.MOVES_NUMBER];
+
+    @Override
+    public void accept(ArchivedGame game) {
+        long[] counter = counters[game.getMode().ordinal()];
+        long[] made = moves[game.getMode().ordinal()];
+        counter[GAMES]++;
+        counter[MOVES] += game.getMovesNumber();
+        for (int i = 0; i < game.getMovesNumber(); i++) {
+            made[game.getMove(i)]++;
+        }
+        ConnectFourGame position = game.getPosition();
+        if (position.getGameState() == GameState.RUNNING)
+            counter[UNFINISHED]++;
+        else if (position.getGameState() == GameState.WON)
+            counter[position.getWinner().getLabel() == Cell.P1 ? P1_WINS : P2_WINS]++;
+        else if (Long.bitCount(position.getCurrentPlayerTokens() | position.getRivalTokens()) == CELLS)
+            counter[FULL_BOARD]++;
+        else if (position.getTokensNumberOfCurrentPlayer() == 0)
+            counter[NO_TOKENS]++;
+        else
+            counter[BOTH_WON]++;
+    }
+
+    @Override
+    public void merge(GameAggregator other) {
+        GameStatistics statistics = (GameStatistics) other;
+        for (int mode = 0; mode < MODES.length; mode++) {
+            for (int i = 0; i < COUNTERS; i++) {
+                counters[mode][i] += statistics.counters[mode][i];
+            }
+            for (int i = 0; i < Move.MOVES_NUMBER; i++) {
+                moves[mode][i] += statistics.moves[mode][i];
+            }
+        }
+    }
+
+    /**
+     * @param mode A mode.
+     * @return The number of games of the mode.
+     */
+    public long getGames(Mode mode) {
+        return counters[mode.ordinal()][GAMES];
+    }
+
+    /**
+     * @param mode A mode.
+     * @return The average number of moves of the games of the mode.
+     */
+    public double getAverageMoves(Mode mode) {
+        long games = getGames(mode);
+        return games == 0 ? 0 : (double) counters[mode.ordinal()][MOVES] / games;
+    }
+
+    /**
+     * @param mode A mode.
+     * @param label The label of a player.
+     * @return The number of the games of the mode the player has won.
+     */
+    public long getWins(Mode mode, Cell label) {
+        return counters[mode.ordinal()][label == Cell.P1 ? P1_WINS : P2_WINS];
+    }
+
+    /**
+     * @param mode A mode.
+     * @return The number of the games of the mode that ended in a draw because the
+     *         player to move had no tokens left.
+     */
+    public long getDrawsWithoutTokens(Mode mode) {
+        return counters[mode.ordinal()][NO_TOKENS];
+    }
+
+    /**
+     * @param mode A mode.
+     * @param move A move as encoded by {@link Move}.
+     * @return How often the move was made in the games of the mode.
+     */
+    public long getMoves(Mode mode, int move) {
+        return moves[mode.ordinal()][move];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        for (Mode mode : MODES) {
+            long[] counter = counters[mode.ordinal()];
+            long games = counter[GAMES];
+            if (games == 0)
+                continue;
+            if (report.length() > 0)
+                report.append(System.lineSeparator());
+            report.append(String.format(Locale.ROOT,
+                    "%s: %d games, %.1f moves on average, P1 wins %.1f%%, P2 wins %.1f%%, draws %.1f%%"
+                            + " (full board %d, no tokens left %d, both won %d), unfinished %d",
+                    mode, games, getAverageMoves(mode), percent(counter[P1_WINS], games),
+                    percent(counter[P2_WINS], games),
+                    percent(counter[FULL_BOARD] + counter[NO_TOKENS] + counter[BOTH_WON], games),
+                    counter[FULL_BOARD], counter[NO_TOKENS], counter[BOTH_WON], counter[UNFINISHED]));
+            long[] made = moves[mode.ordinal()];
+            long total = Math.max(1, counter[MOVES]);
+            for (int move = 0; move < Move.MOVES_NUMBER; move++) {
+                if (made[move] > 0)
+                    report.append(System.lineSeparator()).append(String.format(Locale.ROOT, "  %-9s %5.1f%%",
+                            Move.toString(move), percent(made[move], total)));
+            }
+        }
+        return report.length() == 0 ? "no games" : report.toString();
+    }
+
+    /**
+     * @param part A part of a whole.
+     * @param whole The whole.
+     * @return The part in percent of the whole.
+     */
+    private static double percent(long part, long whole) {
+        return 100.0 * part / whole;
+    }
+}
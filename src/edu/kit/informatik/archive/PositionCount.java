@@ -0,0 +1,69 @@
+package edu.kit.informatik.archive;
+
+/**
+ * How often a position has occurred in the recorded games and how the games went
+ * on for the player to move in it, see {@link PositionIndex}.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public final class PositionCount {
+    private final long occurrences;
+    private final long wins;
+    private final long draws;
+    private final long losses;
+
+    /**
+     * @param occurrences The number of occurrences of the position.
+     * @param wins The number of games won by the player to move.
+     * @param draws The number of drawn games.
+     * @param losses The number of games lost by the player to move.
+     */
+    PositionCount(long occurrences, long wins, long draws, long losses) {
+        this.occurrences = occurrences;
+        this.wins = wins;
+        this.draws = draws;
+        this.losses = losses;
+    }
+
+    /**
+     * @return The number of occurrences of the position.
+     */
+    public long getOccurrences() {
+        return occurrences;
+    }
+
+    /**
+     * @return The number of games won by the player to move.
+     */
+    public long getWins() {
+        return wins;
+    }
+
+    /**
+     * @return The number of drawn games.
+     */
+    public long getDraws() {
+        return draws;
+    }
+
+    /**
+     * @return The number of games lost by the player to move.
+     */
+    public long getLosses() {
+        return losses;
+    }
+
+    /**
+     * @return The number of games left before they were over.
+     */
+    public long getUnfinished() {
+        return occurrences - wins - draws - losses;
+    }
+
+    @Override
+    public String toString() {
+        return "seen " + occurrences + " times: " + wins + " wins, " + draws + " draws, " + losses + " losses, "
+                + getUnfinished() + " unfinished";
+    }
+}
@@ -0,0 +1,347 @@
+package edu.kit.informatik.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import edu.kit.informatik.ConnectFourGame;
+import edu.kit.informatik.Mode;
+
+/**
+ * Counts how often every position occurs in the recorded games and how the games
+ * went on from it. The index is an open-addressing hash table in a file of slots
+ * of {@value #SLOT_BYTES} bytes: the key of a position, the number of its
+ * occurrences and the numbers of the games the player to move has won, drawn and
+ * lost. The key is the canonical hash of the position mixed with its mode, see
+ * {@link #key(Mode, ConnectFourGame)}, so a position and its mirror image are
+ * counted together, and a full key is kept, so positions within one table do
+ * not collide.
+ *
+ * <p>The file is mapped into memory, so the table lives outside the heap and can
+ * be larger than it, and opening the index reads nothing. A mapping is at most
+ * {@value #CHUNK_SLOTS} slots long, larger tables are mapped in several chunks.
+ * When the table is three quarters full, its slots are rehashed into a file of
+ * twice the size that replaces the old one.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public final class PositionIndex implements Closeable {
+    /**
+     * The system property naming the index file.
+     */
+    public static final String FILE_PROPERTY = "connectfour.index";
+    /**
+     * The index file unless the system property names another one.
+     */
+    public static final String DEFAULT_FILE = "positions.index";
+    /**
+     * The number of bytes of a slot.
+     */
+    public static final int SLOT_BYTES = 5 * Long.BYTES;
+    /**
+     * The number of slots of a new index, a power of two.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    /**
+     * The outcome of a game that was won by the player to move in a position.
+     */
+    public static final int WIN = 0;
+    /**
+     * The outcome of a drawn game.
+     */
+    public static final int DRAW = 1;
+    /**
+     * The outcome of a game that was lost by the player to move in a position.
+     */
+    public static final int LOSS = 2;
+    /**
+     * The outcome of a game that was left before it was over.
+     */
+    public static final int UNFINISHED = 3;
+
+    /**
+     * The first bytes of every index file: "C4PM", indexes keyed by the plain
+     * hash had "C4PI".
+     */
+    static final int MAGIC = 0x4334504D;
+    static final int HEADER_BYTES = 3 * Long.BYTES;
+    static final int CHUNK_SLOTS = 1 << 24;
+
+    private static final int CAPACITY_OFFSET = Long.BYTES;
+    private static final int SIZE_OFFSET = 2 * Long.BYTES;
+    private static final int OCCURRENCES_OFFSET = Long.BYTES;
+    private static final int OUTCOMES_OFFSET = 2 * Long.BYTES;
+    private static final long EMPTY = 0;
+    private static final long MODE_KEY = 0x9E3779B97F4A7C15L;
+    private static final int MAXIMUM_LOAD_PERCENT = 75;
+
+    private final Path file;
+    private final boolean writable;
+    private FileChannel channel;
+    private MappedByteBuffer header;
+    private MappedByteBuffer[] chunks;
+    private long capacity;
+    private long size;
+
+    /**
+     * @param file The index file.
+     * @param writable {@code true} If positions are added.
+     */
+    private PositionIndex(Path file, boolean writable) {
+        this.file = file;
+        this.writable = writable;
+    }
+
+    /**
+     * Opens an index to add positions, creating the file if it does not exist.
+     *
+     * @param file The index file.
+     * @return The index.
+     * @throws IOException If the file cannot be read or written or is no index.
+     */
+    public static PositionIndex open(Path file) throws IOException {
+        PositionIndex index = new PositionIndex(file, true);
+        if (!Files.exists(file))
+            create(file, DEFAULT_CAPACITY).close();
+        index.map();
+        return index;
+    }
+
+    /**
+     * Opens an index read-only.
+     *
+     * @param file The index file.
+     * @return The index, or {@code null} if the file does not exist.
+     * @throws IOException If the file cannot be read or is no index.
+     */
+    public static PositionIndex openReadOnly(Path file) throws IOException {
+        if (!Files.isRegularFile(file))
+            return null;
+        PositionIndex index = new PositionIndex(file, false);
+        index.map();
+        return index;
+    }
+
+    /**
+     * @return The index file the system property {@link #FILE_PROPERTY} names.
+     */
+    public static Path defaultFile() {
+        return Paths.get(System.getProperty(FILE_PROPERTY, DEFAULT_FILE));
+    }
+
+    /**
+     * @param mode The mode of a game.
+     * @param position The current position of the game.
+     * @return The key of the position and its mirror image in the index.
+     */
+    public static long key(Mode mode, ConnectFourGame position) {
+        long key = position.getCanonicalHash() ^ mode.ordinal() * MODE_KEY;
+        // The key 0 marks an empty slot.
+        return key == EMPTY ? 1 : key;
+    }
+
+    /**
+     * Counts an occurrence of a position.
+     *
+     * @param key The key of the position.
+     * @param outcome The outcome of the game for the player to move, e.g.
+     *            {@link #WIN}.
+     * @throws IOException If the table has to grow and the file cannot be
+     *             written.
+     */
+    public synchronized void add(long key, int outcome) throws IOException {
+        long slot = find(key);
+        MappedByteBuffer chunk = chunk(slot);
+        int offset = offset(slot);
+        if (chunk.getLong(offset) == EMPTY) {
+            if ((size + 1) * 100 > capacity * MAXIMUM_LOAD_PERCENT) {
+                grow();
+                add(key, outcome);
+                return;
+            }
+            chunk.putLong(offset, key);
+            header.putLong(SIZE_OFFSET, ++size);
+        }
+        increment(chunk, offset + OCCURRENCES_OFFSET);
+        if (outcome != UNFINISHED)
+            increment(chunk, offset + OUTCOMES_OFFSET + outcome * Long.BYTES);
+    }
+
+    /**
+     * Looks a position up.
+     *
+     * @param key The key of the position.
+     * @return The counters of the position, or {@code null} if it has not occurred.
+     */
+    public synchronized PositionCount get(long key) {
+        long slot = find(key);
+        MappedByteBuffer chunk = chunk(slot);
+        int offset = offset(slot);
+        if (chunk.getLong(offset) == EMPTY)
+            return null;
+        int outcomes = offset + OUTCOMES_OFFSET;
+        return new PositionCount(chunk.getLong(offset + OCCURRENCES_OFFSET), chunk.getLong(outcomes),
+                chunk.getLong(outcomes + Long.BYTES), chunk.getLong(outcomes + 2 * Long.BYTES));
+    }
+
+    /**
+     * @return The number of different positions.
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * @return The number of slots of the table.
+     */
+    public synchronized long capacity() {
+        return capacity;
+    }
+
+    /**
+     * Writes the changed slots to the disk and closes the file.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (writable) {
+            header.force();
+            for (MappedByteBuffer chunk : chunks) {
+                chunk.force();
+            }
+        }
+        channel.close();
+    }
+
+    /**
+     * Maps the file.
+     *
+     * @throws IOException If the file cannot be read or is no index.
+     */
+    private void map() throws IOException {
+        channel = writable ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+            if (channel.size() < HEADER_BYTES)
+                throw new IOException(file + " is no position index.");
+            header = channel.map(mode, 0, HEADER_BYTES);
+            capacity = header.getLong(CAPACITY_OFFSET);
+            size = header.getLong(SIZE_OFFSET);
+            if (header.getInt(0) != MAGIC || Long.bitCount(capacity) != 1
+                    || channel.size() != HEADER_BYTES + capacity * SLOT_BYTES)
+                throw new IOException(file + " is no position index.");
+            int chunksNumber = (int) ((capacity + CHUNK_SLOTS - 1) / CHUNK_SLOTS);
+            chunks = new MappedByteBuffer[chunksNumber];
+            for (int i = 0; i < chunksNumber; i++) {
+                long slots = Math.min(CHUNK_SLOTS, capacity - (long) i * CHUNK_SLOTS);
+                chunks[i] = channel.map(mode, HEADER_BYTES + (long) i * CHUNK_SLOTS * SLOT_BYTES, slots * SLOT_BYTES);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Rehashes the slots into a table of twice the size, which replaces the file.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    private void grow() throws IOException {
+        Path grown = file.resolveSibling(file.getFileName() + ".grow");
+        try (PositionIndex larger = create(grown, 2 * capacity)) {
+            for (long slot = 0; slot < capacity; slot++) {
+                MappedByteBuffer chunk = chunk(slot);
+                int offset = offset(slot);
+                long key = chunk.getLong(offset);
+                if (key == EMPTY)
+                    continue;
+                long target = larger.find(key);
+                MappedByteBuffer targetChunk = larger.chunk(target);
+                int targetOffset = larger.offset(target);
+                for (int i = 0; i < SLOT_BYTES; i += Long.BYTES) {
+                    targetChunk.putLong(targetOffset + i, chunk.getLong(offset + i));
+                }
+            }
+            larger.size = size;
+            larger.header.putLong(SIZE_OFFSET, size);
+        }
+        channel.close();
+        Files.move(grown, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        map();
+    }
+
+    /**
+     * Creates an empty index file.
+     *
+     * @param file The index file.
+     * @param capacity The number of slots, a power of two.
+     * @return The index opened to add positions.
+     * @throws IOException If the file cannot be written.
+     */
+    private static PositionIndex create(Path file, long capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(0, MAGIC).putLong(CAPACITY_OFFSET, capacity).putLong(SIZE_OFFSET, 0);
+            channel.write(header, 0);
+            // Writing the last byte extends the file with zeros, i.e. empty slots.
+            channel.write(ByteBuffer.allocate(1), HEADER_BYTES + capacity * SLOT_BYTES - 1);
+        }
+        PositionIndex index = new PositionIndex(file, true);
+        index.map();
+        return index;
+    }
+
+    /**
+     * Probes the slots linearly from the key's home slot.
+     *
+     * @param key The key of a position.
+     * @return The slot of the key, or the empty slot where it would be added.
+     */
+    private long find(long key) {
+        long mask = capacity - 1;
+        // Spreads the bits of the key, its low bits are as random as the high ones.
+        long slot = (key ^ key >>> 32) & mask;
+        while (true) {
+            long found = chunk(slot).getLong(offset(slot));
+            if (found == key || found == EMPTY)
+                return slot;
+            slot = slot + 1 & mask;
+        }
+    }
+
+    /**
+     * @param slot The number of a slot.
+     * @return The mapping holding the slot.
+     */
+    private MappedByteBuffer chunk(long slot) {
+        return chunks[(int) (slot / CHUNK_SLOTS)];
+    }
+
+    /**
+     * @param slot The number of a slot.
+     * @return The offset of the slot within its mapping.
+     */
+    private int offset(long slot) {
+        return (int) (slot % CHUNK_SLOTS) * SLOT_BYTES;
+    }
+
+    /**
+     * @param chunk A mapping.
+     * @param offset The offset of a counter.
+     */
+    private static void increment(MappedByteBuffer chunk, int offset) {
+        chunk.putLong(offset, chunk.getLong(offset) + 1);
+    }
+}
@@ -0,0 +1,115 @@
+package edu.kit.informatik.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import edu.kit.informatik.Cell;
+import edu.kit.informatik.ConnectFourGame;
+import edu.kit.informatik.GameState;
+import edu.kit.informatik.Player;
+import edu.kit.informatik.exceptions.IllegalCommandException;
+
+/**
+ * Adds every position of the games of an archive to a {@link PositionIndex}: the
+ * start, the position after every move and the final one, each with the outcome
+ * of its game for the player to move. The positions are collected per thread and
+ * added in batches of {@value #BATCH_POSITIONS}, so the threads seldom wait for
+ * the lock of the index.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public final class PositionIndexer implements GameAggregator {
+    private static final int BATCH_POSITIONS = 1 << 14;
+
+    private final PositionIndex index;
+    private final ConnectFourGame position = new ConnectFourGame(new Player(Cell.P1, 0), new Player(Cell.P2, 0));
+    // The start positions by the number of tokens, which the reader has checked.
+    private final ConnectFourGame[] starts = new ConnectFourGame[ConnectFourGame.MAXIMUM_TOKENS_NUMBER + 1];
+    private final long[] keys = new long[BATCH_POSITIONS];
+    private final byte[] outcomes = new byte[BATCH_POSITIONS];
+    private int collected;
+    private long positions;
+
+    /**
+     * Creates an indexer of one thread.
+     *
+     * @param index The index shared by all threads.
+     */
+    public PositionIndexer(PositionIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public void accept(ArchivedGame game) {
+        ConnectFourGame end = game.getPosition();
+        Cell winner = end.getGameState() == GameState.WON ? end.getWinner().getLabel() : null;
+        int tokens = game.getTokensNumber();
+        if (starts[tokens] == null)
+            starts[tokens] = new ConnectFourGame(new Player(Cell.P1, tokens), new Player(Cell.P2, tokens));
+        position.copyFrom(starts[tokens]);
+        collect(game, winner, end.getGameState());
+        try {
+            for (int i = 0; i < game.getMovesNumber(); i++) {
+                position.makeMove(game.getMove(i));
+                collect(game, winner, end.getGameState());
+            }
+        } catch (IllegalCommandException e) {
+            // The moves were already replayed once by the reader.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void merge(GameAggregator other) {
+        PositionIndexer indexer = (PositionIndexer) other;
+        indexer.flush();
+        positions += indexer.positions;
+    }
+
+    /**
+     * @return The number of positions added by this indexer and the merged ones.
+     */
+    public long getPositions() {
+        return positions;
+    }
+
+    /**
+     * Collects the current position with the outcome of its game.
+     *
+     * @param game The game.
+     * @param winner The label of the winner, or {@code null} if there is none.
+     * @param state The state at the end of the game.
+     */
+    private void collect(ArchivedGame game, Cell winner, GameState state) {
+        int outcome;
+        if (state == GameState.RUNNING)
+            outcome = PositionIndex.UNFINISHED;
+        else if (winner == null)
+            outcome = PositionIndex.DRAW;
+        else
+            outcome = winner == position.getCurrentPlayer().getLabel() ? PositionIndex.WIN : PositionIndex.LOSS;
+        keys[collected] = PositionIndex.key(game.getMode(), position);
+        outcomes[collected] = (byte) outcome;
+        collected++;
+        positions++;
+        if (collected == BATCH_POSITIONS)
+            flush();
+    }
+
+    /**
+     * Adds the collected positions to the index.
+     */
+    private void flush() {
+        try {
+            synchronized (index) {
+                for (int i = 0; i < collected; i++) {
+                    index.add(keys[i], outcomes[i]);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        collected = 0;
+    }
+}
@@ -0,0 +1,35 @@
+package edu.kit.informatik.engine;
+
+import edu.kit.informatik.ConnectFourGame;
+
+/**
+ * The static evaluation of a running game's position. Every four cells in a row,
+ * a column or a diagonal form a window. A window that contains tokens of only one
+ * player can still become a winning sequence of that player, the more tokens it
+ * already contains the more it is worth. The game keeps the worth of the windows
+ * up to date with every move, so evaluating a position does not look at the
+ * board, see {@link ConnectFourGame#getWindowScore()}.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public final class Evaluation {
+
+    /**
+     * Private constructor to avoid object generation.
+     */
+    private Evaluation() {
+        throw new AssertionError("Utility class constructor.");
+    }
+
+    /**
+     * Evaluates the position of a running game.
+     *
+     * @param game The game to be evaluated.
+     * @return The worth of the position for the active player, positive if they
+     *         stand better than their rival.
+     */
+    public static int evaluate(ConnectFourGame game) {
+        return game.getWindowScore();
+    }
+}
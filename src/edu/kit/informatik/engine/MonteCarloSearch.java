@@ -0,0 +1,336 @@
+package edu.kit.informatik.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import edu.kit.informatik.Cell;
+import edu.kit.informatik.ConnectFourGame;
+import edu.kit.informatik.GameState;
+import edu.kit.informatik.Mode;
+import edu.kit.informatik.Move;
+import edu.kit.informatik.exceptions.IllegalCommandException;
+
+/**
+ * Searches the best move by a Monte Carlo tree search with the UCT selection
+ * rule. Every iteration walks down the tree choosing the child with the best
+ * balance of win rate and uncertainty, expands the reached node and finishes the
+ * game with random moves of the mode (a playout). The result is counted in every
+ * node of the walked path.
+ *
+ * <p>All threads share one tree (tree parallelism). A thread walking through a
+ * node counts a virtual loss there until its playout is finished, so the other
+ * threads prefer other paths meanwhile. The tree is stored in preallocated
+ * arrays and every thread plays on its own reusable game with its own random
+ * generator, so a playout does not create any objects.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public class MonteCarloSearch {
+    /**
+     * The exploration constant unless another one is given.
+     */
+    public static final double DEFAULT_EXPLORATION = Math.sqrt(2);
+    /**
+     * The number of tree nodes unless another one is given.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+
+    private static final int ROOT = 0;
+    private static final int UNEXPANDED = 0;
+    private static final int EXPANDING = 1;
+    private static final int EXPANDED = 2;
+    /**
+     * The state of a node that stays a leaf because the tree is full.
+     */
+    private static final int LEAF = 3;
+    private static final int VIRTUAL_LOSS = 1;
+    /**
+     * The points of a win, a draw counting half of them.
+     */
+    private static final int WIN_POINTS = 2;
+    private static final int MAX_PATH = 1024;
+    private static final int MAX_PLAYOUT = 4096;
+    private static final long NANOSECONDS_PER_MILLISECOND = 1_000_000L;
+
+    private final Mode mode;
+    private final long timeBudget;
+    private final double exploration;
+    private final int threads;
+    private final ExecutorService helpers;
+    private final SplittableRandom seeds = new SplittableRandom();
+
+    // The tree: the move leading to every node, its children following each other
+    // from the first one, the expansion state and the statistics from the view of
+    // the player who made the node's move.
+    private final int[] moves;
+    private final int[] firstChildren;
+    private final int[] childrenNumbers;
+    private final AtomicIntegerArray states;
+    private final AtomicIntegerArray visits;
+    private final AtomicIntegerArray points;
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Creates a Monte Carlo tree search for games of the given mode.
+     *
+     * @param mode The mode of the searched games.
+     * @param timeBudget The time a search may take in milliseconds.
+     * @param threads The number of searching threads, at least one.
+     * @param exploration The weight of the uncertainty of a move compared to its
+     *            win rate.
+     * @param capacity The maximum number of tree nodes.
+     */
+    public MonteCarloSearch(Mode mode, long timeBudget, int threads, double exploration, int capacity) {
+        this.mode = mode;
+        this.timeBudget = timeBudget;
+        this.threads = Math.max(threads, 1);
+        this.exploration = exploration;
+        moves = new int[capacity];
+        firstChildren = new int[capacity];
+        childrenNumbers = new int[capacity];
+        states = new AtomicIntegerArray(capacity);
+        visits = new AtomicIntegerArray(capacity);
+        points = new AtomicIntegerArray(capacity);
+        helpers = this.threads == 1 ? null : Executors.newFixedThreadPool(this.threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "playout-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Searches the best move of the active player of a running game with all the
+     * threads. The game itself is not changed.
+     *
+     * @param position The running game.
+     * @return The most visited move of the root.
+     */
+    public PlayoutResult search(ConnectFourGame position) {
+        if (position.getGameState() != GameState.RUNNING)
+            throw new IllegalStateException("the game is already finished.");
+        long start = System.nanoTime();
+        long deadline = start + timeBudget * NANOSECONDS_PER_MILLISECOND;
+        size.set(ROOT + 1);
+        states.set(ROOT, UNEXPANDED);
+        visits.set(ROOT, 0);
+        points.set(ROOT, 0);
+        // The children of the previous search must not be taken if the root is not
+        // expanded again.
+        childrenNumbers[ROOT] = 0;
+        List<Future<Long>> futures = new ArrayList<>(threads - 1);
+        for (int i = 1; i < threads; i++) {
+            Worker worker = new Worker(position, seeds.split());
+            futures.add(helpers.submit(() -> worker.run(deadline)));
+        }
+        long playouts = new Worker(position, seeds.split()).run(deadline);
+        for (Future<Long> future : futures) {
+            playouts += await(future);
+        }
+        int best = -1;
+        for (int i = 0; i < childrenNumbers[ROOT]; i++) {
+            int child = firstChildren[ROOT] + i;
+            if (best == -1 || visits.get(child) > visits.get(best))
+                best = child;
+        }
+        if (best == -1) {
+            // Not even the root was expanded, the budget was too small.
+            int[] rootMoves = new int[Move.MOVES_NUMBER];
+            position.generateMoves(mode, rootMoves);
+            return new PlayoutResult(rootMoves[0], 0, playouts, System.nanoTime() - start);
+        }
+        double winRate = visits.get(best) == 0 ? 0 : points.get(best) / (double) (WIN_POINTS * visits.get(best));
+        return new PlayoutResult(moves[best], winRate, playouts, System.nanoTime() - start);
+    }
+
+    /**
+     * Stops the helper threads. The search cannot be used afterwards.
+     */
+    public void shutdown() {
+        if (helpers != null)
+            helpers.shutdownNow();
+    }
+
+    /**
+     * Expands a node by adding a child for every possible move. If the tree is
+     * full, the node stays a leaf.
+     *
+     * @param node The node.
+     * @param game The game in the node's position.
+     * @param buffer The array to generate the moves in.
+     */
+    private void expand(int node, ConnectFourGame game, int[] buffer) {
+        int number = game.generateMoves(mode, buffer);
+        int first = size.get();
+        while (first + number <= moves.length && !size.compareAndSet(first, first + number)) {
+            first = size.get();
+        }
+        if (first + number > moves.length) {
+            states.set(node, LEAF);
+            return;
+        }
+        for (int i = 0; i < number; i++) {
+            int child = first + i;
+            moves[child] = buffer[i];
+            childrenNumbers[child] = 0;
+            visits.set(child, 0);
+            points.set(child, 0);
+            states.set(child, UNEXPANDED);
+        }
+        firstChildren[node] = first;
+        childrenNumbers[node] = number;
+        // Publishes the children to the other threads.
+        states.set(node, EXPANDED);
+    }
+
+    /**
+     * Chooses the child with the highest upper confidence bound. A child that was
+     * never visited is chosen at once.
+     *
+     * @param node The expanded node.
+     * @return The chosen child.
+     */
+    private int select(int node) {
+        double logarithm = Math.log(Math.max(visits.get(node), 1));
+        int best = firstChildren[node];
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < childrenNumbers[node]; i++) {
+            int child = firstChildren[node] + i;
+            int childVisits = visits.get(child);
+            if (childVisits == 0)
+                return child;
+            double value = points.get(child) / (double) (WIN_POINTS * childVisits)
+                    + exploration * Math.sqrt(logarithm / childVisits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Waits for a helper thread.
+     *
+     * @param future The helper's pending number of playouts.
+     * @return The number of the helper's playouts.
+     */
+    private static long await(Future<Long> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * One searching thread with its own game, random generator and buffers.
+     */
+    private final class Worker {
+        private final ConnectFourGame root;
+        private final ConnectFourGame game;
+        private final SplittableRandom random;
+        private final int[] buffer = new int[Move.MOVES_NUMBER];
+        private final int[] path = new int[MAX_PATH];
+        private final Cell[] movers = new Cell[MAX_PATH];
+
+        /**
+         * Creates a worker searching the given position.
+         *
+         * @param position The searched position.
+         * @param random The worker's own random generator.
+         */
+        Worker(ConnectFourGame position, SplittableRandom random) {
+            root = new ConnectFourGame(position);
+            game = new ConnectFourGame(position);
+            this.random = random;
+        }
+
+        /**
+         * Runs iterations until the time is up.
+         *
+         * @param deadline The end of the search as {@link System#nanoTime()}.
+         * @return The number of playouts.
+         */
+        long run(long deadline) {
+            long playouts = 0;
+            while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                iterate();
+                playouts++;
+            }
+            return playouts;
+        }
+
+        /**
+         * Walks down the tree, expands the reached node, plays the game to its end
+         * randomly and counts the result along the walked path.
+         */
+        private void iterate() {
+            game.copyFrom(root);
+            int node = ROOT;
+            int length = 0;
+            while (true) {
+                visits.addAndGet(node, VIRTUAL_LOSS);
+                path[length] = node;
+                movers[length] = game.getCurrentPlayer().getLabel();
+                length++;
+                if (game.getGameState() != GameState.RUNNING || length == MAX_PATH)
+                    break;
+                if (states.get(node) == UNEXPANDED && states.compareAndSet(node, UNEXPANDED, EXPANDING))
+                    expand(node, game, buffer);
+                if (states.get(node) != EXPANDED)
+                    break;
+                node = select(node);
+                play(moves[node]);
+            }
+            Cell winner = playout();
+            for (int i = 0; i < length; i++) {
+                visits.addAndGet(path[i], 1 - VIRTUAL_LOSS);
+                // The statistics of a node count for the player who made its move, the
+                // one moving in the position before it.
+                if (i > 0)
+                    points.addAndGet(path[i], winner == null ? WIN_POINTS / 2
+                            : winner == movers[i - 1] ? WIN_POINTS : 0);
+            }
+        }
+
+        /**
+         * Plays random moves until the game is finished.
+         *
+         * @return The label of the winner, or {@code null} for a draw.
+         */
+        private Cell playout() {
+            for (int ply = 0; ply < MAX_PLAYOUT && game.getGameState() == GameState.RUNNING; ply++) {
+                int number = game.generateMoves(mode, buffer);
+                play(buffer[random.nextInt(number)]);
+            }
+            if (game.getGameState() == GameState.WON)
+                return game.getWinner().getLabel();
+            return null;
+        }
+
+        /**
+         * Makes a generated move on the worker's game.
+         *
+         * @param move The move.
+         */
+        private void play(int move) {
+            try {
+                game.makeMove(move);
+            } catch (IllegalCommandException e) {
+                // Only generated moves are played, they are always possible.
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package edu.kit.informatik.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import edu.kit.informatik.ConnectFourGame;
+import edu.kit.informatik.Mode;
+import edu.kit.informatik.Move;
+
+/**
+ * Scores every possible move of the active player instead of only finding the
+ * best one. Every move is searched on its own thread with a full window, so its
+ * score is exact and not only a bound, see
+ * {@link Search#searchMove(ConnectFourGame, int, long)}. All the searches share
+ * one transposition table, so moves whose positions transpose into each other
+ * help each other, and an analysis takes the time budget at most, however many
+ * moves there are. If there are at least as many threads as moves, every move
+ * is searched until the end of the budget. Otherwise the moves are searched in
+ * waves of one move per thread, every wave with an equal part of the budget.
+ * With one thread the moves are searched one after the other on the calling
+ * thread.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public class MoveAnalysis {
+    private static final long NANOSECONDS_PER_MILLISECOND = 1_000_000L;
+
+    private final Mode mode;
+    private final long timeBudget;
+    private final TranspositionTable table;
+    private final Search[] searches = new Search[Move.MOVES_NUMBER];
+    private final int[] moves = new int[Move.MOVES_NUMBER];
+    private final int threads;
+    private final ExecutorService workers;
+
+    /**
+     * Creates an analysis of the games of the given mode.
+     *
+     * @param mode The mode of the analyzed games.
+     * @param timeBudget The time an analysis may take in milliseconds.
+     * @param threads The number of searching threads, at least one. More threads
+     *            than possible moves are not used.
+     * @param table The cache of searched positions shared by all threads.
+     */
+    public MoveAnalysis(Mode mode, long timeBudget, int threads, TranspositionTable table) {
+        this.mode = mode;
+        this.timeBudget = timeBudget;
+        this.table = table;
+        for (int i = 0; i < searches.length; i++) {
+            searches[i] = new Search(mode, timeBudget, table);
+        }
+        this.threads = Math.max(1, Math.min(threads, Move.MOVES_NUMBER));
+        workers = this.threads == 1 ? null : Executors.newFixedThreadPool(this.threads, runnable -> {
+            Thread thread = new Thread(runnable, "analysis-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Scores every possible move of the active player of a running game. The game
+     * itself is not changed. The result of every move is passed to the listener
+     * on the calling thread as soon as its search is done, so it can be shown
+     * while the other moves are still searched.
+     *
+     * @param position The running game.
+     * @param listener The receiver of every move's result, in the order the
+     *            searches finish.
+     * @return The results of all moves, the best score first.
+     */
+    public List<SearchResult> analyze(ConnectFourGame position, Consumer<SearchResult> listener) {
+        int number = position.generateMoves(mode, moves);
+        if (number == 0)
+            throw new IllegalStateException("the game is already finished.");
+        table.nextGeneration();
+        long start = System.nanoTime();
+        long budget = timeBudget * NANOSECONDS_PER_MILLISECOND;
+        List<SearchResult> ranked = new ArrayList<>(number);
+        if (workers == null)
+            searchInTurn(position, number, start, budget, listener, ranked);
+        else
+            searchInParallel(position, number, start, budget, listener, ranked);
+        ranked.sort((first, second) -> Integer.compare(second.getScore(), first.getScore()));
+        return ranked;
+    }
+
+    /**
+     * Searches the generated moves one after the other on the calling thread,
+     * every move with an equal part of the budget.
+     *
+     * @param position The running game.
+     * @param number The number of generated moves.
+     * @param start The start of the analysis in nanoseconds.
+     * @param budget The time budget in nanoseconds.
+     * @param listener The receiver of every move's result.
+     * @param results The list the results are added to.
+     */
+    private void searchInTurn(ConnectFourGame position, int number, long start, long budget,
+            Consumer<SearchResult> listener, List<SearchResult> results) {
+        for (int i = 0; i < number; i++) {
+            Search search = searches[i];
+            search.restart();
+            SearchResult result = search.searchMove(new ConnectFourGame(position), moves[i],
+                    start + budget * (i + 1) / number);
+            listener.accept(result);
+            results.add(result);
+        }
+    }
+
+    /**
+     * Searches the generated moves on the threads, in waves of one move per thread
+     * if there are fewer threads than moves.
+     *
+     * @param position The running game.
+     * @param number The number of generated moves.
+     * @param start The start of the analysis in nanoseconds.
+     * @param budget The time budget in nanoseconds.
+     * @param listener The receiver of every move's result, in the order the
+     *            searches finish.
+     * @param results The list the results are added to.
+     */
+    private void searchInParallel(ConnectFourGame position, int number, long start, long budget,
+            Consumer<SearchResult> listener, List<SearchResult> results) {
+        int waves = (number + threads - 1) / threads;
+        CompletionService<SearchResult> completed = new ExecutorCompletionService<>(workers);
+        for (int i = 0; i < number; i++) {
+            Search search = searches[i];
+            search.restart();
+            ConnectFourGame copy = new ConnectFourGame(position);
+            int move = moves[i];
+            long deadline = start + budget * (i / threads + 1) / waves;
+            completed.submit(() -> search.searchMove(copy, move, deadline));
+        }
+        try {
+            for (int i = 0; i < number; i++) {
+                SearchResult result = completed.take().get();
+                listener.accept(result);
+                results.add(result);
+            }
+        } catch (InterruptedException e) {
+            stop(number);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            stop(number);
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * @return The cache of searched positions shared by all threads.
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Stops the threads. The analysis cannot be used afterwards.
+     */
+    public void shutdown() {
+        if (workers != null)
+            workers.shutdownNow();
+    }
+
+    /**
+     * Stops the searches of a failed analysis.
+     *
+     * @param number The number of started searches.
+     */
+    private void stop(int number) {
+        for (int i = 0; i < number; i++) {
+            searches[i].stop();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package edu.kit.informatik.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import edu.kit.informatik.ConnectFourGame;
+import edu.kit.informatik.Mode;
+import edu.kit.informatik.Move;
+
+/**
+ * A precomputed book of the best moves of opening positions, one file per mode
+ * and starting number of tokens. The file holds a header and records of the
+ * canonical hash, the score, the move and the searched depth of a position,
+ * sorted by the hash. A position and its mirror image share one record whose
+ * move is the one on the canonical board, see
+ * {@link ConnectFourGame#getCanonicalHash()}. It is created by
+ * {@link OpeningBookGenerator}.
+ *
+ * <p>The file is not read into the heap. It is mapped into memory read-only the
+ * first time a position is looked up, so a large book neither slows down the
+ * start of the program nor needs heap space, and a position is found by a binary
+ * search in the mapped records. A missing or unreadable file is an empty book.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public class OpeningBook {
+    /**
+     * The system property naming the directory of the book files.
+     */
+    public static final String DIRECTORY_PROPERTY = "connectfour.book";
+    /**
+     * The directory of the book files unless the system property names another
+     * one.
+     */
+    public static final String DEFAULT_DIRECTORY = "book";
+
+    /**
+     * The first bytes of every book file: "C4BM", books keyed by the plain hash
+     * had "C4BK".
+     */
+    static final int MAGIC = 0x4334424D;
+    static final int HEADER_BYTES = Integer.BYTES;
+    static final int RECORD_BYTES = Long.BYTES + Integer.BYTES + 2 * Short.BYTES;
+    static final int SCORE_OFFSET = Long.BYTES;
+    static final int MOVE_OFFSET = SCORE_OFFSET + Integer.BYTES;
+    static final int DEPTH_OFFSET = MOVE_OFFSET + Short.BYTES;
+
+    private final Path file;
+    private ByteBuffer records;
+    private int size;
+    private boolean loaded;
+
+    /**
+     * Creates a book of the given file without reading it yet.
+     *
+     * @param file The book file.
+     */
+    public OpeningBook(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Creates the book of the games of a mode starting with the given number of
+     * tokens, in the directory the system property {@link #DIRECTORY_PROPERTY}
+     * names.
+     *
+     * @param mode The mode of the games.
+     * @param tokensNumber The number of tokens of every player at the start.
+     * @return The book, empty if its file does not exist.
+     */
+    public static OpeningBook of(Mode mode, int tokensNumber) {
+        Path directory = Paths.get(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY));
+        return new OpeningBook(path(directory, mode, tokensNumber));
+    }
+
+    /**
+     * @param directory The directory of the book files.
+     * @param mode The mode of the games.
+     * @param tokensNumber The number of tokens of every player at the start.
+     * @return The file of the book of the mode and the number of tokens.
+     */
+    public static Path path(Path directory, Mode mode, int tokensNumber) {
+        return directory.resolve(mode + "-" + tokensNumber + ".book");
+    }
+
+    /**
+     * Looks the current position of a game up.
+     *
+     * @param position The game.
+     * @return The book's move for the position with its score and depth, or
+     *         {@code null} if the position is not in the book.
+     */
+    public SearchResult probe(ConnectFourGame position) {
+        long start = System.nanoTime();
+        ByteBuffer buffer = records();
+        int record = find(buffer, size, position.getCanonicalHash());
+        if (record < 0)
+            return null;
+        int offset = HEADER_BYTES + record * RECORD_BYTES;
+        int move = buffer.getShort(offset + MOVE_OFFSET);
+        return new SearchResult(position.isMirrored() ? Move.mirror(move) : move, buffer.getInt(offset + SCORE_OFFSET),
+                buffer.getShort(offset + DEPTH_OFFSET), 0, System.nanoTime() - start);
+    }
+
+    /**
+     * @return The number of positions in the book.
+     */
+    public int size() {
+        records();
+        return size;
+    }
+
+    /**
+     * Maps the file the first time it is needed.
+     *
+     * @return The mapped file, or {@code null} if the book is empty.
+     */
+    private synchronized ByteBuffer records() {
+        if (!loaded) {
+            loaded = true;
+            records = map(file);
+            size = records == null ? 0 : (records.capacity() - HEADER_BYTES) / RECORD_BYTES;
+        }
+        return records;
+    }
+
+    /**
+     * @param file The book file.
+     * @return The file mapped read-only, or {@code null} if it does not exist or
+     *         is no book.
+     */
+    private static ByteBuffer map(Path file) {
+        if (!Files.isRegularFile(file))
+            return null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES || length > Integer.MAX_VALUE
+                    || (length - HEADER_BYTES) % RECORD_BYTES != 0)
+                return null;
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            return mapped.getInt(0) == MAGIC ? mapped : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Searches a hash in the sorted records by bisection. Only absolute reads are
+     * used, so several threads can search at the same time.
+     *
+     * @param buffer The mapped file, or {@code null}.
+     * @param size The number of records.
+     * @param key The canonical hash of the position.
+     * @return The number of the position's record, or {@code -1} if there is none.
+     */
+    private static int find(ByteBuffer buffer, int size, long key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleKey = buffer.getLong(HEADER_BYTES + middle * RECORD_BYTES);
+            if (middleKey < key)
+                low = middle + 1;
+            else if (middleKey > key)
+                high = middle - 1;
+            else
+                return middle;
+        }
+        return -1;
+    }
+
+    /**
+     * Writes a record into a buffer.
+     *
+     * @param buffer The buffer.
+     * @param key The canonical hash of the position.
+     * @param move The best move on the canonical board as encoded by
+     *            {@link Move}.
+     * @param score The score of the move.
+     * @param depth The searched depth.
+     */
+    static void putRecord(ByteBuffer buffer, long key, int move, int score, int depth) {
+        buffer.putLong(key).putInt(score).putShort((short) move).putShort((short) depth);
+    }
+}
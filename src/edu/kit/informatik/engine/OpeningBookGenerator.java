@@ -0,0 +1,208 @@
+package edu.kit.informatik.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import edu.kit.informatik.Cell;
+import edu.kit.informatik.ConnectFourGame;
+import edu.kit.informatik.GameState;
+import edu.kit.informatik.Mode;
+import edu.kit.informatik.Move;
+import edu.kit.informatik.Player;
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.exceptions.IllegalCommandException;
+
+/**
+ * Generates the opening book of a mode and a starting number of tokens. It
+ * collects every position reachable within the given number of moves, a position
+ * and its mirror image once, searches each of them to a fixed depth on all processors and writes the best moves
+ * sorted by the positions' hashes, see {@link OpeningBook}.
+ *
+ * <p>Usage: {@code OpeningBookGenerator mode tokens [plies] [depth] [directory]}
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public final class OpeningBookGenerator {
+    private static final int DEFAULT_PLIES = 3;
+    private static final int DEFAULT_DEPTH = 10;
+    private static final long UNLIMITED_TIME = Long.MAX_VALUE / 2_000_000L;
+    private static final int RECORD_LONGS = 2;
+    private static final int SCORE_SHIFT = Integer.SIZE;
+    private static final int DEPTH_SHIFT = Short.SIZE;
+    private static final int FIELD_MASK = 0xFFFF;
+
+    /**
+     * Private constructor to avoid object generation.
+     */
+    private OpeningBookGenerator() {
+        throw new AssertionError("Utility class constructor.");
+    }
+
+    /**
+     * Generates the book and writes it into its file.
+     *
+     * @param args The mode, the number of tokens and optionally the number of
+     *            moves, the searched depth and the directory of the book.
+     * @throws IllegalCommandException If a generated move is not possible.
+     * @throws IOException If the book cannot be written.
+     */
+    public static void main(String[] args) throws IllegalCommandException, IOException {
+        Mode mode = Mode.valueOf(args[0].toUpperCase(Locale.ROOT));
+        int tokensNumber = Integer.parseInt(args[1]);
+        int plies = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PLIES;
+        int depth = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_DEPTH;
+        Path directory = Paths.get(args.length > 4 ? args[4]
+                : System.getProperty(OpeningBook.DIRECTORY_PROPERTY, OpeningBook.DEFAULT_DIRECTORY));
+        long start = System.nanoTime();
+        List<ConnectFourGame> positions = collect(mode, tokensNumber, plies);
+        long[] records = searchAll(mode, positions, depth);
+        Path file = OpeningBook.path(directory, mode, tokensNumber);
+        write(file, records);
+        Terminal.printLine(positions.size() + " positions written to " + file + " in "
+                + (System.nanoTime() - start) / 1_000_000_000L + " s");
+    }
+
+    /**
+     * Collects the running positions reachable from the start within the given
+     * number of moves, every position once and no mirror image of another one.
+     *
+     * @param mode The mode of the games.
+     * @param tokensNumber The number of tokens of every player at the start.
+     * @param plies The number of moves.
+     * @return The positions.
+     * @throws IllegalCommandException If a generated move is not possible.
+     */
+    private static List<ConnectFourGame> collect(Mode mode, int tokensNumber, int plies)
+            throws IllegalCommandException {
+        List<ConnectFourGame> positions = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        ConnectFourGame start = new ConnectFourGame(new Player(Cell.P1, tokensNumber),
+                new Player(Cell.P2, tokensNumber));
+        positions.add(start);
+        seen.add(start.getCanonicalHash());
+        int[] moves = new int[Move.MOVES_NUMBER];
+        int first = 0;
+        for (int ply = 0; ply < plies; ply++) {
+            int last = positions.size();
+            for (int i = first; i < last; i++) {
+                ConnectFourGame position = positions.get(i);
+                int number = position.generateMoves(mode, moves);
+                for (int j = 0; j < number; j++) {
+                    ConnectFourGame next = new ConnectFourGame(position);
+                    next.makeMove(moves[j]);
+                    if (next.getGameState() == GameState.RUNNING && seen.add(next.getCanonicalHash()))
+                        positions.add(next);
+                }
+            }
+            first = last;
+        }
+        return positions;
+    }
+
+    /**
+     * Searches all positions on one thread per processor, every thread with its
+     * own search and transposition table.
+     *
+     * @param mode The mode of the games.
+     * @param positions The positions.
+     * @param depth The searched depth.
+     * @return The records sorted by hash, two values each: the hash and the packed
+     *         score, depth and move.
+     */
+    private static long[] searchAll(Mode mode, List<ConnectFourGame> positions, int depth) {
+        int threads = ParallelSearch.DEFAULT_THREADS;
+        long[] records = new long[RECORD_LONGS * positions.size()];
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(workers.submit(() -> {
+                Search search = new Search(mode, UNLIMITED_TIME, depth,
+                        new TranspositionTable(TranspositionTable.DEFAULT_SIZE));
+                for (int i = thread; i < positions.size(); i += threads) {
+                    ConnectFourGame position = positions.get(i);
+                    SearchResult result = search.search(position);
+                    int move = position.isMirrored() ? Move.mirror(result.getMove()) : result.getMove();
+                    records[RECORD_LONGS * i] = position.getCanonicalHash();
+                    records[RECORD_LONGS * i + 1] = (long) result.getScore() << SCORE_SHIFT
+                            | result.getDepth() << DEPTH_SHIFT | move;
+                }
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            workers.shutdown();
+        }
+        return sort(records);
+    }
+
+    /**
+     * @param records The unsorted records, two values each.
+     * @return The records sorted by hash.
+     */
+    private static long[] sort(long[] records) {
+        Integer[] order = new Integer[records.length / RECORD_LONGS];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (first, second) -> Long.compare(records[RECORD_LONGS * first],
+                records[RECORD_LONGS * second]));
+        long[] sorted = new long[records.length];
+        for (int i = 0; i < order.length; i++) {
+            sorted[RECORD_LONGS * i] = records[RECORD_LONGS * order[i]];
+            sorted[RECORD_LONGS * i + 1] = records[RECORD_LONGS * order[i] + 1];
+        }
+        return sorted;
+    }
+
+    /**
+     * Writes the book file.
+     *
+     * @param file The book file.
+     * @param records The records sorted by hash.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void write(Path file, long[] records) throws IOException {
+        if (file.getParent() != null)
+            Files.createDirectories(file.getParent());
+        int size = records.length / RECORD_LONGS;
+        ByteBuffer buffer = ByteBuffer.allocate(OpeningBook.HEADER_BYTES + size * OpeningBook.RECORD_BYTES);
+        buffer.putInt(OpeningBook.MAGIC);
+        for (int i = 0; i < size; i++) {
+            long data = records[RECORD_LONGS * i + 1];
+            OpeningBook.putRecord(buffer, records[RECORD_LONGS * i], (int) (data & FIELD_MASK),
+                    (int) (data >> SCORE_SHIFT), (int) (data >>> DEPTH_SHIFT & FIELD_MASK));
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
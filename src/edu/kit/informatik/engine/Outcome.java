@@ -0,0 +1,30 @@
+package edu.kit.informatik.engine;
+
+/**
+ * The proven outcome of a position for its active player.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public enum Outcome {
+
+    /**
+     * The active player can force a win.
+     */
+    WIN,
+
+    /**
+     * The rival can force a win.
+     */
+    LOSS,
+
+    /**
+     * Neither player can force a win.
+     */
+    DRAW,
+
+    /**
+     * The node budget was used up before the outcome was proven.
+     */
+    UNKNOWN;
+}
@@ -0,0 +1,180 @@
+package edu.kit.informatik.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import edu.kit.informatik.ConnectFourGame;
+import edu.kit.informatik.Mode;
+
+/**
+ * Searches the best move with several threads sharing one transposition table
+ * (lazy SMP). Every thread runs its own {@link Search} of the same position. The
+ * helper threads begin at alternating depths, so they fill the shared table with
+ * positions the main thread will need soon. When the main thread is done, the
+ * helpers are stopped and the deepest completed result is returned. Positions
+ * found in the opening book are not searched at all.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public class ParallelSearch {
+    /**
+     * The number of threads unless another one is given: one per processor.
+     */
+    public static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
+
+    private final TranspositionTable table;
+    private final OpeningBook book;
+    private final Search[] searches;
+    private final ExecutorService helpers;
+
+    /**
+     * Creates a parallel search for games of the given mode.
+     *
+     * @param mode The mode of the searched games.
+     * @param timeBudget The time a search may take in milliseconds.
+     * @param threads The number of searching threads, at least one.
+     * @param table The cache of searched positions shared by all threads.
+     */
+    public ParallelSearch(Mode mode, long timeBudget, int threads, TranspositionTable table) {
+        this(mode, timeBudget, Search.MAX_DEPTH, threads, table, null);
+    }
+
+    /**
+     * Creates a parallel search for games of the given mode that looks the
+     * positions up in an opening book before searching them.
+     *
+     * @param mode The mode of the searched games.
+     * @param timeBudget The time a search may take in milliseconds.
+     * @param threads The number of searching threads, at least one.
+     * @param table The cache of searched positions shared by all threads.
+     * @param book The opening book of the mode, or {@code null}.
+     */
+    public ParallelSearch(Mode mode, long timeBudget, int threads, TranspositionTable table, OpeningBook book) {
+        this(mode, timeBudget, Search.MAX_DEPTH, threads, table, book);
+    }
+
+    /**
+     * Creates a parallel search for games of the given mode that stops at the
+     * given depth at the latest.
+     *
+     * @param mode The mode of the searched games.
+     * @param timeBudget The time a search may take in milliseconds.
+     * @param maxDepth The deepest iteration.
+     * @param threads The number of searching threads, at least one.
+     * @param table The cache of searched positions shared by all threads.
+     */
+    public ParallelSearch(Mode mode, long timeBudget, int maxDepth, int threads, TranspositionTable table) {
+        this(mode, timeBudget, maxDepth, threads, table, null);
+    }
+
+    /**
+     * Creates a parallel search for games of the given mode that stops at the
+     * given depth at the latest and looks the positions up in an opening book
+     * before searching them.
+     *
+     * @param mode The mode of the searched games.
+     * @param timeBudget The time a search may take in milliseconds.
+     * @param maxDepth The deepest iteration.
+     * @param threads The number of searching threads, at least one.
+     * @param table The cache of searched positions shared by all threads.
+     * @param book The opening book of the mode, or {@code null}.
+     */
+    public ParallelSearch(Mode mode, long timeBudget, int maxDepth, int threads, TranspositionTable table,
+            OpeningBook book) {
+        this.table = table;
+        this.book = book;
+        searches = new Search[Math.max(threads, 1)];
+        for (int i = 0; i < searches.length; i++) {
+            searches[i] = new Search(mode, timeBudget, maxDepth, table);
+        }
+        helpers = searches.length == 1 ? null : Executors.newFixedThreadPool(searches.length - 1, runnable -> {
+            Thread thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Searches the best move of the active player of a running game with all the
+     * threads. The game itself is not changed.
+     *
+     * @param position The running game.
+     * @return The book's move, or else the deepest result found within the time
+     *         budget, its nodes being the nodes searched by all threads.
+     */
+    public SearchResult search(ConnectFourGame position) {
+        if (book != null) {
+            SearchResult known = book.probe(position);
+            if (known != null)
+                return known;
+        }
+        long start = System.nanoTime();
+        table.nextGeneration();
+        for (Search search : searches) {
+            search.restart();
+        }
+        List<Future<SearchResult>> futures = new ArrayList<>(searches.length - 1);
+        for (int i = 1; i < searches.length; i++) {
+            Search helper = searches[i];
+            ConnectFourGame copy = new ConnectFourGame(position);
+            int firstDepth = 1 + i % 2;
+            futures.add(helpers.submit(() -> helper.search(copy, firstDepth)));
+        }
+        SearchResult best = searches[0].search(position, 1);
+        long nodes = best.getNodes();
+        for (int i = 1; i < searches.length; i++) {
+            searches[i].stop();
+        }
+        for (Future<SearchResult> future : futures) {
+            SearchResult result = await(future);
+            nodes += result.getNodes();
+            if (result.getDepth() > best.getDepth())
+                best = result;
+        }
+        return new SearchResult(best.getMove(), best.getScore(), best.getDepth(), nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * @return The number of searching threads.
+     */
+    public int getThreads() {
+        return searches.length;
+    }
+
+    /**
+     * @return The cache of searched positions shared by all threads.
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Stops the helper threads. The search cannot be used afterwards.
+     */
+    public void shutdown() {
+        if (helpers != null)
+            helpers.shutdownNow();
+    }
+
+    /**
+     * Waits for the result of a helper thread.
+     *
+     * @param future The helper's pending result.
+     * @return The helper's result.
+     */
+    private static SearchResult await(Future<SearchResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package edu.kit.informatik.engine;
+
+import edu.kit.informatik.Move;
+
+/**
+ * The result of a Monte Carlo tree search: the most visited move, how often it
+ * led to a win and how many random games were played to find it.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public class PlayoutResult {
+    private static final long NANOSECONDS_PER_SECOND = 1_000_000_000L;
+    private static final int PERMILLE = 1000;
+
+    private final int move;
+    private final double winRate;
+    private final long playouts;
+    private final long time;
+
+    /**
+     * Creates the result of a Monte Carlo tree search.
+     *
+     * @param move The most visited move as encoded by {@link Move}.
+     * @param winRate The share of the move's playouts won by the player making it,
+     *            a draw counting half.
+     * @param playouts The number of played random games.
+     * @param time The time the search took in nanoseconds.
+     */
+    public PlayoutResult(int move, double winRate, long playouts, long time) {
+        this.move = move;
+        this.winRate = winRate;
+        this.playouts = playouts;
+        this.time = time;
+    }
+
+    /**
+     * @return The most visited move as encoded by {@link Move}.
+     */
+    public int getMove() {
+        return move;
+    }
+
+    /**
+     * @return The share of the move's playouts won by the player making it.
+     */
+    public double getWinRate() {
+        return winRate;
+    }
+
+    /**
+     * @return The number of played random games.
+     */
+    public long getPlayouts() {
+        return playouts;
+    }
+
+    /**
+     * @return The time the search took in nanoseconds.
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return The number of played random games per second.
+     */
+    public long getPlayoutsPerSecond() {
+        return time == 0 ? 0 : (long) ((double) playouts * NANOSECONDS_PER_SECOND / time);
+    }
+
+    @Override
+    public String toString() {
+        return Move.toString(move) + " (" + getPlayoutsPerSecond() + " playouts/s, " + playouts + " playouts, win rate "
+                + Math.round(winRate * PERMILLE) / (double) PERMILLE + ")";
+    }
+}
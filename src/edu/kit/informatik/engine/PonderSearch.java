@@ -0,0 +1,151 @@
+package edu.kit.informatik.engine;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import edu.kit.informatik.ConnectFourGame;
+import edu.kit.informatik.GameState;
+import edu.kit.informatik.Mode;
+import edu.kit.informatik.Move;
+import edu.kit.informatik.exceptions.IllegalCommandException;
+
+/**
+ * Searches on a background thread while the rival of the engine thinks about
+ * their move. The search predicts the rival's move from the principal variation
+ * of the engine's last search, i.e. the best move cached for the rival's
+ * position in the transposition table, and searches the position after it
+ * without a time limit until it is stopped. If the rival makes the predicted
+ * move, the engine can reply with the result at once; otherwise the searched
+ * positions are still cached in the shared table. Without a predicted move the
+ * rival's position itself is searched, which caches the positions after all of
+ * the rival's moves.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public class PonderSearch {
+    private static final long UNLIMITED_TIME = Long.MAX_VALUE / 2_000_000L;
+
+    private final Mode mode;
+    private final TranspositionTable table;
+    private final Search search;
+    private final int[] moves = new int[Move.MOVES_NUMBER];
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ponder");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<SearchResult> pondering;
+    private long ponderedHash;
+    private SearchResult result;
+
+    /**
+     * Creates a ponder search for games of the given mode.
+     *
+     * @param mode The mode of the searched games.
+     * @param table The cache of searched positions shared with the engine.
+     */
+    public PonderSearch(Mode mode, TranspositionTable table) {
+        this.mode = mode;
+        this.table = table;
+        search = new Search(mode, UNLIMITED_TIME, table);
+    }
+
+    /**
+     * Starts pondering the rival's position after a move of the engine. The game
+     * itself is not changed. A previous pondering is stopped first.
+     *
+     * @param position The running game with the rival to move.
+     */
+    public void start(ConnectFourGame position) {
+        stop();
+        result = null;
+        ConnectFourGame pondered = new ConnectFourGame(position);
+        int predicted = predictedMove(pondered);
+        if (predicted >= 0) {
+            try {
+                pondered.makeMove(predicted);
+            } catch (IllegalCommandException e) {
+                // The predicted move was generated in this position.
+                throw new IllegalStateException(e);
+            }
+            if (pondered.getGameState() != GameState.RUNNING)
+                return;
+        }
+        ponderedHash = pondered.getHash();
+        // Restarted here rather than by the worker, so that a stop coming before
+        // the worker begins is not lost.
+        search.restart();
+        pondering = worker.submit(() -> search.search(pondered, 1));
+    }
+
+    /**
+     * Stops pondering cooperatively and waits until the background search has
+     * returned the best move of its last completed iteration.
+     */
+    public void stop() {
+        if (pondering == null)
+            return;
+        search.stop();
+        try {
+            result = pondering.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result = null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pondering = null;
+        }
+    }
+
+    /**
+     * Takes the result of the stopped pondering if it searched the given position,
+     * i.e. if the rival has made the predicted move. The result is only taken
+     * once.
+     *
+     * @param position The current position of the game.
+     * @return The result of pondering the position, its time being the time spent
+     *         pondering, or {@code null} if another position was pondered.
+     */
+    public SearchResult take(ConnectFourGame position) {
+        stop();
+        SearchResult taken = result;
+        result = null;
+        if (taken == null || ponderedHash != position.getHash() || taken.getDepth() == 0)
+            return null;
+        return taken;
+    }
+
+    /**
+     * Stops the background thread. The ponder search cannot be used afterwards.
+     */
+    public void shutdown() {
+        search.stop();
+        worker.shutdownNow();
+    }
+
+    /**
+     * @param position The rival's position.
+     * @return The rival's move of the principal variation of the engine's last
+     *         search, or {@code -1} if none is cached or it is not possible.
+     */
+    private int predictedMove(ConnectFourGame position) {
+        long entry = table.probe(position.getCanonicalHash());
+        if (entry == 0 || TranspositionTable.getMove(entry) == TranspositionTable.NO_MOVE)
+            return -1;
+        int move = TranspositionTable.getMove(entry);
+        if (position.isMirrored())
+            move = Move.mirror(move);
+        // Another position with the same hash may have stored the move, so it is
+        // only predicted if it is possible here.
+        int number = position.generateMoves(mode, moves);
+        for (int i = 0; i < number; i++) {
+            if (moves[i] == move)
+                return move;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,83 @@
+package edu.kit.informatik.engine;
+
+import edu.kit.informatik.Move;
+
+/**
+ * The result of a proof-number search: the proven outcome, the winning move if
+ * there is one and how much work the search has done to prove it.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public class ProofResult {
+    /**
+     * The move of a result without a winning move.
+     */
+    public static final int NO_MOVE = -1;
+
+    private static final long NANOSECONDS_PER_SECOND = 1_000_000_000L;
+
+    private final Outcome outcome;
+    private final int move;
+    private final long nodes;
+    private final long time;
+
+    /**
+     * Creates the result of a proof-number search.
+     *
+     * @param outcome The proven outcome for the active player.
+     * @param move The winning move as encoded by {@link Move}, or {@link #NO_MOVE}.
+     * @param nodes The number of expanded positions.
+     * @param time The time the search took in nanoseconds.
+     */
+    public ProofResult(Outcome outcome, int move, long nodes, long time) {
+        this.outcome = outcome;
+        this.move = move;
+        this.nodes = nodes;
+        this.time = time;
+    }
+
+    /**
+     * @return The proven outcome for the active player.
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return The winning move as encoded by {@link Move}, or {@link #NO_MOVE} if
+     *         no win was proven.
+     */
+    public int getMove() {
+        return move;
+    }
+
+    /**
+     * @return The number of expanded positions.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return The time the search took in nanoseconds.
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return The number of expanded positions per second.
+     */
+    public long getNodesPerSecond() {
+        return time == 0 ? 0 : (long) ((double) nodes * NANOSECONDS_PER_SECOND / time);
+    }
+
+    @Override
+    public String toString() {
+        String result = outcome.toString().toLowerCase();
+        if (move != NO_MOVE)
+            result += " by " + Move.toString(move);
+        return result + " (" + nodes + " nodes, " + getNodesPerSecond() + " nodes/s)";
+    }
+}
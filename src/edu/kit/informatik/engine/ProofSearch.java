@@ -0,0 +1,325 @@
+package edu.kit.informatik.engine;
+
+import java.util.Locale;
+
+import edu.kit.informatik.Cell;
+import edu.kit.informatik.ConnectFourGame;
+import edu.kit.informatik.GameState;
+import edu.kit.informatik.Mode;
+import edu.kit.informatik.Move;
+import edu.kit.informatik.Player;
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.archive.GameRecord;
+import edu.kit.informatik.exceptions.IllegalCommandException;
+
+/**
+ * Proves the outcome of positions of the remove mode by a depth-first
+ * proof-number search (df-pn). Unlike the alpha-beta search it has no depth
+ * limit, it follows the moves that are the cheapest to prove or disprove until
+ * the game ends, so it copes with the long games removing tokens causes.
+ *
+ * <p>The search proves whether one player, the attacker, can force a win. Every
+ * position has a proof number, the least number of positions that must still be
+ * proven for a win, and a disproof number, the least number that must be proven
+ * for the defender. The search works on the most proving child while both
+ * numbers stay below thresholds and caches the numbers in a {@link ProofTable}
+ * of bounded memory. To tell a loss from a draw, a position that is no win is
+ * searched again with the rival as attacker.
+ *
+ * <p>Only the remove mode is searched: a throwin uses up a token and a remove
+ * takes one from the board, so no position can repeat and the positions form a
+ * graph without cycles. The flip of the other modes could repeat positions.
+ *
+ * <p>To label a position offline: {@code ProofSearch <mode> <tokens> <moves>
+ * [nodes]}, the moves leading to the position being commands separated by
+ * commas, e.g. {@code "throwin 3,throwin 4,remove 3"}, and the node budget being
+ * {@value #DEFAULT_NODE_BUDGET} unless another one is given.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public class ProofSearch {
+    /**
+     * The number of positions a search may expand unless another one is given.
+     */
+    public static final long DEFAULT_NODE_BUDGET = 10_000_000L;
+    /**
+     * The size of the proof table unless another one is given, in megabytes.
+     */
+    public static final int DEFAULT_SIZE = 64;
+
+    /**
+     * The proof or disproof number of a proven position.
+     */
+    private static final int INFINITY = 1 << 30;
+    /**
+     * The largest proof or disproof number of a position that is not proven.
+     */
+    private static final int LIMIT = INFINITY - 1;
+    private static final int UNSOLVED = -1;
+    /**
+     * The most moves a game can last: every token is thrown in and removed again.
+     */
+    private static final int MAX_PLY = 4 * ConnectFourGame.MAXIMUM_TOKENS_NUMBER + 1;
+
+    private final long nodeBudget;
+    private final ProofTable table;
+    private final int[][] moves = new int[MAX_PLY][Move.MOVES_NUMBER];
+    private final long[][] childKeys = new long[MAX_PLY][Move.MOVES_NUMBER];
+    // The proof numbers of the children that are finished games, UNSOLVED for the
+    // running ones.
+    private final int[][] childProofs = new int[MAX_PLY][Move.MOVES_NUMBER];
+    private ConnectFourGame game;
+    private Cell attacker;
+    private long nodes;
+    private boolean stopped;
+
+    /**
+     * Creates a proof-number search.
+     *
+     * @param nodeBudget The number of positions a search may expand.
+     * @param megabytes The size of the proof table in megabytes.
+     */
+    public ProofSearch(long nodeBudget, int megabytes) {
+        this.nodeBudget = nodeBudget;
+        table = new ProofTable(megabytes);
+    }
+
+    /**
+     * Proves the outcome of a position and prints the {@link ProofResult}.
+     *
+     * @param args The mode, the tokens number, the moves leading to the position
+     *            and optionally the node budget.
+     */
+    public static void main(String[] args) {
+        if (args.length != 3 && args.length != 4) {
+            Terminal.printError("the arguments must be '<mode> <tokens> <moves> [nodes]'.");
+            return;
+        }
+        Mode mode = Mode.valueOf(args[0].toUpperCase(Locale.ROOT));
+        if (mode != Mode.REMOVE) {
+            Terminal.printError("only positions of the remove mode can be proven.");
+            return;
+        }
+        int tokensNumber = Integer.parseInt(args[1]);
+        ConnectFourGame game = new ConnectFourGame(new Player(Cell.P1, tokensNumber),
+                new Player(Cell.P2, tokensNumber));
+        for (String command : args[2].isEmpty() ? new String[0] : args[2].split(",")) {
+            String trimmed = command.trim();
+            int move = Move.parse(trimmed);
+            if (move < 0 || !GameRecord.allows(mode, game, move)) {
+                Terminal.printError("'" + trimmed + "' is not possible in this position.");
+                return;
+            }
+            try {
+                game.makeMove(move);
+            } catch (IllegalCommandException e) {
+                Terminal.printError("'" + trimmed + "' is not possible: " + e.getMessage());
+                return;
+            }
+        }
+        if (game.getGameState() != GameState.RUNNING) {
+            Terminal.printError("the game is already finished.");
+            return;
+        }
+        long nodeBudget = args.length == 4 ? Long.parseLong(args[3]) : DEFAULT_NODE_BUDGET;
+        Terminal.printLine(new ProofSearch(nodeBudget, DEFAULT_SIZE).solve(game));
+    }
+
+    /**
+     * Proves the outcome of a running game of the remove mode for its active
+     * player. The game itself is not changed.
+     *
+     * @param position The running game.
+     * @return The proven outcome, {@link Outcome#UNKNOWN} if the node budget was
+     *         used up.
+     */
+    public ProofResult solve(ConnectFourGame position) {
+        if (position.getGameState() != GameState.RUNNING)
+            throw new IllegalStateException("the game is already finished.");
+        long start = System.nanoTime();
+        game = new ConnectFourGame(position);
+        nodes = 0;
+        stopped = false;
+        Cell player = game.getCurrentPlayer().getLabel();
+        Outcome outcome = Outcome.UNKNOWN;
+        int move = ProofResult.NO_MOVE;
+        if (prove(player)) {
+            outcome = Outcome.WIN;
+            move = winningMove();
+        } else if (!stopped) {
+            game.nextPlayer();
+            Cell rival = game.getCurrentPlayer().getLabel();
+            game.nextPlayer();
+            if (prove(rival))
+                outcome = Outcome.LOSS;
+            else if (!stopped)
+                outcome = Outcome.DRAW;
+        }
+        return new ProofResult(outcome, move, nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * @return The number of positions expanded by the last search.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Searches the root position until it is proven, disproven or the node budget
+     * is used up.
+     *
+     * @param player The attacker.
+     * @return {@code true} If the attacker can force a win.
+     */
+    private boolean prove(Cell player) {
+        attacker = player;
+        table.clear();
+        long numbers = search(INFINITY, INFINITY, 0);
+        return !stopped && ProofTable.getProof(numbers) == 0;
+    }
+
+    /**
+     * Expands the current position of the game until its proof number reaches
+     * the proof threshold or its disproof number the disproof threshold.
+     *
+     * @param proofThreshold The proof threshold.
+     * @param disproofThreshold The disproof threshold.
+     * @param ply The number of moves played since the root position.
+     * @return The proof and disproof numbers packed like in the proof table.
+     */
+    private long search(int proofThreshold, int disproofThreshold, int ply) {
+        long first = nodes++;
+        if (nodes > nodeBudget)
+            stopped = true;
+        boolean attacking = game.getCurrentPlayer().getLabel() == attacker;
+        int[] candidates = moves[ply];
+        long[] keys = childKeys[ply];
+        int[] proofs = childProofs[ply];
+        int number = game.generateMoves(Mode.REMOVE, candidates);
+        for (int i = 0; i < number; i++) {
+            play(candidates[i]);
+            keys[i] = game.getCanonicalHash();
+            proofs[i] = game.getGameState() == GameState.RUNNING ? UNSOLVED : terminalProof();
+            game.unmakeMove();
+        }
+        long key = game.getCanonicalHash();
+        while (true) {
+            // The proof and disproof numbers of the position, the most proving child
+            // and the second best number of the kind the active player chooses by.
+            int proof = attacking ? INFINITY : 0;
+            int disproof = attacking ? 0 : INFINITY;
+            int best = 0;
+            int bestNumber = INFINITY;
+            int secondNumber = INFINITY;
+            int bestOther = 0;
+            for (int i = 0; i < number; i++) {
+                long child = childNumbers(keys[i], proofs[i]);
+                int childProof = ProofTable.getProof(child);
+                int childDisproof = ProofTable.getDisproof(child);
+                if (attacking) {
+                    proof = Math.min(proof, childProof);
+                    disproof = add(disproof, childDisproof);
+                } else {
+                    proof = add(proof, childProof);
+                    disproof = Math.min(disproof, childDisproof);
+                }
+                int chosenBy = attacking ? childProof : childDisproof;
+                if (chosenBy < bestNumber) {
+                    secondNumber = bestNumber;
+                    bestNumber = chosenBy;
+                    best = i;
+                    bestOther = attacking ? childDisproof : childProof;
+                } else if (chosenBy < secondNumber) {
+                    secondNumber = chosenBy;
+                }
+            }
+            if (proof >= proofThreshold || disproof >= disproofThreshold || stopped) {
+                table.store(key, proof, disproof, nodes - first);
+                return (long) proof << Integer.SIZE | disproof;
+            }
+            int childProofThreshold;
+            int childDisproofThreshold;
+            if (attacking) {
+                childProofThreshold = Math.min(proofThreshold, secondNumber + 1);
+                childDisproofThreshold = disproofThreshold - disproof + bestOther;
+            } else {
+                childProofThreshold = proofThreshold - proof + bestOther;
+                childDisproofThreshold = Math.min(disproofThreshold, secondNumber + 1);
+            }
+            play(candidates[best]);
+            search(childProofThreshold, childDisproofThreshold, ply + 1);
+            game.unmakeMove();
+        }
+    }
+
+    /**
+     * @param key The hash of a child position.
+     * @param proof The proof number of the child if it is a finished game,
+     *            {@link #UNSOLVED} otherwise.
+     * @return The proof and disproof numbers of the child packed like in the proof
+     *         table.
+     */
+    private long childNumbers(long key, int proof) {
+        if (proof != UNSOLVED)
+            return (long) proof << Integer.SIZE | (INFINITY - proof);
+        long numbers = table.probe(key);
+        return numbers == ProofTable.MISSING ? 1L << Integer.SIZE | 1 : numbers;
+    }
+
+    /**
+     * @return The proof number of the finished game: {@code 0} if the attacker has
+     *         won, infinite if the game is drawn or lost.
+     */
+    private int terminalProof() {
+        if (game.getGameState() == GameState.WON && game.getWinner().getLabel() == attacker)
+            return 0;
+        return INFINITY;
+    }
+
+    /**
+     * @return The move of the proven root position leading to a proven child.
+     */
+    private int winningMove() {
+        int number = game.generateMoves(Mode.REMOVE, moves[0]);
+        for (int i = 0; i < number; i++) {
+            play(moves[0][i]);
+            boolean proven = game.getGameState() == GameState.RUNNING
+                    ? ProofTable.getProof(childNumbers(game.getCanonicalHash(), UNSOLVED)) == 0
+                    : terminalProof() == 0;
+            game.unmakeMove();
+            if (proven)
+                return moves[0][i];
+        }
+        return ProofResult.NO_MOVE;
+    }
+
+    /**
+     * Adds two proof or disproof numbers. The sum of an infinite number is
+     * infinite, other sums stay below infinity.
+     *
+     * @param number A number.
+     * @param other Another number.
+     * @return The sum.
+     */
+    private static int add(int number, int other) {
+        if (number >= INFINITY || other >= INFINITY)
+            return INFINITY;
+        return Math.min(number + other, LIMIT);
+    }
+
+    /**
+     * Makes a generated move on the searched game.
+     *
+     * @param move The move.
+     */
+    private void play(int move) {
+        try {
+            game.makeMove(move);
+        } catch (IllegalCommandException e) {
+            // Only generated moves are played, they are always possible.
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package edu.kit.informatik.engine;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size cache of the proof and disproof numbers of positions, keyed by
+ * their canonical hash, so a position and its mirror image share an entry.
+ * Every bucket holds two entries. A new position replaces
+ * the entry whose subtree took less work to search, so proofs that were
+ * expensive to find stay cached when the table is full.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+class ProofTable {
+    /**
+     * The value of {@link #probe(long)} for a position that is not cached.
+     */
+    static final long MISSING = -1;
+
+    private static final int BYTES_PER_ENTRY = 2 * Long.BYTES + Integer.BYTES;
+    private static final int BYTES_PER_MEGABYTE = 1 << 20;
+    private static final long MAX_ENTRIES = 1L << 29;
+    private static final long NUMBER_MASK = 0xFFFFFFFFL;
+
+    private final long[] keys;
+    private final long[] numbers;
+    private final int[] works;
+    private final int mask;
+
+    /**
+     * Creates an empty table using at most the given memory.
+     *
+     * @param megabytes The memory of the table in megabytes, at least one.
+     */
+    ProofTable(int megabytes) {
+        long entries = Long.highestOneBit((long) Math.max(megabytes, 1) * BYTES_PER_MEGABYTE / BYTES_PER_ENTRY);
+        entries = Math.min(entries, MAX_ENTRIES);
+        keys = new long[(int) entries];
+        numbers = new long[(int) entries];
+        works = new int[(int) entries];
+        mask = (int) entries - 2;
+    }
+
+    /**
+     * Looks a position up.
+     *
+     * @param key The hash of the position.
+     * @return The proof number in the upper and the disproof number in the lower
+     *         half, or {@link #MISSING}.
+     */
+    long probe(long key) {
+        int entry = (int) key & mask;
+        if (keys[entry] == key && works[entry] != 0)
+            return numbers[entry];
+        if (keys[entry + 1] == key && works[entry + 1] != 0)
+            return numbers[entry + 1];
+        return MISSING;
+    }
+
+    /**
+     * Caches the proof and disproof numbers of a position.
+     *
+     * @param key The hash of the position.
+     * @param proof The proof number.
+     * @param disproof The disproof number.
+     * @param work The number of positions expanded to find the numbers, at least
+     *            one.
+     */
+    void store(long key, int proof, int disproof, long work) {
+        int entry = (int) key & mask;
+        if (keys[entry + 1] == key || keys[entry] != key && works[entry + 1] < works[entry])
+            entry++;
+        keys[entry] = key;
+        numbers[entry] = (long) proof << Integer.SIZE | disproof;
+        works[entry] = (int) Math.min(work, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Empties the table.
+     */
+    void clear() {
+        Arrays.fill(works, 0);
+    }
+
+    /**
+     * @param numbers The numbers returned by {@link #probe(long)}.
+     * @return The proof number.
+     */
+    static int getProof(long numbers) {
+        return (int) (numbers >>> Integer.SIZE);
+    }
+
+    /**
+     * @param numbers The numbers returned by {@link #probe(long)}.
+     * @return The disproof number.
+     */
+    static int getDisproof(long numbers) {
+        return (int) (numbers & NUMBER_MASK);
+    }
+}
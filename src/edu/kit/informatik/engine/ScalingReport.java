@@ -0,0 +1,99 @@
+package edu.kit.informatik.engine;
+
+import java.util.Locale;
+
+import edu.kit.informatik.Cell;
+import edu.kit.informatik.ConnectFourGame;
+import edu.kit.informatik.Mode;
+import edu.kit.informatik.Move;
+import edu.kit.informatik.Player;
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.exceptions.IllegalCommandException;
+
+/**
+ * Measures how the parallel search scales with the number of threads. For 1, 2,
+ * 4, 8 and 16 threads it searches some positions of every mode to a fixed depth
+ * with an empty transposition table and prints the time to reach the depth, the
+ * nodes per second and the speedup compared to one thread. Every mode is
+ * measured once before, so that the compiled code is measured.
+ *
+ * <p>Usage: {@code ScalingReport [depth] [megabytes]}
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public final class ScalingReport {
+    private static final int[] THREADS = {1, 2, 4, 8, 16 };
+    private static final int DEFAULT_DEPTH = 10;
+    private static final long UNLIMITED_TIME = Long.MAX_VALUE / 2_000_000L;
+    private static final long NANOSECONDS_PER_MILLISECOND = 1_000_000L;
+    private static final int TOKENS_NUMBER = 30;
+    /**
+     * The moves leading to the measured positions, starting from an empty board.
+     */
+    private static final int[][] OPENINGS = {{}, {3, 4, 3, 4 }, {3, 3, 4, 2, 5, 5, 2 } };
+
+    /**
+     * Private constructor to avoid object generation.
+     */
+    private ScalingReport() {
+        throw new AssertionError("Utility class constructor.");
+    }
+
+    /**
+     * Runs the measurement and prints the report.
+     *
+     * @param args The optional depth and size of the transposition table in
+     *            megabytes.
+     * @throws IllegalCommandException If an opening move is not possible.
+     */
+    public static void main(String[] args) throws IllegalCommandException {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+        int megabytes = args.length > 1 ? Integer.parseInt(args[1]) : TranspositionTable.DEFAULT_SIZE;
+        Terminal.printLine("processors: " + Runtime.getRuntime().availableProcessors() + ", depth: " + depth);
+        for (Mode mode : Mode.values()) {
+            measure(mode, depth, 1, megabytes);
+            long singleTime = 0;
+            for (int threads : THREADS) {
+                long[] measured = measure(mode, depth, threads, megabytes);
+                long time = measured[0];
+                long nodes = measured[1];
+                if (threads == 1)
+                    singleTime = time;
+                Terminal.printLine(String.format(Locale.ROOT,
+                        "%-8s threads %2d: time to depth %6d ms, %10d nodes/s, speedup %.2f", mode, threads,
+                        time / NANOSECONDS_PER_MILLISECOND, (long) ((double) nodes * 1e9 / time),
+                        (double) singleTime / time));
+            }
+        }
+    }
+
+    /**
+     * Searches all the measured positions.
+     *
+     * @param mode The mode of the searched games.
+     * @param depth The depth to be reached.
+     * @param threads The number of searching threads.
+     * @param megabytes The size of the transposition table.
+     * @return The total time in nanoseconds and the total nodes.
+     * @throws IllegalCommandException If an opening move is not possible.
+     */
+    private static long[] measure(Mode mode, int depth, int threads, int megabytes) throws IllegalCommandException {
+        long time = 0;
+        long nodes = 0;
+        for (int[] opening : OPENINGS) {
+            ConnectFourGame game = new ConnectFourGame(new Player(Cell.P1, TOKENS_NUMBER),
+                    new Player(Cell.P2, TOKENS_NUMBER));
+            for (int move : opening) {
+                game.makeMove(Move.throwin(move));
+            }
+            ParallelSearch search = new ParallelSearch(mode, UNLIMITED_TIME, depth, threads,
+                    new TranspositionTable(megabytes));
+            SearchResult result = search.search(game);
+            search.shutdown();
+            time += result.getTime();
+            nodes += result.getNodes();
+        }
+        return new long[] {time, nodes };
+    }
+}
@@ -0,0 +1,380 @@
+package edu.kit.informatik.engine;
+
+import edu.kit.informatik.ConnectFourGame;
+import edu.kit.informatik.GameState;
+import edu.kit.informatik.Mode;
+import edu.kit.informatik.Move;
+import edu.kit.informatik.exceptions.IllegalCommandException;
+
+/**
+ * Searches the best move of the active player by a negamax alpha-beta search.
+ * The search deepens iteratively, one ply per iteration, until the time budget
+ * is used up, and plays the moves on a copy of the game using
+ * {@link ConnectFourGame#makeMove(int)} and {@link ConnectFourGame#unmakeMove()}.
+ * Only the moves the mode allows are searched, and the game state decides when
+ * a position is won or drawn, so the token limits are respected as well. The
+ * results of searched positions are cached in a transposition table, since many
+ * move orders lead to the same position. A position and its mirror image share
+ * one entry under their canonical hash, the cached move being mirrored back if
+ * needed, see {@link ConnectFourGame#getCanonicalHash()}. Several searches can share one table,
+ * see {@link ParallelSearch}.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public class Search {
+    /**
+     * The time budget of a search in milliseconds unless another one is given.
+     */
+    public static final long DEFAULT_TIME_BUDGET = 1000;
+    /**
+     * The score of a won position, reduced by the number of moves leading to it so
+     * that faster wins are preferred.
+     */
+    public static final int WIN_SCORE = 1_000_000;
+    /**
+     * The deepest possible iteration.
+     */
+    public static final int MAX_DEPTH = 64;
+    private static final int INFINITY = WIN_SCORE + 1;
+    /**
+     * Scores beyond this one are wins or losses, whose distance to the searched
+     * position must be corrected when they are cached.
+     */
+    private static final int WIN_BOUND = WIN_SCORE - 2 * MAX_DEPTH;
+    /**
+     * The number of positions searched between two looks at the clock.
+     */
+    private static final int CHECK_INTERVAL = 1 << 12;
+    private static final long NANOSECONDS_PER_MILLISECOND = 1_000_000L;
+    /**
+     * The order in which moves are searched, lower values first: throwins from the
+     * center to the borders, then the flip, then the removes.
+     */
+    private static final int[] PRIORITIES = new int[Move.MOVES_NUMBER];
+
+    static {
+        int center = ConnectFourGame.BOARD_DIMENSION / 2;
+        for (int column = 0; column < ConnectFourGame.BOARD_DIMENSION; column++) {
+            int distance = column < center ? 2 * (center - column) - 1 : 2 * (column - center);
+            PRIORITIES[Move.throwin(column)] = distance;
+            PRIORITIES[Move.remove(column)] = ConnectFourGame.BOARD_DIMENSION + 1 + distance;
+        }
+        PRIORITIES[Move.FLIP] = ConnectFourGame.BOARD_DIMENSION;
+    }
+
+    private final Mode mode;
+    private final long timeBudget;
+    private final int maxDepth;
+    private final TranspositionTable table;
+    private final int[][] moves = new int[MAX_DEPTH + 1][Move.MOVES_NUMBER];
+    private ConnectFourGame game;
+    private long nodes;
+    private long deadline;
+    private volatile boolean stopped;
+
+    /**
+     * Creates a search for games of the given mode.
+     *
+     * @param mode The mode of the searched games.
+     * @param timeBudget The time a search may take in milliseconds.
+     * @param table The cache of searched positions, kept between searches.
+     */
+    public Search(Mode mode, long timeBudget, TranspositionTable table) {
+        this(mode, timeBudget, MAX_DEPTH, table);
+    }
+
+    /**
+     * Creates a search for games of the given mode that stops at the given depth
+     * at the latest.
+     *
+     * @param mode The mode of the searched games.
+     * @param timeBudget The time a search may take in milliseconds.
+     * @param maxDepth The deepest iteration, at most {@link #MAX_DEPTH}.
+     * @param table The cache of searched positions, kept between searches.
+     */
+    public Search(Mode mode, long timeBudget, int maxDepth, TranspositionTable table) {
+        this.mode = mode;
+        this.timeBudget = timeBudget;
+        this.maxDepth = Math.min(maxDepth, MAX_DEPTH);
+        this.table = table;
+    }
+
+    /**
+     * Searches the best move of the active player of a running game. The game
+     * itself is not changed.
+     *
+     * @param position The running game.
+     * @return The best move found within the time budget.
+     */
+    public SearchResult search(ConnectFourGame position) {
+        table.nextGeneration();
+        restart();
+        return search(position, 1);
+    }
+
+    /**
+     * Stops the running search as soon as possible. It returns the best move of
+     * the last completed iteration.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Allows a stopped search to run again.
+     */
+    void restart() {
+        stopped = false;
+    }
+
+    /**
+     * @return The number of positions searched by the last search.
+     */
+    long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Searches the best move of the active player of a running game, beginning
+     * with the given depth. The search must have been restarted before.
+     *
+     * @param position The running game.
+     * @param firstDepth The depth of the first iteration.
+     * @return The best move found within the time budget.
+     */
+    SearchResult search(ConnectFourGame position, int firstDepth) {
+        long start = System.nanoTime();
+        game = new ConnectFourGame(position);
+        nodes = 0;
+        deadline = start + timeBudget * NANOSECONDS_PER_MILLISECOND;
+        int[] rootMoves = moves[0];
+        int number = game.generateMoves(mode, rootMoves);
+        if (number == 0)
+            throw new IllegalStateException("the game is already finished.");
+        order(rootMoves, number, hashMove(table.probe(game.getCanonicalHash())));
+        int bestMove = rootMoves[0];
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (int depth = Math.min(firstDepth, maxDepth); depth <= maxDepth; depth++) {
+            order(rootMoves, number, bestMove);
+            int alpha = -INFINITY;
+            int iterationMove = bestMove;
+            for (int i = 0; i < number && !stopped; i++) {
+                play(rootMoves[i]);
+                int score = -negamax(depth - 1, -INFINITY, -alpha, 1);
+                game.unmakeMove();
+                if (!stopped && score > alpha) {
+                    alpha = score;
+                    iterationMove = rootMoves[i];
+                }
+            }
+            if (stopped)
+                break;
+            bestMove = iterationMove;
+            bestScore = alpha;
+            completedDepth = depth;
+            table.store(game.getCanonicalHash(), canonicalMove(bestMove), depth, TranspositionTable.EXACT, bestScore);
+            if (Math.abs(bestScore) > WIN_SCORE - MAX_DEPTH)
+                break;
+        }
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Scores one move of the active player of a running game by searching the
+     * position after it with a full window, deepening iteratively until the
+     * deadline. The search must have been restarted before.
+     *
+     * @param position The running game.
+     * @param move A possible move.
+     * @param deadline The {@link System#nanoTime()} at which the search stops.
+     * @return The move with the score of the last completed iteration for the
+     *         player making it, its depth counting the move itself.
+     */
+    SearchResult searchMove(ConnectFourGame position, int move, long deadline) {
+        long start = System.nanoTime();
+        game = new ConnectFourGame(position);
+        nodes = 0;
+        this.deadline = deadline;
+        play(move);
+        int score = 0;
+        int completedDepth = 0;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int iterationScore = -negamax(depth - 1, -INFINITY, INFINITY, 1);
+            if (stopped)
+                break;
+            score = iterationScore;
+            completedDepth = depth;
+            if (game.getGameState() != GameState.RUNNING || Math.abs(score) > WIN_SCORE - MAX_DEPTH)
+                break;
+        }
+        game.unmakeMove();
+        return new SearchResult(move, score, completedDepth, nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Searches the current position of the game.
+     *
+     * @param depth The remaining depth.
+     * @param alpha The score the active player is already sure to reach.
+     * @param beta The score the rival is already sure to reach, negated.
+     * @param ply The number of moves played since the root position.
+     * @return The score of the position for the active player.
+     */
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        nodes++;
+        if ((nodes & (CHECK_INTERVAL - 1)) == 0 && System.nanoTime() > deadline)
+            stopped = true;
+        if (stopped)
+            return 0;
+        if (game.getGameState() != GameState.RUNNING)
+            return terminalScore(ply);
+        if (depth == 0 || ply == MAX_DEPTH)
+            return Evaluation.evaluate(game);
+        long key = game.getCanonicalHash();
+        long entry = table.probe(key);
+        if (entry != 0 && TranspositionTable.getDepth(entry) >= depth) {
+            int score = fromTable(TranspositionTable.getScore(entry), ply);
+            int bound = TranspositionTable.getBound(entry);
+            if (bound == TranspositionTable.EXACT || bound == TranspositionTable.LOWER_BOUND && score >= beta
+                    || bound == TranspositionTable.UPPER_BOUND && score <= alpha)
+                return score;
+        }
+        int[] candidates = moves[ply];
+        int number = game.generateMoves(mode, candidates);
+        order(candidates, number, hashMove(entry));
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = TranspositionTable.NO_MOVE;
+        for (int i = 0; i < number; i++) {
+            play(candidates[i]);
+            int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            game.unmakeMove();
+            if (stopped)
+                return 0;
+            if (score > best) {
+                best = score;
+                bestMove = candidates[i];
+                if (score > alpha)
+                    alpha = score;
+                if (score >= beta)
+                    break;
+            }
+        }
+        int bound = best >= beta ? TranspositionTable.LOWER_BOUND
+                : best <= originalAlpha ? TranspositionTable.UPPER_BOUND : TranspositionTable.EXACT;
+        table.store(key, canonicalMove(bestMove), depth, bound, toTable(best, ply));
+        return best;
+    }
+
+    /**
+     * @param entry The packed data of the current position, or {@code 0}.
+     * @return The cached best move on the current board, or {@code -1} if there is
+     *         none.
+     */
+    private int hashMove(long entry) {
+        if (entry == 0 || TranspositionTable.getMove(entry) == TranspositionTable.NO_MOVE)
+            return -1;
+        return canonicalMove(TranspositionTable.getMove(entry));
+    }
+
+    /**
+     * Translates a move between the current board and the board its canonical
+     * hash belongs to. Mirroring is its own inverse, so this works both ways.
+     *
+     * @param move A move, or {@link TranspositionTable#NO_MOVE}.
+     * @return The move mirrored if the current position is.
+     */
+    private int canonicalMove(int move) {
+        return move != TranspositionTable.NO_MOVE && game.isMirrored() ? Move.mirror(move) : move;
+    }
+
+    /**
+     * Turns the distance of a win or a loss from the root into the distance from
+     * the cached position.
+     *
+     * @param score The score of the position.
+     * @param ply The number of moves played since the root position.
+     * @return The score to be cached.
+     */
+    private static int toTable(int score, int ply) {
+        if (score > WIN_BOUND)
+            return score + ply;
+        if (score < -WIN_BOUND)
+            return score - ply;
+        return score;
+    }
+
+    /**
+     * Turns the distance of a cached win or loss into the distance from the root.
+     *
+     * @param score The cached score.
+     * @param ply The number of moves played since the root position.
+     * @return The score of the position.
+     */
+    private static int fromTable(int score, int ply) {
+        if (score > WIN_BOUND)
+            return score - ply;
+        if (score < -WIN_BOUND)
+            return score + ply;
+        return score;
+    }
+
+    /**
+     * @param ply The number of moves played since the root position.
+     * @return The score of the finished game for the active player.
+     */
+    private int terminalScore(int ply) {
+        if (game.getGameState() == GameState.DRAW)
+            return 0;
+        if (game.getWinner().equals(game.getCurrentPlayer()))
+            return WIN_SCORE - ply;
+        return ply - WIN_SCORE;
+    }
+
+    /**
+     * Makes a generated move on the searched game.
+     *
+     * @param move The move.
+     */
+    private void play(int move) {
+        try {
+            game.makeMove(move);
+        } catch (IllegalCommandException e) {
+            // Only generated moves are played, they are always possible.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Sorts the moves by their priority, the first move being searched first.
+     *
+     * @param candidates The moves.
+     * @param number The number of moves.
+     * @param first The move to be searched before all others, or {@code -1}.
+     */
+    private static void order(int[] candidates, int number, int first) {
+        for (int i = 1; i < number; i++) {
+            int move = candidates[i];
+            int j = i;
+            while (j > 0 && isBefore(move, candidates[j - 1], first)) {
+                candidates[j] = candidates[j - 1];
+                j--;
+            }
+            candidates[j] = move;
+        }
+    }
+
+    /**
+     * @param move A move.
+     * @param other Another move.
+     * @param first The move to be searched before all others, or {@code -1}.
+     * @return {@code true} If the move is searched before the other one.
+     */
+    private static boolean isBefore(int move, int other, int first) {
+        if (other == first)
+            return false;
+        return move == first || PRIORITIES[move] < PRIORITIES[other];
+    }
+}
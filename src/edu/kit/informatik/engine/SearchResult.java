@@ -0,0 +1,85 @@
+package edu.kit.informatik.engine;
+
+import edu.kit.informatik.Move;
+
+/**
+ * The result of a search: the best found move, its score and how much work the
+ * search has done to find it.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public class SearchResult {
+    private static final long NANOSECONDS_PER_SECOND = 1_000_000_000L;
+
+    private final int move;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long time;
+
+    /**
+     * Creates the result of a search.
+     *
+     * @param move The best found move as encoded by {@link Move}.
+     * @param score The score of the move for the player making it.
+     * @param depth The depth of the last completed iteration.
+     * @param nodes The number of searched positions.
+     * @param time The time the search took in nanoseconds.
+     */
+    public SearchResult(int move, int score, int depth, long nodes, long time) {
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.time = time;
+    }
+
+    /**
+     * @return The best found move as encoded by {@link Move}.
+     */
+    public int getMove() {
+        return move;
+    }
+
+    /**
+     * @return The score of the move for the player making it.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return The depth of the last completed iteration.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return The number of searched positions.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return The time the search took in nanoseconds.
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return The number of searched positions per second.
+     */
+    public long getNodesPerSecond() {
+        return time == 0 ? 0 : (long) ((double) nodes * NANOSECONDS_PER_SECOND / time);
+    }
+
+    @Override
+    public String toString() {
+        return Move.toString(move) + " (depth " + depth + ", score " + score + ", " + nodes + " nodes, "
+                + getNodesPerSecond() + " nodes/s)";
+    }
+}
@@ -0,0 +1,222 @@
+package edu.kit.informatik.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size cache of searched positions, keyed by their Zobrist hash. The
+ * table is one {@code long} array of buckets. Every bucket holds two entries of
+ * two {@code long} values each, the key and the packed data: the best move, the
+ * searched depth, the kind of the score's bound, the search generation and the
+ * score itself.
+ *
+ * <p>The first entry of a bucket is depth-preferred: it is only replaced by a
+ * deeper search of another position or by any search of a newer generation. The
+ * second entry is always replaced, so recent positions are cached as well.
+ *
+ * <p>Several searching threads can share one table without locks. The key is
+ * stored combined with the data by an exclusive or, so an entry whose two values
+ * were written by different threads at the same time does not match its key and
+ * is treated as missing.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public class TranspositionTable {
+    /**
+     * The size of a table unless another one is given, in megabytes.
+     */
+    public static final int DEFAULT_SIZE = 16;
+    /**
+     * The bound kind of an empty entry.
+     */
+    public static final int EMPTY = 0;
+    /**
+     * The bound kind of an exact score.
+     */
+    public static final int EXACT = 1;
+    /**
+     * The bound kind of a score that is at least the stored one.
+     */
+    public static final int LOWER_BOUND = 2;
+    /**
+     * The bound kind of a score that is at most the stored one.
+     */
+    public static final int UPPER_BOUND = 3;
+    /**
+     * The move of an entry without a best move.
+     */
+    public static final int NO_MOVE = 31;
+
+    private static final int BUCKET_LONGS = 4;
+    private static final int BYTES_PER_BUCKET = BUCKET_LONGS * Long.BYTES;
+    private static final int BYTES_PER_MEGABYTE = 1 << 20;
+    private static final long MAX_BUCKETS = 1L << 28;
+    private static final int MOVE_BITS = 5;
+    private static final int DEPTH_SHIFT = MOVE_BITS;
+    private static final int DEPTH_BITS = 7;
+    private static final int BOUND_SHIFT = DEPTH_SHIFT + DEPTH_BITS;
+    private static final int BOUND_BITS = 2;
+    private static final int GENERATION_SHIFT = BOUND_SHIFT + BOUND_BITS;
+    private static final int GENERATION_BITS = 8;
+    private static final int SCORE_SHIFT = Integer.SIZE;
+
+    private final long[] table;
+    private final int bucketMask;
+    private volatile int generation;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    /**
+     * Creates an empty table using at most the given memory.
+     *
+     * @param megabytes The memory of the table in megabytes, at least one and at
+     *            most 8192.
+     */
+    public TranspositionTable(int megabytes) {
+        long buckets = Long.highestOneBit((long) Math.max(megabytes, 1) * BYTES_PER_MEGABYTE / BYTES_PER_BUCKET);
+        buckets = Math.min(buckets, MAX_BUCKETS);
+        table = new long[(int) buckets * BUCKET_LONGS];
+        bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * Starts a new search generation, so that the entries of the previous searches
+     * are replaced first.
+     */
+    public void nextGeneration() {
+        generation = (generation + 1) & ((1 << GENERATION_BITS) - 1);
+    }
+
+    /**
+     * Looks a position up.
+     *
+     * @param key The hash of the position.
+     * @return The packed data of the position's entry, or {@code 0} if the
+     *         position is not cached.
+     */
+    public long probe(long key) {
+        int bucket = index(key);
+        for (int entry = bucket; entry < bucket + BUCKET_LONGS; entry += 2) {
+            long data = table[entry + 1];
+            if (data != 0 && (table[entry] ^ data) == key) {
+                hits.increment();
+                return data;
+            }
+        }
+        misses.increment();
+        return 0;
+    }
+
+    /**
+     * Caches the result of searching a position.
+     *
+     * @param key The hash of the position.
+     * @param move The best move found, or {@link #NO_MOVE}.
+     * @param depth The searched depth.
+     * @param bound The kind of the score's bound.
+     * @param score The score.
+     */
+    public void store(long key, int move, int depth, int bound, int score) {
+        long data = move | (long) depth << DEPTH_SHIFT | (long) bound << BOUND_SHIFT
+                | (long) generation << GENERATION_SHIFT | (long) score << SCORE_SHIFT;
+        int entry = index(key);
+        long preferred = table[entry + 1];
+        if ((table[entry] ^ preferred) != key && preferred != 0 && getDepth(preferred) > depth
+                && (int) (preferred >>> GENERATION_SHIFT & ((1 << GENERATION_BITS) - 1)) == generation) {
+            entry += 2;
+        }
+        long replaced = table[entry + 1];
+        if (replaced != 0 && (table[entry] ^ replaced) != key)
+            collisions.increment();
+        table[entry] = key ^ data;
+        table[entry + 1] = data;
+    }
+
+    /**
+     * Empties the table and resets its counters. No search may use the table
+     * meanwhile.
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        hits.reset();
+        misses.reset();
+        collisions.reset();
+    }
+
+    /**
+     * @return The number of looked up positions that were cached.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of looked up positions that were not cached.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The number of stored positions that replaced another cached
+     *         position.
+     */
+    public long getCollisions() {
+        return collisions.sum();
+    }
+
+    /**
+     * @return The number of entries the table can hold.
+     */
+    public int getCapacity() {
+        return table.length / 2;
+    }
+
+    /**
+     * @param data The packed data of an entry.
+     * @return The best move of the entry.
+     */
+    public static int getMove(long data) {
+        return (int) (data & ((1 << MOVE_BITS) - 1));
+    }
+
+    /**
+     * @param data The packed data of an entry.
+     * @return The searched depth of the entry.
+     */
+    public static int getDepth(long data) {
+        return (int) (data >>> DEPTH_SHIFT & ((1 << DEPTH_BITS) - 1));
+    }
+
+    /**
+     * @param data The packed data of an entry.
+     * @return The kind of the entry's score bound.
+     */
+    public static int getBound(long data) {
+        return (int) (data >>> BOUND_SHIFT & ((1 << BOUND_BITS) - 1));
+    }
+
+    /**
+     * @param data The packed data of an entry.
+     * @return The score of the entry.
+     */
+    public static int getScore(long data) {
+        return (int) (data >> SCORE_SHIFT);
+    }
+
+    @Override
+    public String toString() {
+        return getCapacity() + " entries, " + getHits() + " hits, " + getMisses() + " misses, " + getCollisions()
+                + " collisions";
+    }
+
+    /**
+     * @param key The hash of a position.
+     * @return The index of the first value of the position's bucket.
+     */
+    private int index(long key) {
+        return ((int) key & bucketMask) * BUCKET_LONGS;
+    }
+}
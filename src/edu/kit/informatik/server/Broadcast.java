@@ -0,0 +1,255 @@
+package edu.kit.informatik.server;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import edu.kit.informatik.Bitboard;
+import edu.kit.informatik.Cell;
+import edu.kit.informatik.ChannelConsole;
+import edu.kit.informatik.ConnectFourGame;
+import edu.kit.informatik.GameState;
+import edu.kit.informatik.Move;
+
+/**
+ * Sends the moves of a hosted game to its spectators. Instead of the whole board
+ * a spectator receives one short line per move, a delta:
+ * <ul>
+ * <li>{@code 5 throwin 3;6 P1 OK}: the 5th move threw a token of P1 in the cell
+ * 3;6,
+ * <li>{@code 6 remove 3 P2 OK}: the bottom token of column 3 was removed and the
+ * tokens above fell down,
+ * <li>{@code 7 flip P1 OK}: the tokens of every column were turned upside down,
+ * </ul>
+ * followed by the response to the move ({@code OK}, {@code P1 wins} or
+ * {@code draw}). When a spectator starts watching or has missed moves, it
+ * receives the whole board in one line instead, e.g.
+ * {@code 7 board --------/.../---12---} listing the rows from the top with
+ * {@code -} for an empty cell.
+ *
+ * <p>The players only write a packed delta into a ring buffer and the board into
+ * a volatile field, which costs the same for any number of spectators. Every
+ * spectator follows the ring on its own thread with its own cursor and only
+ * blocks itself when its connection is slow. A spectator that has fallen behind
+ * by more than {@link #MAXIMUM_LAG} moves skips them and receives the board
+ * instead, so the missed moves are coalesced into one line and its backlog is
+ * bounded.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+final class Broadcast {
+    /**
+     * The number of moves kept for the spectators, a power of two.
+     */
+    static final int CAPACITY = 64;
+    /**
+     * The number of missed moves beyond which a spectator receives the board.
+     */
+    static final int MAXIMUM_LAG = 8;
+
+    private static final int ROW_SHIFT = 5;
+    private static final int MOVER_SHIFT = 8;
+    private static final int RESULT_SHIFT = 9;
+    private static final int RUNNING = 0;
+    private static final int DRAW = 3;
+    private static final long FIELD_MASK = 0x1F;
+    private static final long ROW_MASK = 0x7;
+    private static final long RESULT_MASK = 0x3;
+    private static final char EMPTY = '-';
+
+    private final long game;
+    private final AtomicLongArray deltas = new AtomicLongArray(CAPACITY);
+    private volatile Frame frame = new Frame(0, 0, 0, RUNNING);
+    private volatile long published;
+    private volatile CountDownLatch next = new CountDownLatch(1);
+    private volatile boolean closed;
+
+    /**
+     * Creates the broadcast of a game.
+     *
+     * @param game The number of the game.
+     */
+    Broadcast(long game) {
+        this.game = game;
+    }
+
+    /**
+     * Publishes the last move of the game. Only one thread at a time may publish.
+     *
+     * @param position The game after the move.
+     * @param mover The label of the player who made the move.
+     */
+    void publish(ConnectFourGame position, Cell mover) {
+        int move = position.getLastMove();
+        long occupied = position.getCurrentPlayerTokens() | position.getRivalTokens();
+        int row = Move.isThrowin(move) ? ConnectFourGame.BOARD_DIMENSION
+                - Integer.bitCount(Bitboard.column(occupied, Move.column(move))) : 0;
+        int result = result(position);
+        long sequence = published;
+        deltas.set((int) sequence & (CAPACITY - 1), move | (long) row << ROW_SHIFT
+                | (long) mover.ordinal() << MOVER_SHIFT | (long) result << RESULT_SHIFT);
+        frame = frame(position, sequence + 1, result);
+        published = sequence + 1;
+        wake();
+    }
+
+    /**
+     * Starts the broadcast at the current position of a game that was played
+     * before, e.g. a game restored from the journal. The spectators receive its
+     * board first and the following moves are numbered on from its moves. It must
+     * be called before any move is published.
+     *
+     * @param position The game.
+     */
+    void reset(ConnectFourGame position) {
+        long sequence = position.getMovesNumber();
+        frame = frame(position, sequence, result(position));
+        published = sequence;
+        wake();
+    }
+
+    /**
+     * Ends the broadcast, the spectators stop following it.
+     */
+    void close() {
+        closed = true;
+        wake();
+    }
+
+    /**
+     * Prints the board and then every published move to a spectator until the
+     * broadcast is closed.
+     *
+     * @param console The console of the spectator.
+     * @throws InterruptedException If the spectator is interrupted.
+     */
+    void follow(ChannelConsole console) throws InterruptedException {
+        console.printLine("watching game " + game);
+        long cursor = -1;
+        while (true) {
+            // The latch is taken before the moves are looked at, so that a move
+            // published meanwhile opens it.
+            CountDownLatch latch = next;
+            long last = published;
+            if (cursor == last) {
+                if (closed)
+                    break;
+                console.flush();
+                latch.await();
+                continue;
+            }
+            if (cursor < 0 || last - cursor > MAXIMUM_LAG) {
+                Frame current = frame;
+                console.printLine(current.sequence + " board " + current);
+                cursor = current.sequence;
+                continue;
+            }
+            for (; cursor < last; cursor++) {
+                long delta = deltas.get((int) cursor & (CAPACITY - 1));
+                // The delta may have been overwritten while it was read.
+                if (published - cursor >= CAPACITY)
+                    break;
+                console.printLine(render(cursor + 1, delta));
+            }
+        }
+        console.printLine("game " + game + " is closed");
+        console.flush();
+    }
+
+    /**
+     * Lets the waiting spectators look at the broadcast again.
+     */
+    private void wake() {
+        CountDownLatch latch = next;
+        next = new CountDownLatch(1);
+        latch.countDown();
+    }
+
+    /**
+     * @param position A game.
+     * @return The packed result of its last move.
+     */
+    private static int result(ConnectFourGame position) {
+        if (position.getGameState() == GameState.RUNNING)
+            return RUNNING;
+        return position.getGameState() == GameState.DRAW ? DRAW : position.getWinner().getLabel().ordinal() + 1;
+    }
+
+    /**
+     * @param position A game.
+     * @param sequence The number of its last move.
+     * @param result The packed result of its last move.
+     * @return The whole board of the game.
+     */
+    private static Frame frame(ConnectFourGame position, long sequence, int result) {
+        long occupied = position.getCurrentPlayerTokens() | position.getRivalTokens();
+        long playerOneTokens = position.getCurrentPlayer().getLabel() == Cell.P1
+                ? position.getCurrentPlayerTokens() : position.getRivalTokens();
+        return new Frame(sequence, playerOneTokens, occupied & ~playerOneTokens, result);
+    }
+
+    /**
+     * @param sequence The number of the move.
+     * @param delta The packed delta of the move.
+     * @return The line of the delta.
+     */
+    private static String render(long sequence, long delta) {
+        int move = (int) (delta & FIELD_MASK);
+        StringBuilder line = new StringBuilder().append(sequence).append(' ').append(Move.toString(move));
+        if (Move.isThrowin(move))
+            line.append(';').append(delta >>> ROW_SHIFT & ROW_MASK);
+        line.append(' ').append(Cell.values()[(int) (delta >>> MOVER_SHIFT & 1)]).append(' ');
+        return appendResult(line, (int) (delta >>> RESULT_SHIFT & RESULT_MASK)).toString();
+    }
+
+    /**
+     * @param line The line to be appended to.
+     * @param result The packed result of a move.
+     * @return The line with the response to the move.
+     */
+    private static StringBuilder appendResult(StringBuilder line, int result) {
+        if (result == RUNNING)
+            return line.append("OK");
+        if (result == DRAW)
+            return line.append("draw");
+        return line.append(Cell.values()[result - 1]).append(" wins");
+    }
+
+    /**
+     * The whole board after a move.
+     */
+    private static final class Frame {
+        private final long sequence;
+        private final long playerOneTokens;
+        private final long playerTwoTokens;
+        private final int result;
+
+        /**
+         * @param sequence The number of the move.
+         * @param playerOneTokens The tokens of P1 as laid out in {@link Bitboard}.
+         * @param playerTwoTokens The tokens of P2 as laid out in {@link Bitboard}.
+         * @param result The packed result of the move.
+         */
+        Frame(long sequence, long playerOneTokens, long playerTwoTokens, int result) {
+            this.sequence = sequence;
+            this.playerOneTokens = playerOneTokens;
+            this.playerTwoTokens = playerTwoTokens;
+            this.result = result;
+        }
+
+        @Override
+        public String toString() {
+            int dimension = ConnectFourGame.BOARD_DIMENSION;
+            StringBuilder line = new StringBuilder(dimension * (dimension + 1) + 8);
+            for (int row = 0; row < dimension; row++) {
+                if (row > 0)
+                    line.append('/');
+                for (int column = 0; column < dimension; column++) {
+                    long cell = 1L << Bitboard.index(column, row);
+                    line.append((playerOneTokens & cell) != 0 ? '1' : (playerTwoTokens & cell) != 0 ? '2' : EMPTY);
+                }
+            }
+            return appendResult(line.append(' '), result).toString();
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package edu.kit.informatik.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Paths;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import edu.kit.informatik.Cell;
+import edu.kit.informatik.ChannelConsole;
+import edu.kit.informatik.Console;
+import edu.kit.informatik.UI.GameManager;
+import edu.kit.informatik.archive.GameJournal;
+import edu.kit.informatik.exceptions.IllegalCommandException;
+
+/**
+ * Serves games to many clients at the same time over TCP on the local host.
+ * Every connection is a session of its own with a {@link GameManager} speaking
+ * the text protocol of the program: the client sends one command per line and
+ * receives the same response lines the terminal would show. The session ends
+ * with the 'quit' command or when the client closes the connection.
+ *
+ * <p>In hosted games the two players of a game play from different connections
+ * instead. The connections are paired and their commands are routed to their
+ * games by a {@link SessionRegistry}, which also closes idle games. Instead of
+ * playing, a connection can send 'watch' and the number of a game to follow its
+ * moves, see {@link Broadcast}. The hosted games can be recorded in a
+ * {@link GameJournal}; after a restart the players of a game in progress resume
+ * it by sending 'resume', the number of the game and their label.
+ *
+ * <p>Every session runs on its own thread, a virtual one where the Java runtime
+ * has them, see {@link Threads}. A session blocks while it waits for a line, and
+ * its connection only keeps small buffers, so idle connections are cheap.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public class GameServer implements Closeable {
+    /**
+     * The port of the server unless another one is given.
+     */
+    public static final int DEFAULT_PORT = 4444;
+
+    /**
+     * The size of the input and the output buffer of a connection in bytes.
+     */
+    static final int CONNECTION_BUFFER_SIZE = 512;
+    private static final int BACKLOG = 4096;
+    /**
+     * The number of eviction runs within the idle timeout of hosted games.
+     */
+    private static final int EVICTIONS_PER_TIMEOUT = 4;
+    private static final String WATCH = "watch \\d{1,18}";
+    private static final String RESUME = "resume \\d{1,18} P[12]";
+    private static final String QUIT = "quit";
+
+    private final String mode;
+    private final String tokens;
+    private final ServerSocketChannel server;
+    private final ExecutorService sessions = Threads.newPerTaskExecutor("game-session");
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final LongAdder servedSessions = new LongAdder();
+    private final SessionRegistry registry;
+    private final GameJournal journal;
+    private final ScheduledExecutorService evictor;
+
+    /**
+     * Opens a server whose sessions play games of the given mode and tokens
+     * number.
+     *
+     * @param mode The mode of the games.
+     * @param tokens The tokens number of each player.
+     * @param port The local port, {@code 0} for any free one.
+     * @throws IllegalArgumentException If the mode or the tokens number is
+     *             invalid.
+     * @throws IOException If the port cannot be opened.
+     */
+    public GameServer(String mode, String tokens, int port) throws IOException {
+        this(mode, tokens, port, false);
+    }
+
+    /**
+     * Opens a server whose sessions play games of the given mode and tokens
+     * number, either alone or as one of the two players of a hosted game. Hosted
+     * games without a command for the number of seconds given by the system
+     * property {@code connectfour.idle} are closed, by default after
+     * {@value SessionRegistry#DEFAULT_IDLE_TIMEOUT} seconds. If the system property
+     * {@code connectfour.journal} names a file, the hosted games are recorded in
+     * it and the games in progress are restored from it.
+     *
+     * @param mode The mode of the games.
+     * @param tokens The tokens number of each player.
+     * @param port The local port, {@code 0} for any free one.
+     * @param hosted {@code true} If every connection plays one player of a hosted
+     *            game.
+     * @throws IllegalArgumentException If the mode or the tokens number is
+     *             invalid.
+     * @throws IOException If the port or the journal cannot be opened.
+     */
+    public GameServer(String mode, String tokens, int port, boolean hosted) throws IOException {
+        // Checks the arguments once like the program does before the first client.
+        new GameManager(mode, tokens, Console.TERMINAL);
+        this.mode = mode;
+        this.tokens = tokens;
+        if (hosted) {
+            long idleTimeout = Long.getLong("connectfour.idle", SessionRegistry.DEFAULT_IDLE_TIMEOUT);
+            String file = System.getProperty("connectfour.journal");
+            journal = file == null ? null : GameJournal.open(Paths.get(file));
+            registry = new SessionRegistry(mode, tokens, idleTimeout, journal);
+            evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "session-evictor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = Math.max(1, idleTimeout / EVICTIONS_PER_TIMEOUT);
+            evictor.scheduleWithFixedDelay(registry::evictIdle, interval, interval, TimeUnit.SECONDS);
+        } else {
+            registry = null;
+            journal = null;
+            evictor = null;
+        }
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+    }
+
+    /**
+     * Accepts connections and starts their sessions until the server is closed.
+     *
+     * @throws IOException If accepting a connection fails.
+     */
+    public void serve() throws IOException {
+        while (true) {
+            SocketChannel connection;
+            try {
+                connection = server.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            }
+            activeSessions.incrementAndGet();
+            sessions.execute(() -> play(connection));
+        }
+    }
+
+    /**
+     * @return The port the server listens on.
+     */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * @return The number of sessions that are running.
+     */
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    /**
+     * @return The number of sessions that have ended.
+     */
+    public long getServedSessions() {
+        return servedSessions.sum();
+    }
+
+    /**
+     * @return {@code true} If every connection plays one player of a hosted game.
+     */
+    public boolean isHosted() {
+        return registry != null;
+    }
+
+    /**
+     * @return The number of running hosted games.
+     */
+    public int getHostedGames() {
+        return registry == null ? 0 : registry.getGames();
+    }
+
+    /**
+     * @return {@code true} If the sessions run on virtual threads.
+     */
+    public boolean usesVirtualThreads() {
+        return Threads.areVirtual();
+    }
+
+    /**
+     * Stops accepting connections and interrupts the running sessions.
+     *
+     * @throws IOException If the port cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+        sessions.shutdownNow();
+        if (evictor != null)
+            evictor.shutdownNow();
+        if (journal != null)
+            journal.close();
+    }
+
+    /**
+     * Plays the session of a connection until it ends and closes the connection.
+     *
+     * @param connection The connection.
+     */
+    private void play(SocketChannel connection) {
+        try (SocketChannel channel = connection) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            ChannelConsole console = new ChannelConsole(channel, channel, CONNECTION_BUFFER_SIZE, false);
+            if (registry != null) {
+                host(channel, console);
+                return;
+            }
+            GameManager manager = new GameManager(mode, tokens, console);
+            try {
+                manager.simulateGame(console);
+                console.flush();
+            } finally {
+                manager.shutdown();
+            }
+        } catch (IOException | UncheckedIOException | IllegalCommandException e) {
+            // The client has gone, its session just ends.
+        } finally {
+            activeSessions.decrementAndGet();
+            servedSessions.increment();
+        }
+    }
+
+    /**
+     * Plays the session of a connection in a hosted game until the client quits,
+     * the connection is lost or the game is closed. The responses are written by a
+     * thread of their own, since they may be sent by the rival's session.
+     *
+     * @param channel The connection.
+     * @param console The console of the connection.
+     */
+    private void host(SocketChannel channel, ChannelConsole console) {
+        Connection seat = new Connection();
+        Future<?> writer = sessions.submit(() -> seat.write(channel, console));
+        Broadcast broadcast = null;
+        try {
+            registry.join(seat);
+            String line = console.readLine();
+            while (line != null) {
+                if (seat.getGame() == Seat.NO_GAME && line.matches(WATCH)) {
+                    long number = Long.parseLong(line.substring(line.indexOf(' ') + 1));
+                    broadcast = registry.watch(seat, number);
+                    if (broadcast != null)
+                        break;
+                    seat.send("Error, there is no game " + number + " to watch.");
+                } else if (seat.getGame() == Seat.NO_GAME && line.matches(RESUME)) {
+                    String[] words = line.split(" ");
+                    if (!registry.resume(seat, Long.parseLong(words[1]), Cell.valueOf(words[2])))
+                        seat.send("Error, there is no seat " + words[2] + " to resume in game " + words[1] + ".");
+                } else if (!registry.execute(seat, line)) {
+                    break;
+                }
+                line = console.readLine();
+            }
+        } finally {
+            if (broadcast == null)
+                registry.leave(seat);
+            seat.close(broadcast == null);
+            await(writer);
+        }
+        if (broadcast != null)
+            watch(channel, console, broadcast);
+    }
+
+    /**
+     * Lets a connection watch a hosted game until the client quits, the connection
+     * is lost or the game is closed. The moves are written by a thread of their
+     * own, while this one reads the client's commands.
+     *
+     * @param channel The connection.
+     * @param console The console of the connection.
+     * @param broadcast The broadcast of the game.
+     */
+    private void watch(SocketChannel channel, ChannelConsole console, Broadcast broadcast) {
+        Future<?> follower = sessions.submit(() -> {
+            broadcast.follow(console);
+            channel.shutdownInput();
+            return null;
+        });
+        try {
+            String line = console.readLine();
+            while (line != null && !line.equals(QUIT)) {
+                console.printError("spectators can only use the 'quit' command.");
+                line = console.readLine();
+            }
+        } finally {
+            follower.cancel(true);
+        }
+    }
+
+    /**
+     * Waits for a thread writing to a connection.
+     *
+     * @param writer The pending end of the writing thread.
+     */
+    private static void await(Future<?> writer) {
+        try {
+            writer.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // The writer has already stopped writing to the lost connection.
+        }
+    }
+
+    /**
+     * The seat of a connection in a hosted game. The messages are queued and
+     * written to the connection by {@link #write(SocketChannel, ChannelConsole)}.
+     */
+    private static final class Connection extends Seat {
+        private static final Object END = new Object();
+
+        private final BlockingQueue<Object> messages = new LinkedBlockingQueue<>();
+        private volatile boolean ending;
+
+        @Override
+        void send(String message) {
+            messages.add(message);
+        }
+
+        @Override
+        void close() {
+            close(true);
+        }
+
+        /**
+         * Stops writing after the messages sent so far.
+         *
+         * @param end {@code true} If the session ends as well.
+         */
+        void close(boolean end) {
+            ending = end;
+            messages.add(END);
+        }
+
+        /**
+         * Writes the messages until the seat is closed and then ends the session by
+         * shutting the input of the connection down, unless the connection goes on
+         * watching a game.
+         *
+         * @param channel The connection.
+         * @param console The console of the connection.
+         */
+        void write(SocketChannel channel, ChannelConsole console) {
+            try {
+                Object message = messages.take();
+                while (message != END) {
+                    console.printLine(message);
+                    if (messages.isEmpty())
+                        console.flush();
+                    message = messages.take();
+                }
+                console.flush();
+                if (ending)
+                    channel.shutdownInput();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | UncheckedIOException e) {
+                // The client has gone, the session ends by its lost connection.
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package edu.kit.informatik.server;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.kit.informatik.ChannelConsole;
+import edu.kit.informatik.Terminal;
+
+/**
+ * Puts load on a {@link GameServer}. It opens the given number of connections,
+ * keeps them all open and idle for a while and then lets every connection send
+ * random throwin commands, waiting for each response before the next command.
+ * It prints how long connecting took, the commands per second and the
+ * percentiles of the response times.
+ *
+ * <p>Usage: {@code LoadGenerator connections [commands] [idle seconds] [port]}
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public final class LoadGenerator {
+    private static final int DEFAULT_COMMANDS = 100;
+    private static final int DEFAULT_IDLE_SECONDS = 5;
+    private static final long NANOSECONDS_PER_MICROSECOND = 1_000L;
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 1 };
+
+    /**
+     * Private constructor to avoid object generation.
+     */
+    private LoadGenerator() {
+        throw new AssertionError("Utility class constructor.");
+    }
+
+    /**
+     * Runs the load and prints the report.
+     *
+     * @param args The number of connections and optionally the commands per
+     *            connection, the idle seconds and the port of the server.
+     * @throws InterruptedException If the generator is interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int connections = Integer.parseInt(args[0]);
+        int commands = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_COMMANDS;
+        int idleSeconds = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_IDLE_SECONDS;
+        int port = args.length > 3 ? Integer.parseInt(args[3]) : GameServer.DEFAULT_PORT;
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+
+        ExecutorService clients = Threads.newPerTaskExecutor("load-client");
+        CountDownLatch connected = new CountDownLatch(connections);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger();
+        SplittableRandom seeds = new SplittableRandom();
+        long connectStart = System.nanoTime();
+        List<Future<long[]>> futures = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            SplittableRandom random = seeds.split();
+            futures.add(clients.submit(() -> play(address, commands, random, connected, start, failures)));
+        }
+        connected.await();
+        long connectTime = System.nanoTime() - connectStart;
+        Terminal.printLine(String.format(Locale.ROOT, "%d connections open in %d ms (%s threads), %d failed",
+                connections - failures.get(), connectTime / 1_000_000L,
+                Threads.areVirtual() ? "virtual" : "platform", failures.get()));
+        TimeUnit.SECONDS.sleep(idleSeconds);
+
+        long playStart = System.nanoTime();
+        start.countDown();
+        long[] latencies = collect(futures);
+        long playTime = System.nanoTime() - playStart;
+        clients.shutdown();
+        Arrays.sort(latencies);
+        StringBuilder report = new StringBuilder(String.format(Locale.ROOT, "%d commands in %.3f s, %.0f commands/s",
+                latencies.length, playTime / 1e9, latencies.length * 1e9 / playTime));
+        for (double percentile : PERCENTILES) {
+            long latency = latencies.length == 0 ? 0
+                    : latencies[(int) Math.min(latencies.length - 1, Math.round(percentile * latencies.length))];
+            report.append(String.format(Locale.ROOT, ", p%s %d us", percentile == 1 ? "100"
+                    : Integer.toString((int) Math.round(percentile * 100)), latency / NANOSECONDS_PER_MICROSECOND));
+        }
+        Terminal.printLine(report);
+        if (failures.get() > 0)
+            Terminal.printLine(failures.get() + " connections failed");
+    }
+
+    /**
+     * Plays one connection: connects, waits for the start and sends the
+     * commands.
+     *
+     * @param address The address of the server.
+     * @param commands The number of commands to be sent.
+     * @param random The random generator of the connection.
+     * @param connected Counted down when the connection is open or has failed.
+     * @param start Released when all connections shall send their commands.
+     * @param failures The number of failed connections.
+     * @return The response times of the commands in nanoseconds.
+     */
+    private static long[] play(InetSocketAddress address, int commands, SplittableRandom random,
+            CountDownLatch connected, CountDownLatch start, AtomicInteger failures) {
+        long[] latencies = new long[commands];
+        SocketChannel channel;
+        try {
+            channel = SocketChannel.open(address);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        } catch (IOException e) {
+            failures.incrementAndGet();
+            connected.countDown();
+            return new long[0];
+        }
+        connected.countDown();
+        try (SocketChannel connection = channel) {
+            ChannelConsole console = new ChannelConsole(connection, connection, GameServer.CONNECTION_BUFFER_SIZE,
+                    false);
+            start.await();
+            for (int i = 0; i < commands; i++) {
+                long sent = System.nanoTime();
+                console.printLine("throwin " + random.nextInt(8));
+                if (console.readLine() == null)
+                    throw new IOException("the server closed the connection.");
+                latencies[i] = System.nanoTime() - sent;
+            }
+            console.printLine("quit");
+            console.flush();
+            return latencies;
+        } catch (IOException | UncheckedIOException e) {
+            failures.incrementAndGet();
+            return new long[0];
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new long[0];
+        }
+    }
+
+    /**
+     * @param futures The pending response times of all connections.
+     * @return The response times of all connections in one array.
+     * @throws InterruptedException If the generator is interrupted.
+     */
+    private static long[] collect(List<Future<long[]>> futures) throws InterruptedException {
+        List<long[]> results = new ArrayList<>(futures.size());
+        int total = 0;
+        for (Future<long[]> future : futures) {
+            try {
+                long[] result = future.get();
+                results.add(result);
+                total += result.length;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (long[] result : results) {
+            System.arraycopy(result, 0, latencies, offset, result.length);
+            offset += result.length;
+        }
+        return latencies;
+    }
+}
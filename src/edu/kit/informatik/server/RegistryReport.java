@@ -0,0 +1,189 @@
+package edu.kit.informatik.server;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import edu.kit.informatik.ConnectFourGame;
+import edu.kit.informatik.Terminal;
+
+/**
+ * Measures how the commands of hosted games scale with the number of threads.
+ * For 1, 2, 4, 8 and 16 threads it starts the given number of hosted games and
+ * lets every thread send throwin commands of both players to its share of the
+ * games, as the sessions of the clients would. Every throwin goes into a column
+ * that is not full, and a finished game is quit and replaced by a new game of
+ * the same thread, so only moves are counted. It prints the moves per second
+ * and the speedup compared to one thread. The responses are dropped instead of
+ * sent over a network, so only the registry and the games are measured.
+ *
+ * <p>Usage: {@code RegistryReport [games] [moves]}
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+public final class RegistryReport {
+    private static final int[] THREADS = {1, 2, 4, 8, 16 };
+    private static final int DEFAULT_GAMES = 100_000;
+    private static final int DEFAULT_MOVES = 4_000_000;
+    private static final String MODE = "standard";
+    private static final String TOKENS = "32";
+    private static final String QUIT = "quit";
+    private static final String OK = "OK";
+    private static final String ERROR = "Error";
+    private static final String[] THROWINS = new String[8];
+
+    static {
+        for (int column = 0; column < THROWINS.length; column++) {
+            THROWINS[column] = "throwin " + column;
+        }
+    }
+
+    /**
+     * Private constructor to avoid object generation.
+     */
+    private RegistryReport() {
+        throw new AssertionError("Utility class constructor.");
+    }
+
+    /**
+     * Runs the measurement and prints the report.
+     *
+     * @param args The optional number of games and of moves per measurement.
+     * @throws InterruptedException If the measurement is interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        int moves = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MOVES;
+        Terminal.printLine("processors: " + Runtime.getRuntime().availableProcessors() + ", games: " + games
+                + ", moves: " + moves);
+        measure(games, moves, 1);
+        long singleTime = 0;
+        for (int threads : THREADS) {
+            long time = measure(games, moves, threads);
+            if (threads == 1)
+                singleTime = time;
+            Terminal.printLine(String.format(Locale.ROOT, "threads %2d: %10d moves/s, speedup %.2f", threads,
+                    (long) (moves * 1e9 / time), (double) singleTime / time));
+        }
+    }
+
+    /**
+     * Starts the games and makes the moves.
+     *
+     * @param games The number of games.
+     * @param moves The number of moves.
+     * @param threads The number of sending threads.
+     * @return The time the moves took in nanoseconds.
+     * @throws InterruptedException If the measurement is interrupted.
+     */
+    private static long measure(int games, int moves, int threads) throws InterruptedException {
+        SessionRegistry registry = new SessionRegistry(MODE, TOKENS, Long.MAX_VALUE / 1_000_000_000L);
+        Seat[] seats = new Seat[2 * games];
+        for (int i = 0; i < seats.length; i++) {
+            seats[i] = new ReplySeat();
+            registry.join(seats[i]);
+        }
+        ExecutorService senders = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>(threads);
+        SplittableRandom seeds = new SplittableRandom(threads);
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            int first = i;
+            SplittableRandom random = seeds.split();
+            futures.add(senders.submit(() -> send(registry, seats, first, threads, moves / threads, random)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        long time = System.nanoTime() - start;
+        senders.shutdown();
+        return time;
+    }
+
+    /**
+     * Sends throwins in random columns that are not full to the games of one
+     * thread, the players of a game taking turns. A finished game is replaced by a
+     * new one.
+     *
+     * @param registry The registry of the games.
+     * @param seats The two seats of every game, the seat of P1 first.
+     * @param first The first game of the thread.
+     * @param step The distance between the games of the thread.
+     * @param moves The number of moves to be made.
+     * @param random The random generator of the thread.
+     */
+    private static void send(SessionRegistry registry, Seat[] seats, int first, int step, int moves,
+            SplittableRandom random) {
+        int games = seats.length / 2;
+        int[] turns = new int[(games - first + step - 1) / step];
+        int[] heights = new int[turns.length * ConnectFourGame.BOARD_DIMENSION];
+        int game = 0;
+        for (int made = 0; made < moves;) {
+            int index = (first + game * step) * 2;
+            int heightsStart = game * ConnectFourGame.BOARD_DIMENSION;
+            int column = random.nextInt(ConnectFourGame.BOARD_DIMENSION);
+            while (heights[heightsStart + column] == ConnectFourGame.BOARD_DIMENSION) {
+                column = (column + 1) % ConnectFourGame.BOARD_DIMENSION;
+            }
+            ReplySeat seat = (ReplySeat) seats[index + turns[game]];
+            registry.execute(seat, THROWINS[column]);
+            if (!seat.reply.startsWith(ERROR)) {
+                made++;
+                heights[heightsStart + column]++;
+                turns[game] ^= 1;
+                if (!seat.reply.equals(OK)) {
+                    restart(registry, seats, index);
+                    Arrays.fill(heights, heightsStart, heightsStart + ConnectFourGame.BOARD_DIMENSION, 0);
+                    turns[game] = 0;
+                }
+            }
+            game = game + 1 == turns.length ? 0 : game + 1;
+        }
+    }
+
+    /**
+     * Quits a finished game and starts a new one with new seats.
+     *
+     * @param registry The registry of the games.
+     * @param seats The two seats of every game, the seat of P1 first.
+     * @param index The index of the seat of P1 of the finished game.
+     */
+    private static void restart(SessionRegistry registry, Seat[] seats, int index) {
+        registry.execute(seats[index], QUIT);
+        seats[index] = new ReplySeat();
+        seats[index + 1] = new ReplySeat();
+        // Other threads start games as well, so the two seats join together to play
+        // each other.
+        synchronized (registry) {
+            registry.join(seats[index]);
+            registry.join(seats[index + 1]);
+        }
+    }
+
+    /**
+     * A seat keeping only the last message it received.
+     */
+    private static final class ReplySeat extends Seat {
+        private String reply = "";
+
+        @Override
+        void send(String message) {
+            reply = message;
+        }
+
+        @Override
+        void close() {
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package edu.kit.informatik.server;
+
+import edu.kit.informatik.Cell;
+
+/**
+ * A client of a hosted game, see {@link SessionRegistry}. The registry sends the
+ * seat the responses to its commands and the moves of its rival, and closes it
+ * when the game ends for the client.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+abstract class Seat {
+    /**
+     * The game of a seat that waits for a rival.
+     */
+    static final long NO_GAME = 0;
+
+    private volatile long game = NO_GAME;
+    private volatile Cell label;
+    private volatile boolean left;
+
+    /**
+     * Sends a message to the client.
+     *
+     * @param message One or more lines without the terminator of the last one.
+     */
+    abstract void send(String message);
+
+    /**
+     * Ends the connection to the client after the messages sent so far.
+     */
+    abstract void close();
+
+    /**
+     * @return The number of the seat's game, or {@link #NO_GAME} while it waits for
+     *         a rival.
+     */
+    long getGame() {
+        return game;
+    }
+
+    /**
+     * @return The label of the player the seat plays, or {@code null} while it
+     *         waits for a rival.
+     */
+    Cell getLabel() {
+        return label;
+    }
+
+    /**
+     * Seats the client at a game.
+     *
+     * @param game The number of the game.
+     * @param label The label of the player the client plays.
+     */
+    void take(long game, Cell label) {
+        this.label = label;
+        this.game = game;
+    }
+
+    /**
+     * Marks that the client has left.
+     */
+    void leave() {
+        left = true;
+    }
+
+    /**
+     * @return {@code true} If the client has left.
+     */
+    boolean hasLeft() {
+        return left;
+    }
+}
@@ -0,0 +1,535 @@
+package edu.kit.informatik.server;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import edu.kit.informatik.Cell;
+import edu.kit.informatik.Console;
+import edu.kit.informatik.GameState;
+import edu.kit.informatik.Output;
+import edu.kit.informatik.UI.GameManager;
+import edu.kit.informatik.archive.GameJournal;
+import edu.kit.informatik.archive.GameRecord;
+import edu.kit.informatik.exceptions.IllegalCommandException;
+
+/**
+ * Pairs the clients of hosted games, in which the two players of a game play
+ * from different clients, and routes the commands of the clients to their games.
+ *
+ * <p>The first client waits until the next one joins, the first one plays P1 and
+ * the second one P2. Pairing needs no lock: the waiting client is swapped in and
+ * out of a single reference.
+ *
+ * <p>There is no global lock. The games are spread over lock stripes by their
+ * numbers, and a stripe is only locked to look a game up, add or remove it. A
+ * command is executed under the lock of its game, so the commands of one game
+ * are executed one after the other, and a long one like 'ai' holds up neither
+ * the other games nor the stripe. The responses are only handed to the seats
+ * inside the lock, which send them on their own threads, see
+ * {@link Seat#send(String)}.
+ *
+ * <p>Instead of playing, a waiting client can watch a game, see {@link Broadcast}.
+ *
+ * <p>With a {@link GameJournal} every game is recorded: a move is on the disk
+ * before its response is sent, and a game is ended in the journal as soon as it
+ * is won or drawn. The games the journal restores wait with vacant seats until
+ * their players resume them, see {@link #resume(Seat, long, Cell)}.
+ *
+ * <p>A game without a command for longer than the idle timeout is closed by
+ * {@link #evictIdle()}, which looks at one stripe at a time.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+final class SessionRegistry {
+    /**
+     * The time without a command after which a game is closed unless another one
+     * is given, in seconds.
+     */
+    static final long DEFAULT_IDLE_TIMEOUT = 300;
+
+    private static final String QUIT = "quit";
+    private static final String PRINT = "print";
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final int STRIPES_PER_PROCESSOR = 4;
+    private static final int MINIMUM_STRIPES = 16;
+    /**
+     * The seat of a restored game whose player has not resumed it yet. Messages
+     * to it are dropped.
+     */
+    private static final Seat VACANT = new Seat() {
+        @Override
+        void send(String message) {
+        }
+
+        @Override
+        void close() {
+        }
+    };
+
+    private final String mode;
+    private final String tokens;
+    private final long idleTimeout;
+    private final Stripe[] stripes;
+    private final AtomicReference<Seat> waiting = new AtomicReference<>();
+    private final AtomicLong games = new AtomicLong(Seat.NO_GAME);
+    private final GameJournal journal;
+
+    /**
+     * Creates a registry of games of the given mode and tokens number.
+     *
+     * @param mode The mode of the games.
+     * @param tokens The tokens number of each player.
+     * @param idleTimeout The time without a command after which a game is
+     *            closed, in seconds.
+     * @throws IllegalArgumentException If the mode or the tokens number is
+     *             invalid.
+     */
+    SessionRegistry(String mode, String tokens, long idleTimeout) {
+        this(mode, tokens, idleTimeout, null);
+    }
+
+    /**
+     * Creates a registry of games of the given mode and tokens number recording
+     * its games in a journal, and restores the games in progress of the journal.
+     * Restored games of another mode or tokens number, or with a move that is not
+     * possible in the mode or on the board, are dropped. Restored games that are
+     * already over are ended in the journal.
+     *
+     * @param mode The mode of the games.
+     * @param tokens The tokens number of each player.
+     * @param idleTimeout The time without a command after which a game is
+     *            closed, in seconds.
+     * @param journal The journal, or {@code null} if the games are not recorded.
+     * @throws IllegalArgumentException If the mode or the tokens number is
+     *             invalid.
+     */
+    SessionRegistry(String mode, String tokens, long idleTimeout, GameJournal journal) {
+        // Checks the arguments once before the first game.
+        new GameManager(mode, tokens, Console.TERMINAL);
+        this.mode = mode;
+        this.tokens = tokens;
+        this.idleTimeout = TimeUnit.SECONDS.toNanos(idleTimeout);
+        int processors = Runtime.getRuntime().availableProcessors();
+        stripes = new Stripe[Math.max(MINIMUM_STRIPES, Integer.highestOneBit(STRIPES_PER_PROCESSOR * processors) << 1)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.journal = journal;
+        if (journal != null) {
+            games.set(journal.getLastGame());
+            for (Map.Entry<Long, GameRecord> game : journal.getInProgress().entrySet()) {
+                restore(game.getKey(), game.getValue());
+            }
+        }
+    }
+
+    /**
+     * Lets a client wait for a rival, or starts a game with the waiting client.
+     *
+     * @param seat The joining client.
+     */
+    void join(Seat seat) {
+        while (true) {
+            Seat rival = waiting.get();
+            if (rival == null) {
+                if (waiting.compareAndSet(null, seat)) {
+                    seat.send("waiting for a rival");
+                    return;
+                }
+            } else if (waiting.compareAndSet(rival, null)) {
+                start(rival, seat);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Lets a client waiting for a rival watch a game instead.
+     *
+     * @param seat The waiting client.
+     * @param number The number of the game.
+     * @return The broadcast of the game, or {@code null} if there is no such game
+     *         or the client is no longer waiting.
+     */
+    Broadcast watch(Seat seat, long number) {
+        HostedGame game = find(number);
+        if (game == null || !waiting.compareAndSet(seat, null))
+            return null;
+        return game.broadcast;
+    }
+
+    /**
+     * Lets a client waiting for a rival take a vacant seat of a restored game. The
+     * client receives the board and its rival is told so.
+     *
+     * @param seat The waiting client.
+     * @param number The number of the game.
+     * @param label The label of the player the client plays.
+     * @return {@code false} If there is no such game, the seat is not vacant or the
+     *         client is no longer waiting.
+     */
+    boolean resume(Seat seat, long number, Cell label) {
+        HostedGame game = find(number);
+        if (game == null)
+            return false;
+        synchronized (game) {
+            int player = label == Cell.P1 ? 0 : 1;
+            if (game.closed || game.players[player] != VACANT || !waiting.compareAndSet(seat, null))
+                return false;
+            game.players[player] = seat;
+            seat.take(number, label);
+            game.manager.command(PRINT, label);
+            seat.send("playing as " + label + " in game " + number + LINE_SEPARATOR + game.transcript.take());
+            game.rival(seat).send(label + " has resumed the game");
+            game.lastCommand = System.nanoTime();
+        }
+        if (seat.hasLeft())
+            leave(seat);
+        return true;
+    }
+
+    /**
+     * Executes a command of a client in its game and sends the response to the
+     * client. If the command made a move, the rival receives the command and the
+     * response as well.
+     *
+     * @param seat The client.
+     * @param line The command.
+     * @return {@code false} If the client has left the game by the command or its
+     *         game is already closed.
+     */
+    boolean execute(Seat seat, String line) {
+        long number = seat.getGame();
+        if (number == Seat.NO_GAME) {
+            if (line.equals(QUIT))
+                return false;
+            seat.send("Error, there is no rival yet, please wait.");
+            return true;
+        }
+        HostedGame game = find(number);
+        if (game == null)
+            return false;
+        synchronized (game) {
+            if (game.closed)
+                return false;
+            boolean moved = game.manager.command(line, seat.getLabel());
+            String response = game.transcript.take();
+            if (!game.manager.isRunning()) {
+                game.rival(seat).send("Error, your rival has left the game.");
+                end(number, game);
+                return false;
+            }
+            if (moved && !record(number, game)) {
+                String message = "Error, the game could not be recorded.";
+                seat.send(message);
+                game.rival(seat).send(message);
+                end(number, game);
+                return false;
+            }
+            game.lastCommand = System.nanoTime();
+            seat.send(response);
+            if (moved) {
+                game.rival(seat).send(seat.getLabel() + " " + line + LINE_SEPARATOR + response);
+                game.broadcast.publish(game.manager.getGame(), seat.getLabel());
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Removes a client that has quit or lost its connection. Its game is closed
+     * and its rival is told so.
+     *
+     * @param seat The client.
+     */
+    void leave(Seat seat) {
+        seat.leave();
+        if (waiting.compareAndSet(seat, null))
+            return;
+        // If the client is just being seated, the seating sees that it has left.
+        long number = seat.getGame();
+        if (number == Seat.NO_GAME)
+            return;
+        HostedGame game = find(number);
+        if (game == null)
+            return;
+        synchronized (game) {
+            if (!game.closed) {
+                game.rival(seat).send("Error, your rival has left the game.");
+                end(number, game);
+            }
+        }
+    }
+
+    /**
+     * Closes the games without a command for longer than the idle timeout.
+     *
+     * @return The number of closed games.
+     */
+    int evictIdle() {
+        String message = "Error, the game was closed after " + TimeUnit.NANOSECONDS.toSeconds(idleTimeout)
+                + " seconds without a command.";
+        int evicted = 0;
+        List<Long> idle = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            long now = System.nanoTime();
+            synchronized (stripe) {
+                for (Map.Entry<Long, HostedGame> entry : stripe.games.entrySet()) {
+                    if (now - entry.getValue().lastCommand > idleTimeout)
+                        idle.add(entry.getKey());
+                }
+            }
+            // The games are locked one by one without the stripe, since a game may be
+            // busy with a long command.
+            for (long number : idle) {
+                HostedGame game = find(number);
+                if (game == null)
+                    continue;
+                synchronized (game) {
+                    if (!game.closed && System.nanoTime() - game.lastCommand > idleTimeout) {
+                        game.players[0].send(message);
+                        game.players[1].send(message);
+                        end(number, game);
+                        evicted++;
+                    }
+                }
+            }
+            idle.clear();
+        }
+        return evicted;
+    }
+
+    /**
+     * @return The number of running games.
+     */
+    int getGames() {
+        int number = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                number += stripe.games.size();
+            }
+        }
+        return number;
+    }
+
+    /**
+     * @return The number of lock stripes.
+     */
+    int getStripes() {
+        return stripes.length;
+    }
+
+    /**
+     * Starts a game of two clients.
+     *
+     * @param first The client playing P1.
+     * @param second The client playing P2.
+     */
+    private void start(Seat first, Seat second) {
+        long number = games.incrementAndGet();
+        HostedGame game = new HostedGame(number, first, second);
+        if (journal != null) {
+            try {
+                journal.start(number, game.manager.getMode(), game.manager.getTokensNumber());
+            } catch (IOException e) {
+                String message = "Error, the game could not be recorded.";
+                first.send(message);
+                second.send(message);
+                first.close();
+                second.close();
+                game.manager.shutdown();
+                return;
+            }
+        }
+        Stripe stripe = stripe(number);
+        synchronized (stripe) {
+            stripe.games.put(number, game);
+        }
+        synchronized (game) {
+            first.take(number, Cell.P1);
+            second.take(number, Cell.P2);
+            first.send("playing as " + Cell.P1 + " in game " + number);
+            second.send("playing as " + Cell.P2 + " in game " + number);
+        }
+        if (first.hasLeft())
+            leave(first);
+        if (second.hasLeft())
+            leave(second);
+    }
+
+    /**
+     * Adds a game of the journal whose players have not resumed it yet.
+     *
+     * @param number The number of the game.
+     * @param record The record of the game so far.
+     */
+    private void restore(long number, GameRecord record) {
+        HostedGame game = new HostedGame(number, VACANT, VACANT);
+        if (record.getMode() != game.manager.getMode()
+                || record.getTokensNumber() != game.manager.getTokensNumber())
+            return;
+        try {
+            for (int i = 0; i < record.getMovesNumber(); i++) {
+                if (!GameRecord.allows(game.manager.getMode(), game.manager.getGame(), record.getMove(i)))
+                    return;
+                game.manager.replay(record.getMove(i));
+            }
+        } catch (IllegalCommandException e) {
+            return;
+        }
+        if (game.manager.getGameState() != GameState.RUNNING) {
+            // The program stopped between the last move and the end of the game.
+            try {
+                journal.end(number);
+            } catch (IOException e) {
+                // The game is restored and ended once more.
+            }
+            return;
+        }
+        game.broadcast.reset(game.manager.getGame());
+        Stripe stripe = stripe(number);
+        synchronized (stripe) {
+            stripe.games.put(number, game);
+        }
+    }
+
+    /**
+     * Records the last move of a game in the journal, and the end of the game if
+     * the move has finished it. The game must be locked.
+     *
+     * @param number The number of the game.
+     * @param game The game.
+     * @return {@code false} If the move could not be recorded.
+     */
+    private boolean record(long number, HostedGame game) {
+        if (journal == null)
+            return true;
+        try {
+            journal.move(number, game.manager.getGame().getLastMove());
+            if (game.manager.getGameState() != GameState.RUNNING) {
+                journal.end(number);
+                game.recorded = true;
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param number The number of a game.
+     * @return The running game, or {@code null} if it is closed.
+     */
+    private HostedGame find(long number) {
+        Stripe stripe = stripe(number);
+        synchronized (stripe) {
+            return stripe.games.get(number);
+        }
+    }
+
+    /**
+     * Closes a game and removes it. The game must be locked.
+     *
+     * @param number The number of the game.
+     * @param game The game.
+     */
+    private void end(long number, HostedGame game) {
+        game.closed = true;
+        Stripe stripe = stripe(number);
+        synchronized (stripe) {
+            stripe.games.remove(number);
+        }
+        game.players[0].close();
+        game.players[1].close();
+        game.broadcast.close();
+        game.manager.shutdown();
+        if (journal != null && !game.recorded) {
+            try {
+                journal.end(number);
+            } catch (IOException e) {
+                // The game is restored once more and closed again when idle.
+            }
+        }
+    }
+
+    /**
+     * @param number The number of a game.
+     * @return The stripe of the game.
+     */
+    private Stripe stripe(long number) {
+        // Spreads consecutive numbers over all stripes.
+        long mixed = number * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (mixed >>> 32) & (stripes.length - 1)];
+    }
+
+    /**
+     * The games of one lock stripe, guarded by the stripe itself.
+     */
+    private static final class Stripe {
+        private final Map<Long, HostedGame> games = new HashMap<>();
+    }
+
+    /**
+     * A hosted game with its two clients, guarded by the game itself.
+     */
+    private final class HostedGame {
+        private final Seat[] players;
+        private final Transcript transcript = new Transcript();
+        private final GameManager manager;
+        private final Broadcast broadcast;
+        private volatile long lastCommand = System.nanoTime();
+        private boolean closed;
+        // The game is over and ended in the journal.
+        private boolean recorded;
+
+        /**
+         * @param number The number of the game.
+         * @param first The client playing P1.
+         * @param second The client playing P2.
+         */
+        HostedGame(long number, Seat first, Seat second) {
+            players = new Seat[] {first, second };
+            manager = new GameManager(mode, tokens, transcript);
+            broadcast = new Broadcast(number);
+        }
+
+        /**
+         * @param seat One of the clients.
+         * @return The other client.
+         */
+        Seat rival(Seat seat) {
+            return players[0] == seat ? players[1] : players[0];
+        }
+
+    }
+
+    /**
+     * The output of a hosted game, collecting the response to one command.
+     */
+    private static final class Transcript implements Output {
+        private final StringBuilder output = new StringBuilder();
+
+        @Override
+        public void printLine(Object object) {
+            if (output.length() > 0)
+                output.append(LINE_SEPARATOR);
+            output.append(object);
+        }
+
+        /**
+         * @return The lines printed since the last call.
+         */
+        String take() {
+            String lines = output.toString();
+            output.setLength(0);
+            return lines;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package edu.kit.informatik.server;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the executors running one task per connection. Where the Java runtime
+ * has virtual threads, every task gets a virtual thread, so tens of thousands of
+ * idle connections only cost their memory. Older runtimes fall back to a cached
+ * pool of platform threads. The runtime is asked by reflection, so the program
+ * still runs on older versions.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+final class Threads {
+    private static final Method VIRTUAL_EXECUTOR = virtualExecutor();
+
+    /**
+     * Private constructor to avoid object generation.
+     */
+    private Threads() {
+        throw new AssertionError("Utility class constructor.");
+    }
+
+    /**
+     * @return {@code true} If the runtime has virtual threads.
+     */
+    static boolean areVirtual() {
+        return VIRTUAL_EXECUTOR != null;
+    }
+
+    /**
+     * Creates an executor starting a new thread for every task, a virtual one if
+     * the runtime has them and a daemon platform thread otherwise.
+     *
+     * @param name The name of the platform threads.
+     * @return The executor.
+     */
+    static ExecutorService newPerTaskExecutor(String name) {
+        if (VIRTUAL_EXECUTOR != null) {
+            try {
+                return (ExecutorService) VIRTUAL_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return The factory method of the virtual thread executor, or {@code null}
+     *         if the runtime has no virtual threads.
+     */
+    private static Method virtualExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package edu.kit.informatik;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link Bitboard} against a board of single cells.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+class BitboardTest {
+    private static final int DIMENSION = ConnectFourGame.BOARD_DIMENSION;
+    private static final int BOARDS = 10_000;
+    private static final int WINNING_LENGTH = 4;
+
+    @Test
+    void indexAndColumnMatchTheCells() {
+        Random random = new Random(1);
+        for (int board = 0; board < BOARDS; board++) {
+            long tokens = random.nextLong();
+            for (int column = 0; column < DIMENSION; column++) {
+                int bits = Bitboard.column(tokens, column);
+                for (int row = 0; row < DIMENSION; row++) {
+                    boolean cell = (tokens & 1L << Bitboard.index(column, row)) != 0;
+                    assertEquals(cell, (bits & 1 << row) != 0);
+                    assertEquals(cells(tokens)[column][row], cell);
+                }
+            }
+        }
+    }
+
+    @Test
+    void removeBottomLetsTheColumnFall() {
+        Random random = new Random(2);
+        for (int board = 0; board < BOARDS; board++) {
+            long tokens = random.nextLong();
+            int column = random.nextInt(DIMENSION);
+            boolean[][] expected = cells(tokens);
+            System.arraycopy(expected[column], 0, expected[column], 1, DIMENSION - 1);
+            expected[column][0] = false;
+            assertEquals(tokens(expected), Bitboard.removeBottom(tokens, column));
+        }
+    }
+
+    @Test
+    void winningLinesMatchAScanOfEveryLine() {
+        Random random = new Random(3);
+        for (int board = 0; board < BOARDS; board++) {
+            long tokens = randomTokens(random);
+            assertEquals(scan(tokens), Bitboard.winningLines(tokens, 0, Bitboard.ALL_LINES));
+        }
+    }
+
+    @Test
+    void throwinOnlyChecksTheLinesOfItsCell() {
+        Random random = new Random(4);
+        for (int board = 0; board < BOARDS; board++) {
+            long tokens = randomTokens(random);
+            int column = random.nextInt(DIMENSION);
+            int row = random.nextInt(DIMENSION);
+            long after = tokens | 1L << Bitboard.index(column, row);
+            assertEquals(scan(after), Bitboard.winningLines(after, scan(tokens), Bitboard.cellLines(column, row)));
+        }
+    }
+
+    @Test
+    void removeOnlyChecksTheLinesOfItsColumn() {
+        Random random = new Random(5);
+        for (int board = 0; board < BOARDS; board++) {
+            long tokens = randomTokens(random);
+            int column = random.nextInt(DIMENSION);
+            long after = Bitboard.removeBottom(tokens, column);
+            assertEquals(scan(after), Bitboard.winningLines(after, scan(tokens), Bitboard.columnLines(column)));
+        }
+    }
+
+    @Test
+    void flipTurnsEveryColumnUpsideDown() {
+        Random random = new Random(6);
+        for (int board = 0; board < BOARDS; board++) {
+            boolean[][] occupied = new boolean[DIMENSION][DIMENSION];
+            boolean[][] own = new boolean[DIMENSION][DIMENSION];
+            boolean[][] flipped = new boolean[DIMENSION][DIMENSION];
+            for (int column = 0; column < DIMENSION; column++) {
+                int height = random.nextInt(DIMENSION + 1);
+                int top = DIMENSION - height;
+                for (int row = top; row < DIMENSION; row++) {
+                    occupied[column][row] = true;
+                    own[column][row] = random.nextBoolean();
+                }
+                // The upper token falls to the bottom, the lower one ends at the top.
+                for (int row = top; row < DIMENSION; row++) {
+                    flipped[column][top + DIMENSION - 1 - row] = own[column][row];
+                }
+            }
+            assertEquals(tokens(flipped), Bitboard.flip(tokens(own), tokens(occupied)));
+        }
+    }
+
+    /**
+     * @param random The random numbers.
+     * @return Tokens covering a half, a quarter or an eighth of the board.
+     */
+    private static long randomTokens(Random random) {
+        long tokens = random.nextLong();
+        for (int halvings = random.nextInt(3); halvings > 0; halvings--) {
+            tokens &= random.nextLong();
+        }
+        return tokens;
+    }
+
+    /**
+     * Looks for four tokens following each other cell by cell in every line: the
+     * columns, the rows, the '/' diagonals by the sum of column and row and the
+     * '\' diagonals by their difference.
+     *
+     * @param tokens The tokens of a player.
+     * @return The lines containing a winning sequence, line {@code i} being the
+     *         bit {@code i}.
+     */
+    static long scan(long tokens) {
+        boolean[][] cells = cells(tokens);
+        long lines = 0;
+        int line = 0;
+        for (int column = 0; column < DIMENSION; column++, line++) {
+            int sequence = 0;
+            for (int row = 0; row < DIMENSION; row++) {
+                sequence = cells[column][row] ? sequence + 1 : 0;
+                if (sequence >= WINNING_LENGTH)
+                    lines |= 1L << line;
+            }
+        }
+        for (int row = 0; row < DIMENSION; row++, line++) {
+            int sequence = 0;
+            for (int column = 0; column < DIMENSION; column++) {
+                sequence = cells[column][row] ? sequence + 1 : 0;
+                if (sequence >= WINNING_LENGTH)
+                    lines |= 1L << line;
+            }
+        }
+        for (int sum = WINNING_LENGTH - 1; sum <= 2 * DIMENSION - 1 - WINNING_LENGTH; sum++, line++) {
+            int sequence = 0;
+            for (int column = 0; column < DIMENSION; column++) {
+                int row = sum - column;
+                sequence = row >= 0 && row < DIMENSION && cells[column][row] ? sequence + 1 : 0;
+                if (sequence >= WINNING_LENGTH)
+                    lines |= 1L << line;
+            }
+        }
+        for (int difference = WINNING_LENGTH - DIMENSION; difference <= DIMENSION - WINNING_LENGTH;
+                difference++, line++) {
+            int sequence = 0;
+            for (int column = 0; column < DIMENSION; column++) {
+                int row = column - difference;
+                sequence = row >= 0 && row < DIMENSION && cells[column][row] ? sequence + 1 : 0;
+                if (sequence >= WINNING_LENGTH)
+                    lines |= 1L << line;
+            }
+        }
+        assertEquals(Bitboard.LINES_NUMBER, line);
+        return lines;
+    }
+
+    /**
+     * @param tokens The tokens of a player.
+     * @return The cells by column and row, the row 0 being the upper one.
+     */
+    static boolean[][] cells(long tokens) {
+        boolean[][] cells = new boolean[DIMENSION][DIMENSION];
+        for (int column = 0; column < DIMENSION; column++) {
+            for (int row = 0; row < DIMENSION; row++) {
+                cells[column][row] = (tokens >>> column * DIMENSION + row & 1) != 0;
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * @param cells The cells by column and row, the row 0 being the upper one.
+     * @return The tokens of the player.
+     */
+    static long tokens(boolean[][] cells) {
+        long tokens = 0;
+        for (int column = 0; column < DIMENSION; column++) {
+            for (int row = 0; row < DIMENSION; row++) {
+                if (cells[column][row])
+                    tokens |= 1L << column * DIMENSION + row;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,195 @@
+package edu.kit.informatik;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.kit.informatik.exceptions.IllegalCommandException;
+
+/**
+ * Tests of {@link ConnectFourGame}.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+class ConnectFourGameTest {
+    private static final int TOKENS_NUMBER = 28;
+    private static final int GAMES = 200;
+
+    @Test
+    void unmakeAndRedoRestoreEveryState() throws IllegalCommandException {
+        Random random = new Random(3);
+        int[] moves = new int[Move.MOVES_NUMBER];
+        for (Mode mode : Mode.values()) {
+            for (int game = 0; game < GAMES; game++) {
+                ConnectFourGame position = newGame();
+                List<String> states = new ArrayList<>();
+                states.add(state(position));
+                int number;
+                while ((number = position.generateMoves(mode, moves)) > 0) {
+                    position.makeMove(moves[random.nextInt(number)]);
+                    states.add(state(position));
+                }
+                for (int i = states.size() - 2; i >= 0; i--) {
+                    assertTrue(position.unmakeMove());
+                    assertEquals(states.get(i), state(position));
+                }
+                assertFalse(position.unmakeMove());
+                for (int i = 1; i < states.size(); i++) {
+                    assertTrue(position.redoMove());
+                    assertEquals(states.get(i), state(position));
+                }
+                assertFalse(position.redoMove());
+            }
+        }
+    }
+
+    @Test
+    void rejectedMoveKeepsTheMovesToRedo() throws IllegalCommandException {
+        ConnectFourGame position = newGame();
+        position.makeMove(Move.throwin(0));
+        String afterThrowin = state(position);
+        position.unmakeMove();
+        String beforeThrowin = state(position);
+        assertThrows(IllegalCommandException.class, () -> position.makeMove(Move.remove(3)));
+        assertEquals(beforeThrowin, state(position));
+        assertTrue(position.redoMove());
+        assertEquals(afterThrowin, state(position));
+        assertEquals(Move.throwin(0), position.getLastMove());
+    }
+
+    @Test
+    void rejectedMoveChangesNothing() throws IllegalCommandException {
+        ConnectFourGame position = newGame();
+        position.makeMove(Move.throwin(2));
+        String before = state(position);
+        assertThrows(IllegalCommandException.class, () -> position.makeMove(Move.remove(2)));
+        assertThrows(IllegalCommandException.class, () -> position.makeMove(Move.remove(5)));
+        assertEquals(before, state(position));
+        assertEquals(1, position.getMovesNumber());
+    }
+
+    @Test
+    void madeMoveDropsTheMovesToRedo() throws IllegalCommandException {
+        ConnectFourGame position = newGame();
+        position.makeMove(Move.throwin(0));
+        position.makeMove(Move.throwin(1));
+        position.unmakeMove();
+        position.makeMove(Move.throwin(2));
+        assertFalse(position.redoMove());
+        assertEquals(Move.throwin(2), position.getLastMove());
+    }
+
+    @Test
+    void everyPositionAgreesWithTheOriginalGame() throws IllegalCommandException {
+        Random random = new Random(4);
+        int[] moves = new int[Move.MOVES_NUMBER];
+        for (Mode mode : Mode.values()) {
+            for (int game = 0; game < GAMES; game++) {
+                ConnectFourGame position = newGame();
+                ReferenceGame reference = new ReferenceGame(new Player(Cell.P1, TOKENS_NUMBER),
+                        new Player(Cell.P2, TOKENS_NUMBER));
+                int number;
+                while ((number = position.generateMoves(mode, moves)) > 0) {
+                    int move = moves[random.nextInt(number)];
+                    position.makeMove(move);
+                    if (move == Move.FLIP) {
+                        reference.flip();
+                        reference.nextPlayer();
+                    } else if (Move.isRemove(move)) {
+                        assertTrue(reference.remove(Move.column(move)));
+                    } else {
+                        assertTrue(reference.throwin(Move.column(move)));
+                    }
+                    reference.checkGameState();
+                    for (int column = 0; column < ConnectFourGame.BOARD_DIMENSION; column++) {
+                        for (int row = 0; row < ConnectFourGame.BOARD_DIMENSION; row++) {
+                            assertEquals(reference.getCellState(Integer.toString(column), Integer.toString(row)),
+                                    position.getCellState(column, row));
+                        }
+                    }
+                    assertEquals(reference.getGameState(), position.getGameState());
+                    assertEquals(label(reference.getWinner()), label(position.getWinner()));
+                    assertEquals(reference.getTokensNumberOfCurrentPlayer(), position.getTokensNumberOfCurrentPlayer());
+                }
+                assertTrue(reference.getGameState() != GameState.RUNNING);
+            }
+        }
+    }
+
+    @Test
+    void windowScoreMatchesARescan() throws IllegalCommandException {
+        Random random = new Random(5);
+        int[] moves = new int[Move.MOVES_NUMBER];
+        ConnectFourGame copy = newGame();
+        for (Mode mode : Mode.values()) {
+            for (int game = 0; game < GAMES; game++) {
+                ConnectFourGame position = newGame();
+                assertWindowScore(position);
+                int number;
+                while ((number = position.generateMoves(mode, moves)) > 0) {
+                    position.makeMove(moves[random.nextInt(number)]);
+                    assertWindowScore(position);
+                    copy.copyFrom(position);
+                    assertWindowScore(copy);
+                    assertWindowScore(new ConnectFourGame(position));
+                }
+                while (position.unmakeMove()) {
+                    assertWindowScore(position);
+                }
+                while (position.redoMove()) {
+                    assertWindowScore(position);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks the incrementally updated window score of a game against a scan of
+     * every window of its board.
+     *
+     * @param position A game.
+     */
+    private static void assertWindowScore(ConnectFourGame position) {
+        boolean playerOne = position.getCurrentPlayer().getLabel() == Cell.P1;
+        long playerOneTokens = playerOne ? position.getCurrentPlayerTokens() : position.getRivalTokens();
+        long playerTwoTokens = playerOne ? position.getRivalTokens() : position.getCurrentPlayerTokens();
+        int score = Windows.boardScore(playerOneTokens, playerTwoTokens);
+        assertEquals(playerOne ? score : -score, position.getWindowScore());
+    }
+
+    /**
+     * @return A new game with the test's number of tokens.
+     */
+    static ConnectFourGame newGame() {
+        return new ConnectFourGame(new Player(Cell.P1, TOKENS_NUMBER), new Player(Cell.P2, TOKENS_NUMBER));
+    }
+
+    /**
+     * @param player A player or {@code null}.
+     * @return The label of the player, or {@code null} if there is none.
+     */
+    private static Cell label(Player player) {
+        return player == null ? null : player.getLabel();
+    }
+
+    /**
+     * @param position A game.
+     * @return Everything the game tells about its position.
+     */
+    static String state(ConnectFourGame position) {
+        Player winner = position.getWinner();
+        return position.getCurrentPlayer().getLabel() + " " + position.getCurrentPlayerTokens() + " "
+                + position.getRivalTokens() + " " + position.getTokensNumberOfCurrentPlayer() + " "
+                + position.getGameState() + " " + (winner == null ? "-" : winner.getLabel()) + " "
+                + position.getHash() + " " + position.getCanonicalHash() + " " + position.getWindowScore() + " "
+                + position.getMovesNumber();
+    }
+}
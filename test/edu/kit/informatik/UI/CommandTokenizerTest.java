@@ -0,0 +1,79 @@
+package edu.kit.informatik.UI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link CommandTokenizer} against {@code line.split(" ")} and the
+ * regular expressions the commands were checked with before.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+class CommandTokenizerTest {
+    private static final String CHARACTERS = "  ab07;8\t-";
+    private static final int LINES = 100_000;
+    private static final int MAXIMUM_LENGTH = 8;
+    private static final int KEPT_ARGUMENTS = 2;
+
+    @Test
+    void splitsLikeSplit() {
+        Random random = new Random(1);
+        CommandTokenizer tokenizer = new CommandTokenizer();
+        for (int i = 0; i < LINES; i++) {
+            check(tokenizer, randomLine(random));
+        }
+        String[] lines = {"", " ", "\t", "throwin 3", "throwin  3", " throwin 3", "throwin 3 ", "throwin 3  ",
+            "state 7;0", "state 7;8", "state 07;0", "flip", "remove 8", "quit x y" };
+        for (String line : lines) {
+            check(tokenizer, line);
+        }
+    }
+
+    /**
+     * @param random The random numbers.
+     * @return A short line of separators, letters, digits and semicolons.
+     */
+    private static String randomLine(Random random) {
+        StringBuilder line = new StringBuilder();
+        for (int length = random.nextInt(MAXIMUM_LENGTH + 1); length > 0; length--) {
+            line.append(CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+        }
+        return line.toString();
+    }
+
+    /**
+     * Tokenizes a line and compares every answer of the tokenizer with the
+     * arguments of {@code line.split(" ")}.
+     *
+     * @param tokenizer The tokenizer.
+     * @param line The line.
+     */
+    private static void check(CommandTokenizer tokenizer, String line) {
+        boolean blank = line.matches("\\s*");
+        assertEquals(!blank, tokenizer.tokenize(line), line);
+        if (blank)
+            return;
+        String[] arguments = line.split(" ");
+        assertEquals(arguments.length, tokenizer.getArgumentsNumber(), line);
+        for (int argument = 0; argument < KEPT_ARGUMENTS; argument++) {
+            String expected = argument < arguments.length ? arguments[argument] : null;
+            if (expected != null)
+                assertTrue(tokenizer.argumentEquals(argument, expected), line);
+            assertFalse(tokenizer.argumentEquals(argument, expected + "x"), line);
+            boolean digit = expected != null && expected.matches("[0-7]");
+            assertEquals(digit ? expected.charAt(0) - '0' : -1, tokenizer.digit(argument), line);
+            boolean coordinates = expected != null && expected.matches("[0-7];[0-7]");
+            assertEquals(coordinates, tokenizer.isCoordinates(argument), line);
+            if (coordinates) {
+                assertEquals(expected.charAt(0) - '0', tokenizer.column(argument), line);
+                assertEquals(expected.charAt(2) - '0', tokenizer.row(argument), line);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package edu.kit.informatik.UI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import edu.kit.informatik.Console;
+import edu.kit.informatik.exceptions.IllegalCommandException;
+
+/**
+ * Tests of {@link GameManager} playing scripted sessions.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+class GameManagerTest {
+
+    @Test
+    void redoAfterRejectedRemove() throws IllegalCommandException {
+        List<String> output = play("standard", "28", "throwin 0", "undo", "remove 3", "redo", "state 0;7");
+        assertEquals(Arrays.asList("OK", "OK", "the column with the number you entered is empty.", "OK", "P1"),
+                output);
+    }
+
+    @Test
+    void undoAndRedoWithoutMoves() throws IllegalCommandException {
+        List<String> output = play("flip", "30", "undo", "throwin 4", "flip", "undo", "undo", "undo", "redo",
+                "redo", "redo", "state 4;7");
+        assertEquals(Arrays.asList("Error, there is no move to undo.", "OK", "OK", "OK", "OK",
+                "Error, there is no move to undo.", "OK", "OK", "Error, there is no move to redo.", "P1"), output);
+    }
+
+    /**
+     * Plays a session until the end of its input.
+     *
+     * @param mode The mode of the game.
+     * @param tokens The tokens number of each player.
+     * @param commands The input lines.
+     * @return The printed lines.
+     * @throws IllegalCommandException If the session fails.
+     */
+    static List<String> play(String mode, String tokens, String... commands) throws IllegalCommandException {
+        Deque<String> input = new ArrayDeque<>(Arrays.asList(commands));
+        List<String> output = new ArrayList<>();
+        Console console = new Console() {
+            @Override
+            public String readLine() {
+                return input.poll();
+            }
+
+            @Override
+            public void printLine(Object object) {
+                output.add(String.valueOf(object));
+            }
+        };
+        GameManager session = new GameManager(mode, tokens, console);
+        session.simulateGame(console);
+        session.shutdown();
+        return output;
+    }
+}
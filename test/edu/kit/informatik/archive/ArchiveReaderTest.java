@@ -0,0 +1,148 @@
+package edu.kit.informatik.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.kit.informatik.Cell;
+import edu.kit.informatik.ConnectFourGame;
+import edu.kit.informatik.Mode;
+import edu.kit.informatik.Move;
+import edu.kit.informatik.Player;
+import edu.kit.informatik.exceptions.IllegalCommandException;
+
+/**
+ * Tests of {@link ArchiveWriter}, {@link ArchiveReader} and {@link ArchivedGame}.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+class ArchiveReaderTest {
+    private static final int GAMES = 20_000;
+    private static final int MAX_MOVES = 200;
+    private static final int THREADS = 3;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsEveryWrittenGame() throws IOException, InterruptedException, IllegalCommandException {
+        Path archive = directory.resolve("games.archive");
+        Map<GameRecord, Integer> written = new HashMap<>();
+        Random random = new Random(19);
+        try (ArchiveWriter writer = new ArchiveWriter(archive)) {
+            for (int i = 0; i < GAMES; i++) {
+                GameRecord record = randomGame(random, Mode.values()[i % Mode.values().length]);
+                writer.append(record);
+                written.merge(record, 1, Integer::sum);
+            }
+        }
+        ArchiveReader reader = new ArchiveReader(THREADS);
+        Records read = reader.analyze(Collections.singletonList(archive), Records::new);
+        assertEquals(GAMES, reader.getGames());
+        assertEquals(0, reader.getInvalidGames());
+        Map<GameRecord, Integer> counts = new HashMap<>();
+        for (GameRecord record : read.records) {
+            counts.merge(record, 1, Integer::sum);
+        }
+        assertEquals(written, counts);
+    }
+
+    @Test
+    void rejectsTokensNumbersNoGameStartsWith() throws IllegalCommandException {
+        ArchivedGame game = new ArchivedGame();
+        for (int tokens : new int[] {-1, 0, 1, ConnectFourGame.MINIMUM_TOKENS_NUMBER - 1,
+            ConnectFourGame.MAXIMUM_TOKENS_NUMBER + 1, 64, Byte.MAX_VALUE }) {
+            ByteBuffer buffer = encode(Mode.STANDARD, tokens, Move.throwin(0));
+            assertEquals(-1, game.read(buffer, 0, buffer.limit()), "tokens " + tokens);
+        }
+        ByteBuffer buffer = encode(Mode.STANDARD, ConnectFourGame.MAXIMUM_TOKENS_NUMBER, Move.throwin(0));
+        assertEquals(buffer.limit(), game.read(buffer, 0, buffer.limit()));
+        assertEquals(ConnectFourGame.MAXIMUM_TOKENS_NUMBER, game.getTokensNumber());
+        assertEquals(Move.throwin(0), game.getPosition().getLastMove());
+    }
+
+    @Test
+    void rejectsMovesTheModeForbids() {
+        ArchivedGame game = new ArchivedGame();
+        ByteBuffer remove = encode(Mode.REMOVE, ConnectFourGame.MINIMUM_TOKENS_NUMBER, Move.throwin(0), Move.FLIP);
+        assertThrows(IllegalCommandException.class, () -> game.read(remove, 0, remove.limit()));
+        ByteBuffer flip = encode(Mode.FLIP, ConnectFourGame.MINIMUM_TOKENS_NUMBER, Move.throwin(0), Move.throwin(1),
+                Move.remove(0));
+        assertThrows(IllegalCommandException.class, () -> game.read(flip, 0, flip.limit()));
+    }
+
+    @Test
+    void rejectsIncompleteRecords() throws IllegalCommandException {
+        ArchivedGame game = new ArchivedGame();
+        ByteBuffer buffer = encode(Mode.STANDARD, ConnectFourGame.MINIMUM_TOKENS_NUMBER, Move.throwin(0),
+                Move.throwin(1));
+        assertEquals(-1, game.read(buffer, 0, buffer.limit() - 1));
+        assertEquals(-1, game.read(buffer, 0, GameRecord.HEADER_BYTES - 1));
+    }
+
+    /**
+     * Plays random moves until the game is over or long enough.
+     *
+     * @param random The random generator.
+     * @param mode The mode of the game.
+     * @return The record of the game.
+     * @throws IllegalCommandException Never, only generated moves are made.
+     */
+    static GameRecord randomGame(Random random, Mode mode) throws IllegalCommandException {
+        int tokens = ConnectFourGame.MINIMUM_TOKENS_NUMBER
+                + random.nextInt(ConnectFourGame.MAXIMUM_TOKENS_NUMBER - ConnectFourGame.MINIMUM_TOKENS_NUMBER + 1);
+        ConnectFourGame game = new ConnectFourGame(new Player(Cell.P1, tokens), new Player(Cell.P2, tokens));
+        int[] moves = new int[Move.MOVES_NUMBER];
+        int number;
+        while (game.getMovesNumber() < MAX_MOVES && (number = game.generateMoves(mode, moves)) > 0) {
+            game.makeMove(moves[random.nextInt(number)]);
+        }
+        return GameRecord.of(mode, tokens, game);
+    }
+
+    /**
+     * @param mode The mode of the game.
+     * @param tokens The number of tokens, written as it is.
+     * @param moves The moves.
+     * @return A buffer holding the encoded record.
+     */
+    private static ByteBuffer encode(Mode mode, int tokens, int... moves) {
+        ByteBuffer buffer = ByteBuffer.allocate(GameRecord.HEADER_BYTES + moves.length);
+        buffer.put((byte) mode.ordinal()).put((byte) tokens).putInt(moves.length);
+        for (int move : moves) {
+            buffer.put((byte) move);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Keeps a record of every game.
+     */
+    private static final class Records implements GameAggregator {
+        private final List<GameRecord> records = new ArrayList<>();
+
+        @Override
+        public void accept(ArchivedGame game) {
+            records.add(game.toRecord());
+        }
+
+        @Override
+        public void merge(GameAggregator other) {
+            records.addAll(((Records) other).records);
+        }
+    }
+}
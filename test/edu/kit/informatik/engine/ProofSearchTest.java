@@ -0,0 +1,136 @@
+package edu.kit.informatik.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.kit.informatik.Cell;
+import edu.kit.informatik.ConnectFourGame;
+import edu.kit.informatik.GameState;
+import edu.kit.informatik.Mode;
+import edu.kit.informatik.Move;
+import edu.kit.informatik.Player;
+import edu.kit.informatik.exceptions.IllegalCommandException;
+
+/**
+ * Tests of {@link ProofSearch} against a minimax search of every move on games
+ * of the remove mode whose players have only a few tokens left.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+class ProofSearchTest {
+    private static final int POSITIONS = 60;
+    private static final int TOKENS_NUMBER = 6;
+    private static final int TOKENS_LEFT = 2;
+    private static final long NODE_BUDGET = 1_000_000L;
+    private static final int MEGABYTES = 1;
+
+    @Test
+    void provesTheOutcomesOfMinimax() throws IllegalCommandException {
+        Random random = new Random(1);
+        ProofSearch search = new ProofSearch(NODE_BUDGET, MEGABYTES);
+        Map<Outcome, Integer> outcomes = new EnumMap<>(Outcome.class);
+        int[] moves = new int[Move.MOVES_NUMBER];
+        for (int i = 0; i < POSITIONS; i++) {
+            ConnectFourGame game = randomPosition(random, moves);
+            if (game.getGameState() != GameState.RUNNING)
+                continue;
+            Map<Long, Integer> values = new HashMap<>();
+            int value = minimax(game, values);
+            ProofResult result = search.solve(game);
+            assertEquals(outcome(value), result.getOutcome());
+            outcomes.merge(result.getOutcome(), 1, Integer::sum);
+            if (result.getOutcome() != Outcome.WIN) {
+                assertEquals(ProofResult.NO_MOVE, result.getMove());
+                continue;
+            }
+            // The winning move wins at once or leaves the rival a lost position.
+            game.makeMove(result.getMove());
+            if (game.getGameState() == GameState.RUNNING) {
+                assertEquals(-1, minimax(game, values));
+                ProofResult rival = search.solve(game);
+                assertEquals(Outcome.LOSS, rival.getOutcome());
+                outcomes.merge(rival.getOutcome(), 1, Integer::sum);
+            } else {
+                assertEquals(GameState.WON, game.getGameState());
+            }
+        }
+        assertTrue(outcomes.containsKey(Outcome.WIN), outcomes.toString());
+        assertTrue(outcomes.containsKey(Outcome.LOSS), outcomes.toString());
+        assertTrue(outcomes.containsKey(Outcome.DRAW), outcomes.toString());
+    }
+
+    @Test
+    void exhaustedBudgetIsUnknown() {
+        ConnectFourGame game = new ConnectFourGame(new Player(Cell.P1, ConnectFourGame.MAXIMUM_TOKENS_NUMBER),
+                new Player(Cell.P2, ConnectFourGame.MAXIMUM_TOKENS_NUMBER));
+        ProofResult result = new ProofSearch(1_000, MEGABYTES).solve(game);
+        assertEquals(Outcome.UNKNOWN, result.getOutcome());
+        assertEquals(ProofResult.NO_MOVE, result.getMove());
+    }
+
+    /**
+     * @param value The minimax value of a position.
+     * @return The outcome of the position for its active player.
+     */
+    private static Outcome outcome(int value) {
+        return value > 0 ? Outcome.WIN : value < 0 ? Outcome.LOSS : Outcome.DRAW;
+    }
+
+    /**
+     * @param random The random numbers.
+     * @param moves The room for the possible moves.
+     * @return A game after random moves until the active player has only a few
+     *         tokens left, maybe finished.
+     * @throws IllegalCommandException Never, only possible moves are made.
+     */
+    private static ConnectFourGame randomPosition(Random random, int[] moves) throws IllegalCommandException {
+        ConnectFourGame game = new ConnectFourGame(new Player(Cell.P1, TOKENS_NUMBER),
+                new Player(Cell.P2, TOKENS_NUMBER));
+        while (game.getGameState() == GameState.RUNNING && game.getTokensNumberOfCurrentPlayer() > TOKENS_LEFT) {
+            int number = game.generateMoves(Mode.REMOVE, moves);
+            game.makeMove(moves[random.nextInt(number)]);
+        }
+        return game;
+    }
+
+    /**
+     * Searches every move of a running game to its end.
+     *
+     * @param game The running game, unchanged afterwards.
+     * @param values The values of the positions searched so far by their hash.
+     * @return {@code 1} if the active player can force a win, {@code -1} if the
+     *         rival can, {@code 0} otherwise.
+     * @throws IllegalCommandException Never, only possible moves are made.
+     */
+    private static int minimax(ConnectFourGame game, Map<Long, Integer> values) throws IllegalCommandException {
+        Integer known = values.get(game.getHash());
+        if (known != null)
+            return known;
+        Cell player = game.getCurrentPlayer().getLabel();
+        int[] moves = new int[Move.MOVES_NUMBER];
+        int number = game.generateMoves(Mode.REMOVE, moves);
+        int best = -1;
+        for (int i = 0; i < number && best < 1; i++) {
+            game.makeMove(moves[i]);
+            int value;
+            if (game.getGameState() == GameState.WON)
+                value = game.getWinner().getLabel() == player ? 1 : -1;
+            else if (game.getGameState() == GameState.DRAW)
+                value = 0;
+            else
+                value = -minimax(game, values);
+            game.unmakeMove();
+            best = Math.max(best, value);
+        }
+        values.put(game.getHash(), best);
+        return best;
+    }
+}
@@ -0,0 +1,156 @@
+package edu.kit.informatik.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.kit.informatik.Cell;
+import edu.kit.informatik.ChannelConsole;
+import edu.kit.informatik.Mode;
+import edu.kit.informatik.Move;
+import edu.kit.informatik.archive.GameJournal;
+
+/**
+ * Tests of {@link SessionRegistry} recording its games in a journal.
+ *
+ * @author Moayad Yaghi
+ * @version 1.0
+ */
+class SessionRegistryTest {
+    private static final int TOKENS_NUMBER = 28;
+    private static final long IDLE_TIMEOUT = 300;
+    private static final int BUFFER_SIZE = 1 << 12;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoreDropsMovesTheModeForbids() throws IOException {
+        Path file = directory.resolve("games.journal");
+        try (GameJournal journal = GameJournal.open(file)) {
+            journal.start(1, Mode.REMOVE, TOKENS_NUMBER);
+            journal.move(1, Move.throwin(0));
+            journal.move(1, Move.FLIP);
+            journal.start(2, Mode.REMOVE, TOKENS_NUMBER);
+            journal.move(2, Move.throwin(0));
+            journal.move(2, Move.throwin(1));
+        }
+        try (GameJournal journal = GameJournal.open(file)) {
+            SessionRegistry registry = new SessionRegistry("remove", "28", IDLE_TIMEOUT, journal);
+            assertEquals(1, registry.getGames());
+            Recorder seat = new Recorder();
+            registry.join(seat);
+            assertTrue(registry.resume(seat, 2, Cell.P1));
+        }
+    }
+
+    @Test
+    void wonGameIsEndedAtOnce() throws IOException {
+        Path file = directory.resolve("games.journal");
+        try (GameJournal journal = GameJournal.open(file)) {
+            SessionRegistry registry = new SessionRegistry("standard", "28", IDLE_TIMEOUT, journal);
+            Recorder first = new Recorder();
+            Recorder second = new Recorder();
+            registry.join(first);
+            registry.join(second);
+            for (int i = 0; i < 3; i++) {
+                registry.execute(first, "throwin 0");
+                registry.execute(second, "throwin 1");
+            }
+            registry.execute(first, "throwin 0");
+            assertEquals("P1 wins", first.last());
+            assertEquals(1, registry.getGames());
+        }
+        try (GameJournal journal = GameJournal.open(file)) {
+            assertTrue(journal.getInProgress().isEmpty());
+        }
+    }
+
+    @Test
+    void restoredWonGameIsEnded() throws IOException {
+        Path file = directory.resolve("games.journal");
+        try (GameJournal journal = GameJournal.open(file)) {
+            journal.start(1, Mode.STANDARD, TOKENS_NUMBER);
+            for (int i = 0; i < 3; i++) {
+                journal.move(1, Move.throwin(0));
+                journal.move(1, Move.throwin(1));
+            }
+            journal.move(1, Move.throwin(0));
+        }
+        try (GameJournal journal = GameJournal.open(file)) {
+            assertEquals(1, journal.getInProgress().size());
+            assertEquals(0, new SessionRegistry("standard", "28", IDLE_TIMEOUT, journal).getGames());
+        }
+        try (GameJournal journal = GameJournal.open(file)) {
+            assertTrue(journal.getInProgress().isEmpty());
+        }
+    }
+
+    @Test
+    void spectatorOfRestoredGameSeesItsBoard() throws IOException, InterruptedException {
+        Path file = directory.resolve("games.journal");
+        try (GameJournal journal = GameJournal.open(file)) {
+            journal.start(1, Mode.STANDARD, TOKENS_NUMBER);
+            journal.move(1, Move.throwin(0));
+            journal.move(1, Move.throwin(1));
+            journal.move(1, Move.throwin(0));
+        }
+        try (GameJournal journal = GameJournal.open(file)) {
+            SessionRegistry registry = new SessionRegistry("standard", "28", IDLE_TIMEOUT, journal);
+            Recorder first = new Recorder();
+            Recorder second = new Recorder();
+            registry.join(first);
+            assertTrue(registry.resume(first, 1, Cell.P1));
+            registry.join(second);
+            assertTrue(registry.resume(second, 1, Cell.P2));
+            Recorder spectator = new Recorder();
+            registry.join(spectator);
+            Broadcast broadcast = registry.watch(spectator, 1);
+            registry.execute(second, "throwin 1");
+            assertEquals("OK", second.last());
+            broadcast.close();
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            broadcast.follow(new ChannelConsole(Channels.newChannel(InputStream.nullInputStream()),
+                    Channels.newChannel(output), BUFFER_SIZE, false));
+            String[] lines = output.toString(StandardCharsets.UTF_8).split("\\R");
+            assertEquals("watching game 1", lines[0]);
+            assertEquals("4 board --------/--------/--------/--------/--------/--------/12------/12------ OK",
+                    lines[1]);
+            assertEquals("game 1 is closed", lines[2]);
+        }
+    }
+
+    /**
+     * A client keeping the messages it receives.
+     */
+    private static final class Recorder extends Seat {
+        private final List<String> messages = new ArrayList<>();
+
+        @Override
+        void send(String message) {
+            messages.add(message);
+        }
+
+        @Override
+        void close() {
+        }
+
+        /**
+         * @return The last received message.
+         */
+        String last() {
+            return messages.get(messages.size() - 1);
+        }
+    }
+}